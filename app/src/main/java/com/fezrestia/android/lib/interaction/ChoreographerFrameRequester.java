@@ -0,0 +1,56 @@
+package com.fezrestia.android.lib.interaction;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import com.fezrestia.android.lib.interaction.core.FrameCoalescingCallback;
+
+/**
+ * Frame source backed by Choreographer of callback handler thread.
+ */
+class ChoreographerFrameRequester
+        implements
+                FrameCoalescingCallback.FrameRequester,
+                Choreographer.FrameCallback,
+                Runnable {
+    // Thread of which Choreographer is used.
+    private final Handler mHandler;
+
+    // Requested callback.
+    private volatile FrameCoalescingCallback mCallback = null;
+
+    /**
+     * CONSTRUCTOR.
+     *
+     * @param handler
+     */
+    ChoreographerFrameRequester(Handler handler) {
+        mHandler = handler;
+    }
+
+    @Override
+    public void requestFrame(FrameCoalescingCallback callback) {
+        mCallback = callback;
+
+        if (Looper.myLooper() == mHandler.getLooper()) {
+            Choreographer.getInstance().postFrameCallback(this);
+        } else {
+            // Choreographer is thread local.
+            mHandler.post(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        final FrameCoalescingCallback callback = mCallback;
+        if (callback != null) {
+            callback.onFrame();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.fezrestia.android.lib.interaction;
+
+import android.os.Handler;
+
+import com.fezrestia.android.lib.interaction.core.Scheduler;
+
+/**
+ * Scheduler backed by Android Handler.
+ */
+class HandlerScheduler implements Scheduler {
+    // Target handler.
+    private final Handler mHandler;
+
+    /**
+     * CONSTRUCTOR.
+     *
+     * @param handler
+     */
+    HandlerScheduler(Handler handler) {
+        mHandler = handler;
+    }
+
+    @Override
+    public void post(Runnable task) {
+        mHandler.post(task);
+    }
+
+    @Override
+    public void postAtTime(Runnable task, long uptimeMillis) {
+        mHandler.postAtTime(task, uptimeMillis);
+    }
+
+    @Override
+    public void remove(Runnable task) {
+        mHandler.removeCallbacks(task);
+    }
+}
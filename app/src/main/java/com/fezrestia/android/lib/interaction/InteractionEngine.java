@@ -2,22 +2,28 @@ package com.fezrestia.android.lib.interaction;
 
 import android.content.Context;
 import android.graphics.Point;
-import android.graphics.PointF;
-import android.graphics.Rect;
 import android.os.Handler;
+import android.os.SystemClock;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewConfiguration;
 
+import com.fezrestia.android.lib.interaction.core.Clock;
+import com.fezrestia.android.lib.interaction.core.FrameCoalescingCallback;
+import com.fezrestia.android.lib.interaction.core.InteractionCore;
+import com.fezrestia.android.lib.interaction.core.TouchInteractionCallback;
+import com.fezrestia.android.lib.interaction.core.TouchRecognizer;
+import com.fezrestia.android.lib.interaction.core.TouchSample;
+
 /**
  * This class is used to detect interaction between user and target view.
+ *
+ * Touch interaction is detected by platform independent InteractionCore.
+ * This class converts MotionEvent to TouchSample, and adds hit test and Android gestures.
+ * MotionEvent is converted once, and shared by all recognizers in pipeline of InteractionCore.
  */
-public class InteractionEngine
-        implements
-                TouchMoveAndStopDetector.TouchStopDetectorListener,
-                TouchScaleAndRotateDetector.ScaleAndRotateDetectorListener,
-                GestureDetector.OnGestureListener {
+public class InteractionEngine implements GestureDetector.OnGestureListener {
     // Log tag.
     public final static String TAG = "TouchActionTranslator";
 
@@ -32,37 +38,197 @@ public class InteractionEngine
 
     // Margin of target view around.
     private final int mMargin;
-    private final int mTouchSlop;
 
     // Touch events are in target area or not.
     private boolean mIsAllTouchEventInTargetArea = true;
 
-    // Touch stop detector.
-    private TouchMoveAndStopDetector mSingleTouchMoveAndStopDetector = null;
+    // Time source, same time base as MotionEvent.getEventTime().
+    private static final Clock UPTIME_CLOCK = new Clock() {
+        @Override
+        public long uptimeMillis() {
+            return SystemClock.uptimeMillis();
+        }
+    };
+
+    // Touch stop detector thread.
+    private final SharedDetectorThreadScheduler mDetectorScheduler
+            = new SharedDetectorThreadScheduler();
+
+    // Platform independent interaction detector.
+    private final InteractionCore mCore;
+
+    // Reused touch sample.
+    private final TouchSample mTouchSample = new TouchSample();
+
+    // Touch stop detection mode.
+    public static final int TOUCH_STOP_DETECTION_MODE_TIMER =
+            InteractionCore.TOUCH_STOP_DETECTION_MODE_TIMER;
+    public static final int TOUCH_STOP_DETECTION_MODE_EVENT_TIME =
+            InteractionCore.TOUCH_STOP_DETECTION_MODE_EVENT_TIME;
 
-    // Scale and Rotate detector.
-    private TouchScaleAndRotateDetector mDoubleTouchScaleAndRotateDetector = null;
+    // Callback delivery mode.
+    // Immediate mode delivers each callback as soon as it is detected.
+    public static final int CALLBACK_DELIVERY_MODE_IMMEDIATE = 0;
+    // Per frame mode delivers move, scale and rotate at most once per Choreographer frame.
+    public static final int CALLBACK_DELIVERY_MODE_PER_FRAME = 1;
+    private int mCallbackDeliveryMode = CALLBACK_DELIVERY_MODE_IMMEDIATE;
+
+    // Per frame callback delivery, created on first per frame mode.
+    private FrameCoalescingCallback mFrameCoalescingCallback = null;
 
     // Android standard gesture detector.
     private GestureDetector mAndroidGestureDetector = null;
 
+    // Recognizer order in pipeline.
+    public static final int RECOGNIZER_ORDER_BEFORE_BUILT_IN =
+            InteractionCore.RECOGNIZER_ORDER_BEFORE_BUILT_IN;
+    public static final int RECOGNIZER_ORDER_AFTER_BUILT_IN =
+            InteractionCore.RECOGNIZER_ORDER_AFTER_BUILT_IN;
+
+    // Android gesture recognizer name.
+    public static final String RECOGNIZER_ANDROID_GESTURE = "AndroidGesture";
+
+    // Android gesture detector in pipeline, placed after built-in recognizers.
+    private final AndroidGestureRecognizer mAndroidGestureRecognizer =
+            new AndroidGestureRecognizer();
+
+    // MotionEvent of current TouchSample, only for Android gesture detector.
+    private MotionEvent mCurrentMotion = null;
+
     // Dummy interaction callback.
-    private static final InteractionCallback NULL_LISTENER = new NullInteractionListener();
+    private static final PrimitiveInteractionCallback NULL_LISTENER
+            = new NullInteractionListener();
 
     // Interaction callback.
-    private InteractionCallback mInteractionCallback = NULL_LISTENER;
+    private PrimitiveInteractionCallback mInteractionCallback = NULL_LISTENER;
+
+    // Interest mask.
+    // Touch state callbacks. (touched, released, canceled, double moved, and so on)
+    public static final int INTEREST_TOUCH_STATE = InteractionCore.INTEREST_TOUCH_STATE;
+    // onSingleMoved() and onSingleStopped(), detected by touch stop detector.
+    public static final int INTEREST_SINGLE_MOVE_AND_STOP =
+            InteractionCore.INTEREST_SINGLE_MOVE_AND_STOP;
+    // onDoubleScaled() and onDoubleRotated(), detected by scale and rotate detector.
+    public static final int INTEREST_DOUBLE_SCALE_AND_ROTATE =
+            InteractionCore.INTEREST_DOUBLE_SCALE_AND_ROTATE;
+    // onSingleTapped() and onSingleLongPressed(), detected by tap and long press recognizer.
+    public static final int INTEREST_TAP_AND_LONG_PRESS =
+            InteractionCore.INTEREST_TAP_AND_LONG_PRESS;
+    // Android gestures, detected by Android GestureDetector.
+    public static final int INTEREST_ANDROID_GESTURE =
+            InteractionCore.INTEREST_RESERVED_EXT_0;
+    // Hit test for return value of onTouchEvent().
+    public static final int INTEREST_HIT_TEST =
+            InteractionCore.INTEREST_RESERVED_EXT_1;
+    public static final int INTEREST_ALL = 0 // Dummy
+            | INTEREST_TOUCH_STATE
+            | INTEREST_SINGLE_MOVE_AND_STOP
+            | INTEREST_DOUBLE_SCALE_AND_ROTATE
+            | INTEREST_TAP_AND_LONG_PRESS
+            | INTEREST_ANDROID_GESTURE
+            | INTEREST_HIT_TEST
+            ;
+    // InteractionCore is necessary to deliver these callbacks.
+    private static final int INTEREST_CORE = InteractionCore.INTEREST_ALL;
+    private int mInterestMask = INTEREST_HIT_TEST;
+
+    // Interaction state IDs.
+    public static final int STATE_IDLE = InteractionCore.STATE_IDLE;
+    public static final int STATE_SINGLE_DOWN = InteractionCore.STATE_SINGLE_DOWN;
+    public static final int STATE_SINGLE_MOVE = InteractionCore.STATE_SINGLE_MOVE;
+    public static final int STATE_SINGLE_STOP = InteractionCore.STATE_SINGLE_STOP;
+    public static final int STATE_DOUBLE_DOWN = InteractionCore.STATE_DOUBLE_DOWN;
+    public static final int STATE_DOUBLE_MOVE = InteractionCore.STATE_DOUBLE_MOVE;
+    public static final int STATE_OVER_TRIPLE = InteractionCore.STATE_OVER_TRIPLE;
 
     /**
      * Set callback.
      *
+     * Point based callback is wrapped by PointInteractionCallbackAdapter,
+     * so Point objects are allocated for each callback.
+     * Use setPrimitiveInteractionCallback() on allocation sensitive path.
+     *
      * @param callback
      */
     public void setInteractionCallback(InteractionCallback callback) {
+        setInteractionCallback(callback, INTEREST_ALL);
+    }
+
+    /**
+     * Set callback with interest mask.
+     *
+     * @param callback
+     * @param interestMask Combination of INTEREST_*.
+     */
+    public void setInteractionCallback(InteractionCallback callback, int interestMask) {
+        if (callback != null) {
+            setPrimitiveInteractionCallback(
+                    new PointInteractionCallbackAdapter(callback),
+                    interestMask);
+        } else {
+            setPrimitiveInteractionCallback(null);
+        }
+    }
+
+    /**
+     * Set primitive callback.
+     *
+     * All of coordinates are delivered as primitive values,
+     * so no object is allocated on callback.
+     *
+     * @param callback
+     */
+    public void setPrimitiveInteractionCallback(PrimitiveInteractionCallback callback) {
+        setPrimitiveInteractionCallback(callback, INTEREST_ALL);
+    }
+
+    /**
+     * Set primitive callback with interest mask.
+     *
+     * Detectors which are not required by interest mask are never created nor fed.
+     * If callback is null, only INTEREST_HIT_TEST is kept.
+     *
+     * @param callback
+     * @param interestMask Combination of INTEREST_*.
+     */
+    public synchronized void setPrimitiveInteractionCallback(
+            PrimitiveInteractionCallback callback,
+            int interestMask) {
         if (callback != null) {
             mInteractionCallback = callback;
+            mInterestMask = interestMask;
         } else {
             mInteractionCallback = NULL_LISTENER;
+            mInterestMask = INTEREST_HIT_TEST;
         }
+
+        // Core releases detectors nobody listens to.
+        updateCoreCallback();
+        if (!isInterestedIn(INTEREST_SINGLE_MOVE_AND_STOP)) {
+            mDetectorScheduler.release();
+        }
+        if (isInterestedIn(INTEREST_ANDROID_GESTURE)) {
+            mCore.addRecognizer(mAndroidGestureRecognizer, RECOGNIZER_ORDER_AFTER_BUILT_IN);
+        } else {
+            mCore.removeRecognizer(mAndroidGestureRecognizer);
+            mAndroidGestureDetector = null;
+        }
+    }
+
+    private void updateCoreCallback() {
+        if (mFrameCoalescingCallback != null) {
+            mFrameCoalescingCallback.setTarget(mInteractionCallback);
+        }
+
+        if (mCallbackDeliveryMode == CALLBACK_DELIVERY_MODE_PER_FRAME) {
+            mCore.setCallback(mFrameCoalescingCallback, mInterestMask & INTEREST_CORE);
+        } else {
+            mCore.setCallback(mInteractionCallback, mInterestMask & INTEREST_CORE);
+        }
+    }
+
+    private boolean isInterestedIn(int interest) {
+        return (mInterestMask & interest) != 0;
     }
 
     /**
@@ -87,6 +253,10 @@ public class InteractionEngine
         // Over triple touch interaction.
         void onOverTripleCanceled();
 
+        // Tap and long press.
+        void onSingleTapped(Point point);
+        void onSingleLongPressed(Point point);
+
         // Android gestures.
         void onFling(MotionEvent event1, MotionEvent event2, float velocX, float velocY);
         void onLongPress(MotionEvent event);
@@ -94,26 +264,187 @@ public class InteractionEngine
         void onSingleTapUp(MotionEvent event);
     }
 
-    // This class is null object for InteractionCallback.
-    private static final class NullInteractionListener implements InteractionCallback {
+    /**
+     * Interaction callback based on primitive coordinates.
+     * Touch interactions are detected by InteractionCore.
+     */
+    public interface PrimitiveInteractionCallback extends TouchInteractionCallback {
+        // Android gestures.
+        void onFling(MotionEvent event1, MotionEvent event2, float velocX, float velocY);
+        void onLongPress(MotionEvent event);
+        void onShowPress(MotionEvent event);
+        void onSingleTapUp(MotionEvent event);
+    }
+
+    /**
+     * This class converts primitive callback to Point based InteractionCallback.
+     */
+    public static class PointInteractionCallbackAdapter implements PrimitiveInteractionCallback {
+        // Target.
+        private final InteractionCallback mCallback;
+
+        /**
+         * CONSTRUCTOR.
+         *
+         * @param callback
+         */
+        public PointInteractionCallbackAdapter(InteractionCallback callback) {
+            mCallback = callback;
+        }
+
         // Single touch interaction.
         @Override
-        public void onSingleTouched(Point point) {
+        public void onSingleTouched(int x, int y) {
+            mCallback.onSingleTouched(new Point(x, y));
+        }
+
+        @Override
+        public void onSingleMoved(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            mCallback.onSingleMoved(
+                    new Point(curX, curY),
+                    new Point(lastX, lastY),
+                    new Point(downX, downY));
+        }
+
+        @Override
+        public void onSingleStopped(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            mCallback.onSingleStopped(
+                    new Point(curX, curY),
+                    new Point(lastX, lastY),
+                    new Point(downX, downY));
+        }
+
+        @Override
+        public void onSingleReleased(int x, int y) {
+            mCallback.onSingleReleased(new Point(x, y));
+        }
+
+        @Override
+        public void onSingleCanceled() {
+            mCallback.onSingleCanceled();
+        }
+
+        // Double touch interaction.
+        @Override
+        public void onDoubleTouched(int x0, int y0, int x1, int y1) {
+            mCallback.onDoubleTouched(new Point(x0, y0), new Point(x1, y1));
+        }
+
+        @Override
+        public void onDoubleMoved(int x0, int y0, int x1, int y1) {
+            mCallback.onDoubleMoved(new Point(x0, y0), new Point(x1, y1));
+        }
+
+        @Override
+        public void onDoubleScaled(
+                float currentLength, float previousLength, float originalLength) {
+            mCallback.onDoubleScaled(currentLength, previousLength, originalLength);
+        }
+
+        @Override
+        public void onDoubleRotated(float degreeVsOrigin, float degreeVsLast) {
+            mCallback.onDoubleRotated(degreeVsOrigin, degreeVsLast);
+        }
+
+        @Override
+        public void onSingleReleasedInDouble(
+                int releaseX,
+                int releaseY,
+                int remainX,
+                int remainY) {
+            mCallback.onSingleReleasedInDouble(
+                    new Point(releaseX, releaseY),
+                    new Point(remainX, remainY));
+        }
+
+        @Override
+        public void onDoubleCanceled() {
+            mCallback.onDoubleCanceled();
+        }
+
+        // Over triple touch interaction.
+        @Override
+        public void onOverTripleCanceled() {
+            mCallback.onOverTripleCanceled();
+        }
+
+        // Tap and long press.
+        @Override
+        public void onSingleTapped(int x, int y) {
+            mCallback.onSingleTapped(new Point(x, y));
+        }
+
+        @Override
+        public void onSingleLongPressed(int x, int y) {
+            mCallback.onSingleLongPressed(new Point(x, y));
+        }
+
+        // Android gestures.
+        @Override
+        public void onFling(MotionEvent event1, MotionEvent event2, float velocX, float velocY) {
+            mCallback.onFling(event1, event2, velocX, velocY);
+        }
+
+        @Override
+        public void onLongPress(MotionEvent event) {
+            mCallback.onLongPress(event);
+        }
+
+        @Override
+        public void onShowPress(MotionEvent event) {
+            mCallback.onShowPress(event);
+        }
+
+        @Override
+        public void onSingleTapUp(MotionEvent event) {
+            mCallback.onSingleTapUp(event);
+        }
+    }
+
+    // This class is null object for PrimitiveInteractionCallback.
+    private static final class NullInteractionListener implements PrimitiveInteractionCallback {
+        // Single touch interaction.
+        @Override
+        public void onSingleTouched(int x, int y) {
             // NOP.
         }
 
         @Override
-        public void onSingleMoved(Point currentPoint, Point lastPoint, Point downPoint) {
+        public void onSingleMoved(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
             // NOP.
         }
 
         @Override
-        public void onSingleStopped(Point currentPoint, Point lastPoint, Point downPoint) {
+        public void onSingleStopped(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
             // NOP.
         }
 
         @Override
-        public void onSingleReleased(Point point) {
+        public void onSingleReleased(int x, int y) {
             // NOP.
         }
 
@@ -124,12 +455,12 @@ public class InteractionEngine
 
         // Double touch interaction.
         @Override
-        public void onDoubleTouched(Point point0, Point point1) {
+        public void onDoubleTouched(int x0, int y0, int x1, int y1) {
             // NOP.
         }
 
         @Override
-        public void onDoubleMoved(Point point0, Point point1) {
+        public void onDoubleMoved(int x0, int y0, int x1, int y1) {
             // NOP.
         }
 
@@ -145,7 +476,11 @@ public class InteractionEngine
         }
 
         @Override
-        public void onSingleReleasedInDouble(Point releasedPoint, Point remainedPoint) {
+        public void onSingleReleasedInDouble(
+                int releaseX,
+                int releaseY,
+                int remainX,
+                int remainY) {
             // NOP.
         }
 
@@ -160,6 +495,17 @@ public class InteractionEngine
             // NOP.
         }
 
+        // Tap and long press.
+        @Override
+        public void onSingleTapped(int x, int y) {
+            // NOP.
+        }
+
+        @Override
+        public void onSingleLongPressed(int x, int y) {
+            // NOP.
+        }
+
         // Android gestures.
         @Override
         public void onFling(MotionEvent event1, MotionEvent event2, float velocX, float velocY) {
@@ -240,15 +586,17 @@ public class InteractionEngine
         mContext = context;
         mTargetView = targetView;
         mMargin = margin;
-        mTouchSlop = touchSlop;
         mCallbackHandler = callbackHandler;
 
+        // Core.
+        mCore = new InteractionCore(
+                touchSlop,
+                UPTIME_CLOCK,
+                mDetectorScheduler,
+                new HandlerScheduler(callbackHandler));
+
         // Default.
         setInteractionCallback(null);
-
-        // Create touch scale and rotate detector.
-        mDoubleTouchScaleAndRotateDetector = new TouchScaleAndRotateDetector();
-        mDoubleTouchScaleAndRotateDetector.setScaleAndRotateDetectorListener(this);
     }
 
     /**
@@ -259,499 +607,234 @@ public class InteractionEngine
         mTargetView = null;
         mCallbackHandler = null;
 
-        if (mSingleTouchMoveAndStopDetector != null) {
-            mSingleTouchMoveAndStopDetector.release();
-            mSingleTouchMoveAndStopDetector = null;
-        }
-        mDoubleTouchScaleAndRotateDetector.release();
-        mDoubleTouchScaleAndRotateDetector = null;
+        mCore.release();
+        mDetectorScheduler.release();
         mAndroidGestureDetector = null;
 
         mInteractionCallback = NULL_LISTENER;
+        if (mFrameCoalescingCallback != null) {
+            // Pending callbacks are dropped on next frame.
+            mFrameCoalescingCallback.setTarget(NULL_LISTENER);
+        }
     }
 
-    // Interaction state interface.
-    private interface InteractionState {
-        void handleMotionEvent(MotionEvent motion);
-        void handleSingleTouchMoveEvent(Point currentPoint, Point lastPoint, Point downPoint);
-        void handleSingleTouchStopEvent(Point currentPoint, Point lastPoint, Point downPoint);
-        void handleTouchScaleEvent(float currentLength, float previousLength, float originalLength);
-        void handleTouchRotateEvent(float degreeVsOrigin, float degreeVsLast);
+    /**
+     * Get count of touch stop detector threads alive now.
+     * All engines share one detector thread, so this is 0 or 1.
+     *
+     * @return
+     */
+    public static int getLiveTouchStopDetectorThreadCount() {
+        return SharedDetectorThreadScheduler.getLiveDetectorThreadCount();
     }
 
-    // Interaction State.
-    private InteractionState mCurrentInteractionState = new Idle();
-
-    private synchronized void changeTo(InteractionState next) {
-        mCurrentInteractionState = next;
+    /**
+     * Get count of touch stop detector threads created since process start.
+     *
+     * @return
+     */
+    public static int getCreatedTouchStopDetectorThreadCount() {
+        return SharedDetectorThreadScheduler.getCreatedDetectorThreadCount();
     }
 
-    private class Idle implements InteractionState {
-        @Override
-        public void handleMotionEvent(MotionEvent motion) {
-            switch (motion.getActionMasked()) {
-                case MotionEvent.ACTION_DOWN:
-                    mInteractionCallback.onSingleTouched(
-                            new Point((int) motion.getX(0), (int) motion.getY(0)));
-                    changeTo(new SingleDown());
-                    return;
-
-                default:
-                    // NOP.
-                    return;
-            }
-        }
-
-        @Override
-        public void handleSingleTouchMoveEvent(
-                Point currentPoint,
-                Point lastPoint,
-                Point downPoint) {
-            // NOP.
-        }
-
-        @Override
-        public void handleSingleTouchStopEvent(
-                Point currentPoint,
-                Point lastPoint,
-                Point downPoint) {
-            // NOP.
-        }
-
-        @Override
-        public void handleTouchScaleEvent(
-                float currentLength,
-                float previousLength,
-                float originalLength) {
-            // NOP.
-        }
-
-        @Override
-        public void handleTouchRotateEvent(float degreeVsOrigin, float degreeVsLast) {
-            // NOP.
-        }
+    /**
+     * Set touch stop detection mode.
+     *
+     * In TOUCH_STOP_DETECTION_MODE_TIMER, touch position is sampled on shared detector thread
+     * periodically, and stop is notified via callback handler asynchronously.
+     *
+     * In TOUCH_STOP_DETECTION_MODE_EVENT_TIME, stop is decided from MotionEvent event time,
+     * and notified synchronously on input thread. Only one deferred check is posted
+     * to callback handler to detect fully stopped finger.
+     * Callback handler must be on the thread which calls onTouchEvent().
+     *
+     * @param mode TOUCH_STOP_DETECTION_MODE_TIMER or TOUCH_STOP_DETECTION_MODE_EVENT_TIME
+     */
+    public void setTouchStopDetectionMode(int mode) {
+        mCore.setTouchStopDetectionMode(mode);
     }
 
-    private class SingleDown implements InteractionState {
-        @Override
-        public void handleMotionEvent(MotionEvent motion) {
-            switch (motion.getActionMasked()) {
-                case MotionEvent.ACTION_MOVE:
-                    // NOP. Move is detected in TouchMoveAndStopDetector.
-                    changeTo(new SingleMove());
-                    return;
-
-                case MotionEvent.ACTION_UP:
-                    mInteractionCallback.onSingleReleased(
-                            new Point((int) motion.getX(0), (int) motion.getY(0)));
-                    changeTo(new Idle());
-                    return;
-
-                case MotionEvent.ACTION_CANCEL:
-                    mInteractionCallback.onSingleCanceled();
-                    changeTo(new Idle());
-                    return;
-
-                case MotionEvent.ACTION_POINTER_DOWN:
-                    if (motion.getPointerCount() == 1) {
-                        return;
-                    }
-                    mInteractionCallback.onDoubleTouched(
-                            new Point((int) motion.getX(0), (int) motion.getY(0)),
-                            new Point((int) motion.getX(1), (int) motion.getY(1)));
-                    changeTo(new DoubleDown());
-                    return;
-
-                default:
-                    // NOP.
-                    return;
-            }
-        }
-
-        @Override
-        public void handleSingleTouchMoveEvent(
-                Point currentPoint,
-                Point lastPoint,
-                Point downPoint) {
-            // NOP.
-        }
-
-        @Override
-        public void handleSingleTouchStopEvent(
-                Point currentPoint,
-                Point lastPoint,
-                Point downPoint) {
-            // NOP.
-        }
-
-        @Override
-        public void handleTouchScaleEvent(
-                float currentLength,
-                float previousLength,
-                float originalLength) {
-            // NOP.
-        }
-
-        @Override
-        public void handleTouchRotateEvent(
-                float degreeVsOrigin,
-                float degreeVsLast) {
-            // NOP.
-        }
+    /**
+     * Add recognizer to pipeline.
+     *
+     * Recognizers receive TouchSample converted from MotionEvent in pipeline order.
+     * Once a recognizer claims gesture, recognizers after it are canceled until
+     * end of gesture.
+     *
+     * @param recognizer
+     * @param order RECOGNIZER_ORDER_BEFORE_BUILT_IN or RECOGNIZER_ORDER_AFTER_BUILT_IN.
+     */
+    public void addRecognizer(TouchRecognizer recognizer, int order) {
+        mCore.addRecognizer(recognizer, order);
     }
 
-    private class SingleMove implements InteractionState {
-        @Override
-        public void handleMotionEvent(MotionEvent motion) {
-            switch (motion.getActionMasked()) {
-                case MotionEvent.ACTION_UP:
-                    mInteractionCallback.onSingleReleased(
-                            new Point((int) motion.getX(0), (int) motion.getY(0)));
-                    changeTo(new Idle());
-                    return;
-
-                case MotionEvent.ACTION_CANCEL:
-                    mInteractionCallback.onSingleCanceled();
-                    changeTo(new Idle());
-                    return;
-
-                case MotionEvent.ACTION_POINTER_DOWN:
-                    if (motion.getPointerCount() == 1) {
-                        return;
-                    }
-                    mInteractionCallback.onDoubleTouched(
-                            new Point((int) motion.getX(0), (int) motion.getY(0)),
-                            new Point((int) motion.getX(1), (int) motion.getY(1)));
-                    changeTo(new DoubleDown());
-                    return;
-
-                default:
-                    // NOP.
-                    return;
-            }
-        }
-
-        @Override
-        public void handleSingleTouchMoveEvent(
-                Point currentPoint,
-                Point lastPoint,
-                Point downPoint) {
-            mInteractionCallback.onSingleMoved(currentPoint, lastPoint, downPoint);
-        }
-
-        @Override
-        public void handleSingleTouchStopEvent(
-                Point currentPoint,
-                Point lastPoint,
-                Point downPoint) {
-            mInteractionCallback.onSingleStopped(currentPoint, lastPoint, downPoint);
-            changeTo(new SingleStop());
-        }
-
-        @Override
-        public void handleTouchScaleEvent(
-                float currentLength,
-                float previousLength,
-                float originalLength) {
-            // NOP.
-        }
-
-        @Override
-        public void handleTouchRotateEvent(float degreeVsOrigin, float degreeVsLast) {
-            // NOP.
-        }
+    /**
+     * Remove recognizer from pipeline.
+     *
+     * @param recognizer
+     */
+    public void removeRecognizer(TouchRecognizer recognizer) {
+        mCore.removeRecognizer(recognizer);
     }
 
-    private class SingleStop implements InteractionState {
-        @Override
-        public void handleMotionEvent(MotionEvent motion) {
-            switch (motion.getActionMasked()) {
-                case MotionEvent.ACTION_UP:
-                    mInteractionCallback.onSingleReleased(
-                            new Point((int) motion.getX(0), (int) motion.getY(0)));
-                    changeTo(new Idle());
-                    return;
-
-                case MotionEvent.ACTION_CANCEL:
-                    mInteractionCallback.onSingleCanceled();
-                    changeTo(new Idle());
-                    return;
-
-                case MotionEvent.ACTION_POINTER_DOWN:
-                    if (motion.getPointerCount() == 1) {
-                        return;
-                    }
-                    mInteractionCallback.onDoubleTouched(
-                            new Point((int) motion.getX(0), (int) motion.getY(0)),
-                            new Point((int) motion.getX(1), (int) motion.getY(1)));
-                    changeTo(new DoubleDown());
-                    return;
-
-                default:
-                    // NOP.
-                    return;
-            }
-        }
-
-        @Override
-        public void handleSingleTouchMoveEvent(
-                Point currentPoint,
-                Point lastPoint,
-                Point downPoint) {
-            mInteractionCallback.onSingleMoved(currentPoint, lastPoint, downPoint);
-            changeTo(new SingleMove());
-        }
-
-        @Override
-        public void handleSingleTouchStopEvent(
-                Point currentPoint,
-                Point lastPoint,
-                Point downPoint) {
-            // NOP.
-        }
-
-        @Override
-        public void handleTouchScaleEvent(
-                float currentLength,
-                float previousLength,
-                float originalLength) {
-            // NOP.
-        }
+    /**
+     * Measure time spent in each recognizer or not. Disabled in default.
+     *
+     * @param isEnabled
+     */
+    public void setRecognizerTimingEnabled(boolean isEnabled) {
+        mCore.setRecognizerTimingEnabled(isEnabled);
+    }
 
-        @Override
-        public void handleTouchRotateEvent(float degreeVsOrigin, float degreeVsLast) {
-            // NOP.
-        }
+    /**
+     * Get count of recognizers in pipeline.
+     *
+     * @return
+     */
+    public int getRecognizerCount() {
+        return mCore.getRecognizerCount();
     }
 
-    private class DoubleDown implements InteractionState {
-        @Override
-        public void handleMotionEvent(MotionEvent motion) {
-            switch (motion.getActionMasked()) {
-                case MotionEvent.ACTION_MOVE:
-                    if (motion.getPointerCount() != 2) {
-                        return;
-                    }
-                    Point index0 = new Point((int) motion.getX(0), (int) motion.getY(0));
-                    Point index1 = new Point((int) motion.getX(1), (int) motion.getY(1));
-                    mInteractionCallback.onDoubleMoved(index0, index1);
-                    changeTo(new DoubleMove(index0, index1));
-                    return;
-
-                case MotionEvent.ACTION_CANCEL:
-                    mInteractionCallback.onDoubleCanceled();
-                    changeTo(new Idle());
-                    return;
-
-                case MotionEvent.ACTION_POINTER_DOWN:
-                    changeTo(new OverTriple());
-                    return;
-
-                case MotionEvent.ACTION_POINTER_UP:
-                    if (motion.getPointerCount() == 1) {
-                        return;
-                    }
-                    int release = motion.getActionIndex();
-                    int remain;
-                    if (release == 0) {
-                        remain = 1;
-                    } else {
-                        remain = 0;
-                    }
-                    mInteractionCallback.onSingleReleasedInDouble(
-                            new Point((int) motion.getX(release), (int) motion.getY(release)),
-                            new Point((int) motion.getX(remain), (int) motion.getY(remain)));
-
-                    // Reset internal fields.
-                    getSingleTouchMoveAndStopDetector().updateCurrentAndLastPosition(
-                            (int) motion.getX(remain),
-                            (int) motion.getY(remain));
-
-                    changeTo(new SingleMove());
-                    return;
-
-                default:
-                    // NOP.
-                    return;
-            }
-        }
+    /**
+     * Get name of recognizer.
+     *
+     * @param index Pipeline index.
+     * @return
+     */
+    public String getRecognizerName(int index) {
+        return mCore.getRecognizerName(index);
+    }
 
-        @Override
-        public void handleSingleTouchMoveEvent(
-                Point currentPoint,
-                Point lastPoint,
-                Point downPoint) {
-            // NOP.
-        }
+    /**
+     * Get count of samples input to recognizer.
+     *
+     * @param index Pipeline index.
+     * @return
+     */
+    public long getRecognizerSampleCount(int index) {
+        return mCore.getRecognizerSampleCount(index);
+    }
 
-        @Override
-        public void handleSingleTouchStopEvent(
-                Point currentPoint,
-                Point lastPoint,
-                Point downPoint) {
-            // NOP.
-        }
+    /**
+     * Get total time spent in recognizer, while timing is enabled.
+     *
+     * @param index Pipeline index.
+     * @return
+     */
+    public long getRecognizerTotalNanos(int index) {
+        return mCore.getRecognizerTotalNanos(index);
+    }
 
-        @Override
-        public void handleTouchScaleEvent(
-                float currentLength,
-                float previousLength,
-                float originalLength) {
-            // NOP.
-        }
+    /**
+     * Get count of gestures claimed by recognizer.
+     *
+     * @param index Pipeline index.
+     * @return
+     */
+    public long getRecognizerClaimCount(int index) {
+        return mCore.getRecognizerClaimCount(index);
+    }
 
-        @Override
-        public void handleTouchRotateEvent(float degreeVsOrigin, float degreeVsLast) {
-            // NOP.
-        }
+    /**
+     * Reset counters of all recognizers in pipeline.
+     */
+    public void resetRecognizerCounters() {
+        mCore.resetRecognizerCounters();
     }
 
-    private class DoubleMove implements InteractionState {
-        /**
-         * CONSTRUCTOR.
-         *
-         * @param point0
-         * @param point1
-         */
-        DoubleMove(Point point0, Point point1) {
-            // Start scale and rotate detection.
-            mDoubleTouchScaleAndRotateDetector.startScaleAndRotateDetection(
-                    new PointF(point0),
-                    new PointF(point1));
-        }
-
-        @Override
-        public void handleMotionEvent(MotionEvent motion) {
-            switch (motion.getActionMasked()) {
-                case MotionEvent.ACTION_MOVE:
-                    if (motion.getPointerCount() != 2) {
-                        return;
-                    }
-                    // Update scale and rotate detection.
-                    mDoubleTouchScaleAndRotateDetector.updateCurrentPosition(
-                            new PointF(motion.getX(0), motion.getY(0)),
-                            new PointF(motion.getX(1), motion.getY(1)));
-
-                    mInteractionCallback.onDoubleMoved(
-                            new Point((int) motion.getX(0), (int) motion.getY(0)),
-                            new Point((int) motion.getX(1), (int) motion.getY(1)));
-                    return;
-
-                case MotionEvent.ACTION_CANCEL:
-                    mInteractionCallback.onDoubleCanceled();
-                    changeTo(new Idle());
-                    return;
-
-                case MotionEvent.ACTION_POINTER_DOWN:
-                    // Stop touch scale and rotate detection.
-                    mDoubleTouchScaleAndRotateDetector.stopScaleAndRotateDetection();
-                    changeTo(new OverTriple());
-                    return;
-
-                case MotionEvent.ACTION_POINTER_UP:
-                    // Stop touch scale and rotate detection.
-                    mDoubleTouchScaleAndRotateDetector.stopScaleAndRotateDetection();
-
-                    int release = motion.getActionIndex();
-                    int remain;
-                    if (release == 0) {
-                        remain = 1;
-                    } else {
-                        remain = 0;
-                    }
-                    mInteractionCallback.onSingleReleasedInDouble(
-                            new Point((int) motion.getX(release), (int) motion.getY(release)),
-                            new Point((int) motion.getX(remain), (int) motion.getY(remain)));
-
-                    // Reset internal fields.
-                    getSingleTouchMoveAndStopDetector().updateCurrentAndLastPosition(
-                            (int) motion.getX(remain),
-                            (int) motion.getY(remain));
-
-                    changeTo(new SingleMove());
-                    return;
-            }
+    /**
+     * Set callback delivery mode.
+     *
+     * In CALLBACK_DELIVERY_MODE_PER_FRAME, single move, double move, scale and rotate are
+     * accumulated and delivered as one consolidated callback of each kind on next
+     * Choreographer frame of callback handler thread. Net scale factor and net rotation
+     * are same as total of accumulated callbacks. Other callbacks are delivered immediately,
+     * after pending callbacks.
+     *
+     * @param mode CALLBACK_DELIVERY_MODE_IMMEDIATE or CALLBACK_DELIVERY_MODE_PER_FRAME
+     */
+    public synchronized void setCallbackDeliveryMode(int mode) {
+        if (mode == CALLBACK_DELIVERY_MODE_PER_FRAME && mFrameCoalescingCallback == null) {
+            mFrameCoalescingCallback = new FrameCoalescingCallback(
+                    mInteractionCallback,
+                    new ChoreographerFrameRequester(mCallbackHandler));
         }
 
-        @Override
-        public void handleSingleTouchMoveEvent(
-                Point currentPoint,
-                Point lastPoint,
-                Point downPoint) {
-            // NOP.
-        }
+        mCallbackDeliveryMode = mode;
+        updateCoreCallback();
 
-        @Override
-        public void handleSingleTouchStopEvent(
-                Point currentPoint,
-                Point lastPoint,
-                Point downPoint) {
-            // NOP.
-        }
+        // Deliver pending callbacks of per frame mode.
+        flushCoalescedCallbacks();
+    }
 
-        @Override
-        public void handleTouchScaleEvent(
-                float currentLength,
-                float previousLength,
-                float originalLength) {
-            mInteractionCallback.onDoubleScaled(currentLength, previousLength, originalLength);
+    /**
+     * Get count of callbacks merged into other one in CALLBACK_DELIVERY_MODE_PER_FRAME.
+     *
+     * @return
+     */
+    public synchronized long getCoalescedCallbackCount() {
+        if (mFrameCoalescingCallback == null) {
+            return 0;
         }
+        return mFrameCoalescingCallback.getCoalescedCount();
+    }
 
-        @Override
-        public void handleTouchRotateEvent(float degreeVsOrigin, float degreeVsLast) {
-            mInteractionCallback.onDoubleRotated(degreeVsOrigin, degreeVsLast);
+    private void flushCoalescedCallbacks() {
+        if (mFrameCoalescingCallback != null) {
+            mFrameCoalescingCallback.flush();
         }
     }
 
-    private class OverTriple implements InteractionState {
-        @Override
-        public void handleMotionEvent(MotionEvent motion) {
-            switch (motion.getActionMasked()) {
-                case MotionEvent.ACTION_CANCEL:
-                    mInteractionCallback.onOverTripleCanceled();
-                    changeTo(new Idle());
-                    return;
-
-                case MotionEvent.ACTION_POINTER_UP:
-                    if (motion.getPointerCount() == 3) {
-                        changeTo(new DoubleDown());
-                    }
-                    return;
-
-                default:
-                    // NOP.
-                    return;
-            }
-        }
+    /**
+     * Set tap and long press thresholds.
+     *
+     * Tap and long press are detected on the same scheduler as other interactions,
+     * so they do not wait for Android GestureDetector timeouts.
+     *
+     * @param tapTimeoutMillis Touch released within this time is tap.
+     * @param longPressTimeoutMillis Touch kept for this time is long press.
+     * @param tapSlop Touch moved over this distance is neither tap nor long press.
+     */
+    public void setTapAndLongPressThresholds(
+            int tapTimeoutMillis,
+            int longPressTimeoutMillis,
+            int tapSlop) {
+        mCore.setTapAndLongPressThresholds(tapTimeoutMillis, longPressTimeoutMillis, tapSlop);
+    }
 
-        @Override
-        public void handleSingleTouchMoveEvent(
-                Point currentPoint,
-                Point lastPoint,
-                Point downPoint) {
-            // NOP.
-        }
+    /**
+     * Get current interaction state ID.
+     *
+     * @return One of STATE_*.
+     */
+    public int getCurrentStateId() {
+        return mCore.getCurrentStateId();
+    }
 
-        @Override
-        public void handleSingleTouchStopEvent(
-                Point currentPoint,
-                Point lastPoint,
-                Point downPoint) {
-            // NOP.
-        }
+    /**
+     * Get transition count to the state.
+     *
+     * @param stateId One of STATE_*.
+     * @return
+     */
+    public long getTransitionCount(int stateId) {
+        return mCore.getTransitionCount(stateId);
+    }
 
-        @Override
-        public void handleTouchScaleEvent(
-                float currentLength,
-                float previousLength,
-                float originalLength) {
-            // NOP.
-        }
+    /**
+     * Get total transition count.
+     *
+     * @return
+     */
+    public long getTotalTransitionCount() {
+        return mCore.getTotalTransitionCount();
+    }
 
-        @Override
-        public void handleTouchRotateEvent(float degreeVsOrigin, float degreeVsLast) {
-            // NOP.
-        }
+    /**
+     * Reset all transition counts.
+     */
+    public void resetTransitionCounts() {
+        mCore.resetTransitionCounts();
     }
 
     /**
@@ -762,7 +845,7 @@ public class InteractionEngine
      */
     public synchronized boolean onTouchEvent(MotionEvent motion) {
         // Check touch area.
-        if (mTargetView != null) {
+        if (mTargetView != null && isInterestedIn(INTEREST_HIT_TEST)) {
             for (int i = 0; i < motion.getPointerCount(); ++i) {
                 if (hitTest(mTargetView, mMargin, (int) motion.getX(i), (int) motion.getY(i))) {
                     mIsAllTouchEventInTargetArea = true;
@@ -774,90 +857,122 @@ public class InteractionEngine
             }
         }
 
-        // Switch.
-        switch (motion.getActionMasked()) {
-            case MotionEvent.ACTION_DOWN:
-                // Start touch stop detection.
-                getSingleTouchMoveAndStopDetector().startTouchStopDetection(
-                        (int) motion.getX(), (int) motion.getY());
-                break;
-
-            case MotionEvent.ACTION_MOVE:
-                if (1 == motion.getPointerCount()) {
-                    // Update touch stop detector.
-                    getSingleTouchMoveAndStopDetector().updateCurrentPosition(
-                            (int) motion.getX(), (int) motion.getY());
+        // Recognizer pipeline.
+        if (isInterestedIn(INTEREST_CORE | INTEREST_ANDROID_GESTURE)) {
+            final int chunkCount = getTouchSampleChunkCount(motion);
+            for (int chunk = 0; chunk < chunkCount; ++chunk) {
+                // Android gesture detector gets MotionEvent once, with last chunk.
+                if (chunk == chunkCount - 1) {
+                    mCurrentMotion = motion;
                 }
-                break;
+                fillTouchSample(motion, chunk, mTouchSample);
+                mCore.onTouchSample(mTouchSample);
+            }
+            mCurrentMotion = null;
+        }
 
-            case MotionEvent.ACTION_UP:
-                // fall-through.
-            case MotionEvent.ACTION_CANCEL:
-                // Stop touch stop detection.
-                getSingleTouchMoveAndStopDetector().stopTouchStopDetection();
-                break;
+        return mIsAllTouchEventInTargetArea;
+    }
 
-            default:
-                // NOP.
-                break;
-        }
+    // Samples per chunk, history and current sample of TouchSample.
+    private static final int TOUCH_SAMPLE_CHUNK_SIZE = TouchSample.MAX_HISTORY_SIZE + 1;
 
-        // Handle.
-        mCurrentInteractionState.handleMotionEvent(motion);
+    /**
+     * Get count of TouchSample to hold all samples of MotionEvent.
+     * MotionEvent with more history than TouchSample.MAX_HISTORY_SIZE is split into
+     * chunks of ACTION_MOVE, oldest first, so no historical sample is dropped.
+     *
+     * @param motion
+     * @return 1 or more.
+     */
+    static int getTouchSampleChunkCount(MotionEvent motion) {
+        final int sampleCount = motion.getHistorySize() + 1;
+        return (sampleCount + TOUCH_SAMPLE_CHUNK_SIZE - 1) / TOUCH_SAMPLE_CHUNK_SIZE;
+    }
 
-        // Android gesture detector.
-        getAndroidGestureDetector().onTouchEvent(motion);
+    /**
+     * Copy action, pointer coordinates and event time of one chunk of MotionEvent
+     * to TouchSample. Historical samples batched into ACTION_MOVE are copied too,
+     * of first 2 pointers.
+     *
+     * Last chunk has action and current sample of MotionEvent. Other chunks are
+     * ACTION_MOVE of which current sample is the newest historical sample in chunk.
+     *
+     * @param motion
+     * @param chunk 0 to getTouchSampleChunkCount() - 1, oldest first.
+     * @param sample
+     */
+    static void fillTouchSample(MotionEvent motion, int chunk, TouchSample sample) {
+        final int pointerCount = motion.getPointerCount();
+        final int storedCount = Math.min(pointerCount, TouchSample.MAX_POINTER_COUNT);
+        final int historySize = motion.getHistorySize();
+
+        // Sample position in MotionEvent, historySize is current sample.
+        final int firstPos = chunk * TOUCH_SAMPLE_CHUNK_SIZE;
+        final int currentPos = Math.min(firstPos + TOUCH_SAMPLE_CHUNK_SIZE - 1, historySize);
+
+        if (currentPos == historySize) {
+            sample.set(
+                    motion.getActionMasked(),
+                    motion.getActionIndex(),
+                    pointerCount,
+                    motion.getEventTime());
+            for (int i = 0; i < storedCount; ++i) {
+                sample.setPointer(i, motion.getX(i), motion.getY(i));
+            }
+        } else {
+            sample.set(
+                    TouchSample.ACTION_MOVE,
+                    0,
+                    pointerCount,
+                    motion.getHistoricalEventTime(currentPos));
+            for (int i = 0; i < storedCount; ++i) {
+                sample.setPointer(
+                        i,
+                        motion.getHistoricalX(i, currentPos),
+                        motion.getHistoricalY(i, currentPos));
+            }
+        }
 
-        return mIsAllTouchEventInTargetArea;
+        // Historical samples.
+        final int chunkHistorySize = currentPos - firstPos;
+        if (chunkHistorySize == 0) {
+            return;
+        }
+        final int historicalPointerCount =
+                Math.min(pointerCount, TouchSample.MAX_HISTORICAL_POINTER_COUNT);
+        sample.setHistorySize(chunkHistorySize);
+        for (int pos = 0; pos < chunkHistorySize; ++pos) {
+            final int motionPos = firstPos + pos;
+            sample.setHistoricalEventTime(pos, motion.getHistoricalEventTime(motionPos));
+            for (int i = 0; i < historicalPointerCount; ++i) {
+                sample.setHistoricalPointer(
+                        i,
+                        pos,
+                        motion.getHistoricalX(i, motionPos),
+                        motion.getHistoricalY(i, motionPos));
+            }
+        }
     }
 
     /**
      * Cancel interaction detection.
      */
     public void cancel() {
-        changeTo(new Idle());
+        mCore.cancel();
     }
 
     private boolean hitTest(View targetView, int margin, int xOnView, int yOnView) {
         // Hit area is inside the target view without touch area margin.
-        Rect hitRect = new Rect(
-                margin,
-                margin,
-                targetView.getWidth() - margin,
-                targetView.getHeight() - margin);
-
-        return hitRect.contains(xOnView, yOnView);
-    }
-
-    @Override
-    public synchronized void onSingleTouchMoveDetected(
-            final Point currentPoint,
-            final Point lastPoint,
-            final Point downPoint) {
-        mCurrentInteractionState.handleSingleTouchMoveEvent(currentPoint, lastPoint, downPoint);
-    }
-
-    @Override
-    public synchronized void onSingleTouchStopDetected(
-            final Point currentPoint,
-            final Point lastPoint,
-            final Point downPoint) {
-        mCurrentInteractionState.handleSingleTouchStopEvent(currentPoint, lastPoint, downPoint);
-    }
-
-    @Override
-    public synchronized void onDoubleTouchScaleDetected(
-            final float currentLength,
-            final float previousLength,
-            final float originalLength) {
-        mCurrentInteractionState.handleTouchScaleEvent(currentLength, previousLength, originalLength);
-    }
-
-    @Override
-    public synchronized void onDoubleTouchRotateDetected(
-            final float degreeVsOrigin,
-            final float degreeVsLast) {
-        mCurrentInteractionState.handleTouchRotateEvent(degreeVsOrigin, degreeVsLast);
+        // Same as Rect.contains(), without Rect allocation.
+        final int left = margin;
+        final int top = margin;
+        final int right = targetView.getWidth() - margin;
+        final int bottom = targetView.getHeight() - margin;
+
+        return (left < right) && (top < bottom)
+                && (left <= xOnView) && (xOnView < right)
+                && (top <= yOnView) && (yOnView < bottom);
     }
 
     @Override
@@ -872,12 +987,14 @@ public class InteractionEngine
             MotionEvent event2,
             float velocX,
             float velocY) {
+        flushCoalescedCallbacks();
         mInteractionCallback.onFling(event1, event2, velocX, velocY);
         return true;
     }
 
     @Override
     public synchronized void onLongPress(MotionEvent event) {
+        flushCoalescedCallbacks();
         mInteractionCallback.onLongPress(event);
     }
 
@@ -893,24 +1010,50 @@ public class InteractionEngine
 
     @Override
     public synchronized void onShowPress(MotionEvent event) {
+        flushCoalescedCallbacks();
         mInteractionCallback.onShowPress(event);
     }
 
     @Override
     public synchronized boolean onSingleTapUp(MotionEvent event) {
+        flushCoalescedCallbacks();
         mInteractionCallback.onSingleTapUp(event);
         return true;
     }
 
-    private TouchMoveAndStopDetector getSingleTouchMoveAndStopDetector() {
-        // Create touch stop detector.
-        if (mSingleTouchMoveAndStopDetector == null) {
-            mSingleTouchMoveAndStopDetector = new TouchMoveAndStopDetector(
-                    mTouchSlop,
-                    mCallbackHandler);
-            mSingleTouchMoveAndStopDetector.setTouchStopDetectorListener(this);
+    // Android gesture detector needs MotionEvent, so this reads current MotionEvent
+    // instead of TouchSample.
+    private class AndroidGestureRecognizer implements TouchRecognizer {
+        @Override
+        public String getName() {
+            return RECOGNIZER_ANDROID_GESTURE;
+        }
+
+        @Override
+        public boolean onTouchSample(TouchSample sample) {
+            if (mCurrentMotion != null) {
+                getAndroidGestureDetector().onTouchEvent(mCurrentMotion);
+            }
+            return false;
+        }
+
+        @Override
+        public void onGestureCanceled() {
+            if (mCurrentMotion == null || mAndroidGestureDetector == null) {
+                return;
+            }
+
+            // Cancel pending show press and long press.
+            MotionEvent cancel = MotionEvent.obtain(
+                    mCurrentMotion.getDownTime(),
+                    mCurrentMotion.getEventTime(),
+                    MotionEvent.ACTION_CANCEL,
+                    mCurrentMotion.getX(),
+                    mCurrentMotion.getY(),
+                    0);
+            mAndroidGestureDetector.onTouchEvent(cancel);
+            cancel.recycle();
         }
-        return mSingleTouchMoveAndStopDetector;
     }
 
     private GestureDetector getAndroidGestureDetector() {
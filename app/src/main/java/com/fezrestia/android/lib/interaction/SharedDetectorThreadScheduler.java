@@ -0,0 +1,106 @@
+package com.fezrestia.android.lib.interaction;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+
+import com.fezrestia.android.lib.interaction.core.Scheduler;
+
+/**
+ * Scheduler on touch stop detector thread, shared by all engines.
+ *
+ * Detector thread is acquired on first post, and released by release().
+ * Thread is started when first scheduler acquires it, and quit when last one releases it.
+ */
+class SharedDetectorThreadScheduler implements Scheduler {
+    // Shared detector thread.
+    private static final String DETECTOR_THREAD_NAME = "TouchStopDetector";
+    private static final Object DETECTOR_THREAD_LOCK = new Object();
+    private static HandlerThread mDetectorThread = null;
+    private static Handler mDetectorHandler = null;
+    private static int mDetectorThreadRefCount = 0;
+    private static int mCreatedDetectorThreadCount = 0;
+
+    // Acquired handler of this scheduler.
+    private Handler mHandler = null;
+
+    private static Handler acquireDetectorHandler() {
+        synchronized (DETECTOR_THREAD_LOCK) {
+            if (mDetectorThread == null) {
+                mDetectorThread = new HandlerThread(DETECTOR_THREAD_NAME);
+                mDetectorThread.start();
+                mDetectorHandler = new Handler(mDetectorThread.getLooper());
+                ++mCreatedDetectorThreadCount;
+            }
+            ++mDetectorThreadRefCount;
+            return mDetectorHandler;
+        }
+    }
+
+    private static void releaseDetectorHandler() {
+        synchronized (DETECTOR_THREAD_LOCK) {
+            --mDetectorThreadRefCount;
+            if (mDetectorThreadRefCount == 0) {
+                mDetectorThread.quit();
+                mDetectorThread = null;
+                mDetectorHandler = null;
+            }
+        }
+    }
+
+    /**
+     * Get count of detector threads alive now.
+     *
+     * @return
+     */
+    static int getLiveDetectorThreadCount() {
+        synchronized (DETECTOR_THREAD_LOCK) {
+            return (mDetectorThread != null) ? 1 : 0;
+        }
+    }
+
+    /**
+     * Get count of detector threads created since process start.
+     *
+     * @return
+     */
+    static int getCreatedDetectorThreadCount() {
+        synchronized (DETECTOR_THREAD_LOCK) {
+            return mCreatedDetectorThreadCount;
+        }
+    }
+
+    private synchronized Handler getHandler() {
+        if (mHandler == null) {
+            mHandler = acquireDetectorHandler();
+        }
+        return mHandler;
+    }
+
+    /**
+     * Release detector thread if acquired.
+     * Pending tasks posted via this scheduler are not removed, remove them in advance.
+     */
+    synchronized void release() {
+        if (mHandler != null) {
+            mHandler = null;
+            releaseDetectorHandler();
+        }
+    }
+
+    @Override
+    public void post(Runnable task) {
+        getHandler().post(task);
+    }
+
+    @Override
+    public void postAtTime(Runnable task, long uptimeMillis) {
+        getHandler().postAtTime(task, uptimeMillis);
+    }
+
+    @Override
+    public synchronized void remove(Runnable task) {
+        if (mHandler != null) {
+            mHandler.removeCallbacks(task);
+        }
+    }
+}
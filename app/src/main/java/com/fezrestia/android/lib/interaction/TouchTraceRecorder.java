@@ -0,0 +1,184 @@
+package com.fezrestia.android.lib.interaction;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.view.MotionEvent;
+
+import com.fezrestia.android.lib.interaction.core.TouchSample;
+import com.fezrestia.android.lib.interaction.core.TouchTraceWriter;
+import com.fezrestia.android.util.log.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Record MotionEvent stream as binary touch trace.
+ *
+ * Trace is encoded into memory on input thread, about 16 bytes per single touch event.
+ * Memory is bounded by segment. When a gesture ends after segment size is exceeded,
+ * segment is handed to saver thread and written to its own trace file. So, no file I/O
+ * happens on touch event, and each file starts from idle state.
+ * Saved trace can be replayed off-device by TouchTraceReader and TouchTraceReplayer.
+ *
+ * Files are saved to external files dir of context, as
+ * touch_trace_[session start time]_[segment index].ttrc
+ */
+public class TouchTraceRecorder {
+    // Log tag.
+    private static final String TAG = "TouchTraceRecorder";
+
+    // Segment is saved at end of gesture after this size.
+    private static final int SEGMENT_SIZE_BYTES = 64 * 1024;
+    // Segment is saved even in gesture after this size.
+    private static final int MAX_SEGMENT_SIZE_BYTES = 1024 * 1024;
+    // Recording stops after this count of segments in one session.
+    private static final int MAX_SEGMENT_COUNT = 64;
+
+    // Master context.
+    private final Context mContext;
+
+    // Saver thread.
+    private static final String SAVER_THREAD_NAME = "TouchTraceSaver";
+    private final HandlerThread mSaverThread;
+    private final Handler mSaverHandler;
+
+    // Session.
+    private final long mSessionStartTime = System.currentTimeMillis();
+    private int mSegmentCount = 0;
+
+    // Encoded trace of current segment.
+    private ByteArrayOutputStream mBuffer = null;
+    private TouchTraceWriter mWriter = null;
+    private boolean mIsSegmentEmpty = true;
+
+    // Reused sample.
+    private final TouchSample mSample = new TouchSample();
+
+    /**
+     * CONSTRUCTOR.
+     *
+     * @param context
+     */
+    public TouchTraceRecorder(Context context) {
+        mContext = context;
+
+        mSaverThread = new HandlerThread(SAVER_THREAD_NAME);
+        mSaverThread.start();
+        mSaverHandler = new Handler(mSaverThread.getLooper());
+
+        startSegment();
+    }
+
+    /**
+     * Save recorded events, and stop saver thread after all files are written.
+     */
+    public void release() {
+        saveSegment();
+        mBuffer = null;
+        mWriter = null;
+        mSaverThread.quitSafely();
+    }
+
+    /**
+     * Record one event.
+     *
+     * @param motion
+     * @throws IOException
+     */
+    public void record(MotionEvent motion) throws IOException {
+        if (mWriter == null) {
+            // Released, or max segment count is recorded.
+            return;
+        }
+
+        final int chunkCount = InteractionEngine.getTouchSampleChunkCount(motion);
+        for (int chunk = 0; chunk < chunkCount; ++chunk) {
+            InteractionEngine.fillTouchSample(motion, chunk, mSample);
+            mWriter.write(mSample);
+        }
+        mIsSegmentEmpty = false;
+
+        // Buffered size is checked after flush.
+        final int action = motion.getActionMasked();
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            mWriter.flush();
+            if (SEGMENT_SIZE_BYTES <= mBuffer.size()) {
+                nextSegment();
+            }
+        } else if (MAX_SEGMENT_SIZE_BYTES <= mBuffer.size()) {
+            nextSegment();
+        }
+    }
+
+    private void startSegment() {
+        mBuffer = new ByteArrayOutputStream();
+        mWriter = new TouchTraceWriter(mBuffer);
+        mIsSegmentEmpty = true;
+    }
+
+    private void nextSegment() {
+        saveSegment();
+
+        if (MAX_SEGMENT_COUNT <= mSegmentCount) {
+            Log.logError(TAG, "Max segment count is recorded, stop recording.");
+            mBuffer = null;
+            mWriter = null;
+            return;
+        }
+        startSegment();
+    }
+
+    private void saveSegment() {
+        if (mWriter == null || mIsSegmentEmpty) {
+            return;
+        }
+        try {
+            mWriter.close();
+        } catch (IOException e) {
+            // Never happens on memory.
+            Log.logError(TAG, "Failed to close segment. " + e);
+            return;
+        }
+
+        mSaverHandler.post(new SaveTask(mBuffer, mSegmentCount));
+        ++mSegmentCount;
+        mIsSegmentEmpty = true;
+    }
+
+    private class SaveTask implements Runnable {
+        private final ByteArrayOutputStream mSegment;
+        private final int mSegmentIndex;
+
+        SaveTask(ByteArrayOutputStream segment, int segmentIndex) {
+            mSegment = segment;
+            mSegmentIndex = segmentIndex;
+        }
+
+        @Override
+        public void run() {
+            File dir = mContext.getExternalFilesDir(null);
+            if (dir == null) {
+                Log.logError(TAG, "External storage is not available.");
+                return;
+            }
+
+            File file = new File(
+                    dir,
+                    "touch_trace_" + mSessionStartTime + "_" + mSegmentIndex + ".ttrc");
+            try {
+                FileOutputStream fos = new FileOutputStream(file);
+                try {
+                    mSegment.writeTo(fos);
+                } finally {
+                    fos.close();
+                }
+                if (Log.IS_DEBUG) Log.logDebug(TAG, "Saved : " + file.getPath());
+            } catch (IOException e) {
+                Log.logError(TAG, "Failed to save. " + e);
+            }
+        }
+    }
+}
@@ -6,6 +6,9 @@ import android.os.Handler;
 import android.preference.PreferenceManager;
 
 import com.fezrestia.android.util.log.Log;
+import com.fezrestia.android.util.settings.SettingsStore;
+
+import java.io.File;
 
 public class RapidSurfaceBlinderApplication extends Application {
     // Log tag.
@@ -14,10 +17,11 @@ public class RapidSurfaceBlinderApplication extends Application {
     // UI thread handler.
     private static final Handler mUiThreadHandler = new Handler();
 
-    // Shared preference accessor.
-    private static SharedPreferences mGlobalSharedPreferences = null;
+    // Settings store.
+    private static SettingsStore mSettingsStore = null;
+    private static final String SETTINGS_FILE_NAME = "settings.bin";
 
-    // SharedPreferences version key.
+    // SharedPreferences version key, settings are migrated only from this version.
     private static final String KEY_SHARED_PREFERENCES_VERSION = "key-shared-preferences-version";
     private static final int VAL_SHARED_PREFERENCES_VERSION = 1;
 
@@ -26,18 +30,8 @@ public class RapidSurfaceBlinderApplication extends Application {
         if (Log.IS_DEBUG) Log.logDebug(TAG, "CONSTRUCTOR : E");
         super.onCreate();
 
-        // Create shared preferences accessor.
-        mGlobalSharedPreferences = PreferenceManager.getDefaultSharedPreferences(this);
-
-        // Check version.
-        int curVersion = mGlobalSharedPreferences.getInt(KEY_SHARED_PREFERENCES_VERSION, 0);
-        if (curVersion != VAL_SHARED_PREFERENCES_VERSION) {
-            mGlobalSharedPreferences.edit().clear().commit();
-            mGlobalSharedPreferences.edit().putInt(
-                    KEY_SHARED_PREFERENCES_VERSION,
-                    VAL_SHARED_PREFERENCES_VERSION)
-                    .commit();
-        }
+        // Create settings store. File is loaded on its writer thread.
+        mSettingsStore = new SettingsStore(new SettingsStoreCallbackImpl());
 
         if (Log.IS_DEBUG) Log.logDebug(TAG, "CONSTRUCTOR : X");    }
 
@@ -47,7 +41,7 @@ public class RapidSurfaceBlinderApplication extends Application {
         super.onTerminate();
 
         // Release.
-        mGlobalSharedPreferences = null;
+        mSettingsStore = null;
 
         if (Log.IS_DEBUG) Log.logDebug(TAG, "onTerminate() : X");
     }
@@ -63,12 +57,45 @@ public class RapidSurfaceBlinderApplication extends Application {
     }
 
     /**
-     * Get global shared preferences instance.
+     * Get global settings store instance.
      *
      * @return
      */
-    public static SharedPreferences getGlobalSharedPreferences() {
-        return mGlobalSharedPreferences;
+    public static SettingsStore getSettingsStore() {
+        return mSettingsStore;
+    }
+
+    private class SettingsStoreCallbackImpl implements SettingsStore.Callback {
+        @Override
+        public File getFile() {
+            return new File(getFilesDir(), SETTINGS_FILE_NAME);
+        }
+
+        @Override
+        public void onCreated(SettingsStore store) {
+            // Migrate from SharedPreferences once.
+            SharedPreferences sp = PreferenceManager.getDefaultSharedPreferences(
+                    RapidSurfaceBlinderApplication.this);
+            if (sp.getInt(KEY_SHARED_PREFERENCES_VERSION, 0) != VAL_SHARED_PREFERENCES_VERSION) {
+                // No valid preferences.
+                return;
+            }
+
+            store.putBoolean(
+                    RapidSurfaceBlinderConstants.SETTING_MERGED_OVERLAY_WINDOW,
+                    sp.getBoolean(RapidSurfaceBlinderConstants.KEY_MERGED_OVERLAY_WINDOW,
+                            false));
+            try {
+                store.putInt(
+                        RapidSurfaceBlinderConstants.SETTING_BLINDER_BACKEND,
+                        Integer.parseInt(sp.getString(
+                                RapidSurfaceBlinderConstants.KEY_BLINDER_BACKEND, "0")));
+            } catch (NumberFormatException e) {
+                Log.logError(TAG, "Unexpected blinder backend preference. " + e);
+            }
+
+            if (Log.IS_DEBUG) Log.logDebug(TAG, "Settings are migrated from preferences.");
+        }
     }
 
 
@@ -1,7 +1,38 @@
 package com.fezrestia.android.rapidsurfaceblinder;
 
+import com.fezrestia.android.rapidsurfaceblinder.view.BlinderView;
+import com.fezrestia.android.rapidsurfaceblinder.view.TriggerView;
+import com.fezrestia.android.util.settings.SettingsStore;
+
 public class RapidSurfaceBlinderConstants {
 
     public static final String KEY_ENABLED = "key-enabled";
 
+    public static final String KEY_MERGED_OVERLAY_WINDOW = "key-merged-overlay-window";
+
+    public static final String KEY_BLINDER_BACKEND = "key-blinder-backend";
+
+    public static final String KEY_TOUCH_TRACE_RECORDING = "key-touch-trace-recording";
+
+    // Settings store keys. Slot must be unique, and must not be reused for other type.
+    // Keys without preference are read on overlay start, and keep default value for now.
+    public static final SettingsStore.BooleanKey SETTING_MERGED_OVERLAY_WINDOW
+            = new SettingsStore.BooleanKey(0, false);
+    public static final SettingsStore.IntKey SETTING_BLINDER_BACKEND
+            = new SettingsStore.IntKey(1, BlinderView.BACKEND_ALPHA);
+    public static final SettingsStore.IntKey SETTING_TAP_TIMEOUT_MILLIS
+            = new SettingsStore.IntKey(2, TriggerView.DEFAULT_TAP_TIMEOUT_MILLIS);
+    public static final SettingsStore.IntKey SETTING_LONG_PRESS_TIMEOUT_MILLIS
+            = new SettingsStore.IntKey(3, TriggerView.DEFAULT_LONG_PRESS_TIMEOUT_MILLIS);
+    public static final SettingsStore.IntKey SETTING_ANIMATION_CURVE
+            = new SettingsStore.IntKey(4, BlinderView.ANIMATION_CURVE_EASE_OUT);
+    public static final SettingsStore.IntKey SETTING_ANIMATION_DURATION_MILLIS
+            = new SettingsStore.IntKey(5, BlinderView.DEFAULT_ANIMATION_DURATION_MILLIS);
+    public static final SettingsStore.IntKey SETTING_TRIGGER_OFFSET_X
+            = new SettingsStore.IntKey(6, TriggerView.TRIGGER_OFFSET);
+    public static final SettingsStore.IntKey SETTING_TRIGGER_OFFSET_Y
+            = new SettingsStore.IntKey(7, TriggerView.TRIGGER_OFFSET);
+    public static final SettingsStore.BooleanKey SETTING_TOUCH_TRACE_RECORDING
+            = new SettingsStore.BooleanKey(8, false);
+
 }
@@ -5,9 +5,10 @@ import android.preference.CheckBoxPreference;
 import android.preference.ListPreference;
 import android.preference.Preference;
 import android.preference.PreferenceActivity;
-import android.preference.PreferenceManager;
 
 import com.fezrestia.android.util.log.Log;
+import com.fezrestia.android.util.settings.SettingsStore;
+import com.fezrestia.android.rapidsurfaceblinder.RapidSurfaceBlinderApplication;
 import com.fezrestia.android.rapidsurfaceblinder.RapidSurfaceBlinderConstants;
 import com.fezrestia.android.rapidsurfaceblinder.R;
 import com.fezrestia.android.rapidsurfaceblinder.control.RapidSurfaceBlinderController;
@@ -30,6 +31,10 @@ public class RapidSurfaceBlinderActivity extends PreferenceActivity {
         if (Log.IS_DEBUG) Log.logDebug(TAG, "onResume()");
         super.onResume();
 
+        // Settings read before load are default values, and updated on load.
+        RapidSurfaceBlinderApplication.getSettingsStore().addOnSettingChangedListener(
+                mOnSettingChangedListener);
+
         // Update preferences.
         applyCurrentPreferences();
     }
@@ -48,7 +53,9 @@ public class RapidSurfaceBlinderActivity extends PreferenceActivity {
     public void onPause() {
         if (Log.IS_DEBUG) Log.logDebug(TAG, "onPause()");
         super.onPause();
-        // NOP.
+
+        RapidSurfaceBlinderApplication.getSettingsStore().removeOnSettingChangedListener(
+                mOnSettingChangedListener);
     }
 
     @Override
@@ -67,6 +74,42 @@ public class RapidSurfaceBlinderActivity extends PreferenceActivity {
         } else {
             enabled.setChecked(false);
         }
+
+        // Settings are not persisted by preferences, but by settings store.
+        SettingsStore settings = RapidSurfaceBlinderApplication.getSettingsStore();
+
+        CheckBoxPreference merged = (CheckBoxPreference)
+                findPreference(RapidSurfaceBlinderConstants.KEY_MERGED_OVERLAY_WINDOW);
+        merged.setOnPreferenceChangeListener(mOnPreferenceChangeListener);
+        merged.setChecked(settings.getBoolean(
+                RapidSurfaceBlinderConstants.SETTING_MERGED_OVERLAY_WINDOW));
+
+        ListPreference backend = (ListPreference)
+                findPreference(RapidSurfaceBlinderConstants.KEY_BLINDER_BACKEND);
+        backend.setOnPreferenceChangeListener(mOnPreferenceChangeListener);
+        backend.setValue(String.valueOf(settings.getInt(
+                RapidSurfaceBlinderConstants.SETTING_BLINDER_BACKEND)));
+
+        CheckBoxPreference traceRecording = (CheckBoxPreference)
+                findPreference(RapidSurfaceBlinderConstants.KEY_TOUCH_TRACE_RECORDING);
+        traceRecording.setOnPreferenceChangeListener(mOnPreferenceChangeListener);
+        traceRecording.setChecked(settings.getBoolean(
+                RapidSurfaceBlinderConstants.SETTING_TOUCH_TRACE_RECORDING));
+    }
+
+    private final OnSettingChangedListenerImpl mOnSettingChangedListener
+            = new OnSettingChangedListenerImpl();
+    private class OnSettingChangedListenerImpl
+            implements SettingsStore.OnSettingChangedListener {
+        @Override
+        public void onSettingChanged(SettingsStore.Key key) {
+            // Settings are changed on UI thread.
+            if (key == RapidSurfaceBlinderConstants.SETTING_MERGED_OVERLAY_WINDOW
+                    || key == RapidSurfaceBlinderConstants.SETTING_BLINDER_BACKEND
+                    || key == RapidSurfaceBlinderConstants.SETTING_TOUCH_TRACE_RECORDING) {
+                applyCurrentPreferences();
+            }
+        }
     }
 
     private final OnPreferenceChangeListenerImpl mOnPreferenceChangeListener
@@ -95,10 +138,23 @@ public class RapidSurfaceBlinderActivity extends PreferenceActivity {
                         RapidSurfaceBlinderController.LifeCycleTrigger.getInstance()
                                 .requestStop(getApplicationContext());
                     }
+                } else if (RapidSurfaceBlinderConstants.KEY_MERGED_OVERLAY_WINDOW.equals(key)) {
+                    RapidSurfaceBlinderApplication.getSettingsStore().putBoolean(
+                            RapidSurfaceBlinderConstants.SETTING_MERGED_OVERLAY_WINDOW,
+                            ((Boolean) value).booleanValue());
+                } else if (RapidSurfaceBlinderConstants.KEY_TOUCH_TRACE_RECORDING.equals(key)) {
+                    RapidSurfaceBlinderApplication.getSettingsStore().putBoolean(
+                            RapidSurfaceBlinderConstants.SETTING_TOUCH_TRACE_RECORDING,
+                            ((Boolean) value).booleanValue());
                 } else {
                     // NOP.
                     if (Log.IS_DEBUG) Log.logDebug(TAG, "Unexpected CheckBox preference.");
                 }
+            } else if (RapidSurfaceBlinderConstants.KEY_BLINDER_BACKEND.equals(
+                    preference.getKey())) {
+                RapidSurfaceBlinderApplication.getSettingsStore().putInt(
+                        RapidSurfaceBlinderConstants.SETTING_BLINDER_BACKEND,
+                        Integer.parseInt(stringValue));
             } else {
                 // For all other preferences, set the summary to the value's
                 // simple string representation.
@@ -0,0 +1,274 @@
+package com.fezrestia.android.rapidsurfaceblinder.control;
+
+import android.os.SystemClock;
+
+import com.fezrestia.android.util.perf.LatencyHistogram;
+
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Measure latency from touch input to fully opaque blinder.
+ *
+ * Stages are,
+ *   input to callback : MotionEvent event time to RapidSurfaceBlinderController.enableBlinder()
+ *   callback to window update : enableBlinder() to BlinderView blind request done
+ *   window update to opaque : blind request done to first draw of fully opaque blinder
+ *
+ * Blinder window relayout is done after opaque frame, and its cost is measured separately.
+ * ACTION_OUTSIDE events delivered to overlay are counted, they wake up this process.
+ * Overlay startup and configuration change relayout are measured on UI thread.
+ * Cold start is measured from LifeCycleTrigger start request to first trigger frame and to
+ * blinder window ready.
+ * UI thread cost to apply blind level is recorded per blinder backend, to compare backends
+ * used in this process.
+ *
+ * Stage marks are called on UI thread. Dump can be called on any thread.
+ * System.nanoTime() and MotionEvent event time are both based on uptime clock.
+ */
+public class BlinderLatencyTracker {
+    // Singleton instance.
+    private static final BlinderLatencyTracker INSTANCE = new BlinderLatencyTracker();
+
+    // Histograms.
+    private final LatencyHistogram mInputToCallback
+            = new LatencyHistogram("input -> callback");
+    private final LatencyHistogram mCallbackToWindowUpdate
+            = new LatencyHistogram("callback -> window update");
+    private final LatencyHistogram mWindowUpdateToOpaque
+            = new LatencyHistogram("window update -> opaque");
+    private final LatencyHistogram mInputToOpaque
+            = new LatencyHistogram("input -> opaque (total)");
+    private final LatencyHistogram mWindowRelayout
+            = new LatencyHistogram("window relayout (deferred)");
+    private final LatencyHistogram mAnimationFrames
+            = new LatencyHistogram("frames per blinder transition", "frames");
+    private final LatencyHistogram mOverlayStartup
+            = new LatencyHistogram("overlay startup");
+    private final LatencyHistogram mConfigurationRelayout
+            = new LatencyHistogram("configuration change relayout");
+    private final LatencyHistogram mStartToTriggerDrawn
+            = new LatencyHistogram("start request -> trigger drawn", "ms");
+    private final LatencyHistogram mStartToBlinderPrepared
+            = new LatencyHistogram("start request -> blinder ready", "ms");
+
+    // Blind level apply cost per backend name. Guarded by itself.
+    private final Map<String, LatencyHistogram> mBackendLevelApply
+            = new LinkedHashMap<String, LatencyHistogram>();
+
+    // ACTION_OUTSIDE event count. Written on UI thread only.
+    private volatile long mOutsideTouchCount = 0;
+
+    // Uptime of start request in progress, 0 if none.
+    private long mStartRequestMillis = 0;
+
+    // Timestamps of blind request in progress, 0 if none.
+    private long mInputMicros = 0;
+    private long mCallbackMicros = 0;
+    private long mWindowUpdateMicros = 0;
+
+    /**
+     * CONSTRUCTOR.
+     */
+    private BlinderLatencyTracker() {
+        // NOP.
+    }
+
+    /**
+     * Get singleton instance.
+     *
+     * @return
+     */
+    public static BlinderLatencyTracker getInstance() {
+        return INSTANCE;
+    }
+
+    private static long nowMicros() {
+        return System.nanoTime() / 1000L;
+    }
+
+    /**
+     * Blind is requested by user input.
+     *
+     * @param inputEventTimeMillis MotionEvent.getEventTime() of trigger input.
+     */
+    public void onBlindRequested(long inputEventTimeMillis) {
+        mInputMicros = inputEventTimeMillis * 1000L;
+        mCallbackMicros = nowMicros();
+        mWindowUpdateMicros = 0;
+
+        mInputToCallback.record(mCallbackMicros - mInputMicros);
+    }
+
+    /**
+     * Blinder window update for blind state is done.
+     */
+    public void onBlindWindowUpdated() {
+        if (mCallbackMicros == 0) {
+            // Not requested by input.
+            return;
+        }
+        mWindowUpdateMicros = nowMicros();
+
+        mCallbackToWindowUpdate.record(mWindowUpdateMicros - mCallbackMicros);
+    }
+
+    /**
+     * Blinder is drawn as fully opaque.
+     */
+    public void onBlindFullyOpaque() {
+        if (mWindowUpdateMicros == 0) {
+            // Not requested, or already recorded.
+            return;
+        }
+        final long opaqueMicros = nowMicros();
+
+        mWindowUpdateToOpaque.record(opaqueMicros - mWindowUpdateMicros);
+        mInputToOpaque.record(opaqueMicros - mInputMicros);
+
+        onBlindCanceled();
+    }
+
+    /**
+     * Blind request in progress is canceled.
+     */
+    public void onBlindCanceled() {
+        mInputMicros = 0;
+        mCallbackMicros = 0;
+        mWindowUpdateMicros = 0;
+    }
+
+    /**
+     * Blinder window is relayout by WindowManager.updateViewLayout().
+     *
+     * @param micros Duration of updateViewLayout().
+     */
+    public void onWindowRelayout(long micros) {
+        mWindowRelayout.record(micros);
+    }
+
+    /**
+     * Overlay start is requested.
+     *
+     * @param uptimeMillis SystemClock.uptimeMillis() of request, 0 if unknown.
+     */
+    public void onStartRequested(long uptimeMillis) {
+        mStartRequestMillis = uptimeMillis;
+    }
+
+    /**
+     * First frame of trigger is drawn.
+     */
+    public void onTriggerDrawn() {
+        if (mStartRequestMillis != 0) {
+            mStartToTriggerDrawn.record(SystemClock.uptimeMillis() - mStartRequestMillis);
+        }
+    }
+
+    /**
+     * Blinder window is added to WindowManager.
+     */
+    public void onBlinderPrepared() {
+        if (mStartRequestMillis != 0) {
+            mStartToBlinderPrepared.record(SystemClock.uptimeMillis() - mStartRequestMillis);
+        }
+    }
+
+    /**
+     * Overlay views are created and added to WindowManager.
+     *
+     * @param micros Duration of RapidSurfaceBlinderController.start(), blinder excluded.
+     */
+    public void onOverlayStarted(long micros) {
+        mOverlayStartup.record(micros);
+    }
+
+    /**
+     * Overlay view is relayout on configuration change.
+     *
+     * @param micros Duration of relayout of one overlay view.
+     */
+    public void onConfigurationRelayout(long micros) {
+        mConfigurationRelayout.record(micros);
+    }
+
+    /**
+     * Blind level is applied by blinder backend.
+     *
+     * @param backendName
+     * @param micros Duration of level apply on UI thread, including window relayout.
+     */
+    public void onBackendLevelApplied(String backendName, long micros) {
+        LatencyHistogram histogram;
+        synchronized (mBackendLevelApply) {
+            histogram = mBackendLevelApply.get(backendName);
+            if (histogram == null) {
+                histogram = new LatencyHistogram("level apply [" + backendName + "]");
+                mBackendLevelApply.put(backendName, histogram);
+            }
+        }
+        histogram.record(micros);
+    }
+
+    /**
+     * ACTION_OUTSIDE event is delivered to overlay.
+     */
+    public void onOutsideTouch() {
+        ++mOutsideTouchCount;
+    }
+
+    /**
+     * Blinder alpha transition is finished.
+     *
+     * @param frameCount Frames rendered in the transition.
+     */
+    public void onAnimationFinished(int frameCount) {
+        mAnimationFrames.record(frameCount);
+    }
+
+    /**
+     * Clear all histograms.
+     */
+    public void reset() {
+        mInputToCallback.reset();
+        mCallbackToWindowUpdate.reset();
+        mWindowUpdateToOpaque.reset();
+        mInputToOpaque.reset();
+        mWindowRelayout.reset();
+        mAnimationFrames.reset();
+        mOverlayStartup.reset();
+        mConfigurationRelayout.reset();
+        mStartToTriggerDrawn.reset();
+        mStartToBlinderPrepared.reset();
+        synchronized (mBackendLevelApply) {
+            mBackendLevelApply.clear();
+        }
+        mOutsideTouchCount = 0;
+    }
+
+    /**
+     * Dump all histograms.
+     *
+     * @param writer
+     */
+    public void dump(PrintWriter writer) {
+        writer.println("Blind latency :");
+        mInputToCallback.dump(writer);
+        mCallbackToWindowUpdate.dump(writer);
+        mWindowUpdateToOpaque.dump(writer);
+        mInputToOpaque.dump(writer);
+        mWindowRelayout.dump(writer);
+        mAnimationFrames.dump(writer);
+        mOverlayStartup.dump(writer);
+        mConfigurationRelayout.dump(writer);
+        mStartToTriggerDrawn.dump(writer);
+        mStartToBlinderPrepared.dump(writer);
+        synchronized (mBackendLevelApply) {
+            for (LatencyHistogram histogram : mBackendLevelApply.values()) {
+                histogram.dump(writer);
+            }
+        }
+        writer.println("Outside touch events : " + mOutsideTouchCount);
+    }
+}
@@ -3,11 +3,15 @@ package com.fezrestia.android.rapidsurfaceblinder.control;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
-import android.view.LayoutInflater;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.view.View;
 
+import com.fezrestia.android.rapidsurfaceblinder.RapidSurfaceBlinderApplication;
+import com.fezrestia.android.rapidsurfaceblinder.RapidSurfaceBlinderConstants;
 import com.fezrestia.android.rapidsurfaceblinder.view.BlinderView;
 import com.fezrestia.android.util.log.Log;
-import com.fezrestia.android.rapidsurfaceblinder.R;
+import com.fezrestia.android.util.settings.SettingsStore;
 import com.fezrestia.android.rapidsurfaceblinder.service.RapidSurfaceBlinderService;
 import com.fezrestia.android.rapidsurfaceblinder.view.TriggerView;
 
@@ -25,6 +29,16 @@ public class RapidSurfaceBlinderController {
     // Overlay view.
     private TriggerView mTriggerView = null;
     private BlinderView mBlinderView = null;
+    // Trigger is hosted in blinder window or not.
+    private boolean mIsOverlayWindowMerged = false;
+    // Blinder window is shown or not. Independent blinder window is added hidden.
+    private boolean mIsBlinderPrepared = false;
+    // Start is requested before settings are loaded, and deferred until load.
+    private boolean mIsStartPending = false;
+
+    // Start request time, passed from LifeCycleTrigger to service.
+    public static final String EXTRA_START_REQUEST_UPTIME_MILLIS
+            = "extra-start-request-uptime-millis";
 
     /**
      * Life cycle trigger interface.
@@ -54,6 +68,7 @@ public class RapidSurfaceBlinderController {
          */
         public void requestStart(Context context) {
             Intent service = new Intent(context, RapidSurfaceBlinderService.class);
+            service.putExtra(EXTRA_START_REQUEST_UPTIME_MILLIS, SystemClock.uptimeMillis());
             ComponentName component = context.startService(service);
 
             if (Log.IS_DEBUG) {
@@ -97,12 +112,21 @@ public class RapidSurfaceBlinderController {
     /**
      * Start overlay view finder.
      *
+     * Only trigger is shown here. Blinder window is added hidden before trigger window,
+     * so it is below trigger in same window layer. It has no surface until it is shown
+     * after first frame of trigger, or on first blind request if it is earlier.
+     * In merged overlay window mode, trigger is hosted in blinder window, so both are
+     * prepared here.
+     *
+     * Window mode and backend are fixed while started. If settings are not loaded yet,
+     * start is deferred until load, instead of starting with default settings.
+     *
      * @param context
      */
     public void start(Context context) {
         if (Log.IS_DEBUG) Log.logDebug(TAG, "start() : E");
 
-        if (mTriggerView != null) {
+        if (mTriggerView != null || mIsStartPending) {
             // NOP. Already started.
             Log.logError(TAG, "Error. Already started.");
             return;
@@ -111,23 +135,73 @@ public class RapidSurfaceBlinderController {
         // Cache master context.
         mContext = context;
 
-        // Create blinder view.
-        mBlinderView = (BlinderView)
-                LayoutInflater.from(context).inflate(
-                R.layout.blinder_view, null);
-        mBlinderView.initialize();
-        // Add to window.
-        mBlinderView.addToOverlayWindow();
+        SettingsStore settings = RapidSurfaceBlinderApplication.getSettingsStore();
+        if (!settings.isLoaded()) {
+            if (Log.IS_DEBUG) Log.logDebug(TAG, "start() : Wait for settings load");
+            mIsStartPending = true;
+            settings.runAfterLoaded(mStartAfterLoadedTask);
+            return;
+        }
+
+        startOverlay();
+
+        if (Log.IS_DEBUG) Log.logDebug(TAG, "start() : X");
+    }
+
+    private final StartAfterLoadedTask mStartAfterLoadedTask = new StartAfterLoadedTask();
+    private class StartAfterLoadedTask implements Runnable {
+        @Override
+        public void run() {
+            if (!mIsStartPending) {
+                // Stopped before load.
+                return;
+            }
+            mIsStartPending = false;
+            startOverlay();
+        }
+    }
+
+    private void startOverlay() {
+        Trace.beginSection("RSB:start");
+        final long startNanos = System.nanoTime();
+
+        // Window mode.
+        mIsOverlayWindowMerged = RapidSurfaceBlinderApplication.getSettingsStore().getBoolean(
+                RapidSurfaceBlinderConstants.SETTING_MERGED_OVERLAY_WINDOW);
 
         // Create overlay view.
-        mTriggerView = (TriggerView)
-                LayoutInflater.from(context).inflate(
-                R.layout.trigger_view, null);
+        Trace.beginSection("RSB:createTrigger");
+        mTriggerView = new TriggerView(mContext);
         mTriggerView.initialize();
+        Trace.endSection();
+
         // Add to window.
-        mTriggerView.addToOverlayWindow();
+        if (mIsOverlayWindowMerged) {
+            // One window hosts both of blinder and trigger.
+            createBlinderView();
+            Trace.beginSection("RSB:addMergedWindow");
+            mBlinderView.setMergedTrigger(mTriggerView);
+            mBlinderView.addToOverlayWindow();
+            Trace.endSection();
+            mIsBlinderPrepared = true;
+            BlinderLatencyTracker.getInstance().onBlinderPrepared();
+        } else {
+            // Window added later is placed above in same layer. Blinder is added first,
+            // so trigger is kept above and touchable while blinded.
+            createBlinderView();
+            Trace.beginSection("RSB:addHiddenBlinderWindow");
+            mBlinderView.setVisibility(View.GONE);
+            mBlinderView.addToOverlayWindow();
+            Trace.endSection();
 
-        if (Log.IS_DEBUG) Log.logDebug(TAG, "start() : X");
+            Trace.beginSection("RSB:addTriggerWindow");
+            mTriggerView.addToOverlayWindow();
+            Trace.endSection();
+        }
+
+        BlinderLatencyTracker.getInstance().onOverlayStarted(
+                (System.nanoTime() - startNanos) / 1000L);
+        Trace.endSection();
     }
 
     /**
@@ -145,7 +219,7 @@ public class RapidSurfaceBlinderController {
      * @return
      */
     public boolean isOverlayActive() {
-        return (mTriggerView != null);
+        return (mTriggerView != null || mIsStartPending);
     }
 
     /**
@@ -163,6 +237,14 @@ public class RapidSurfaceBlinderController {
     public void stop() {
         if (Log.IS_DEBUG) Log.logDebug(TAG, "stop() : E");
 
+        if (mIsStartPending) {
+            // Not started yet, cancel deferred start.
+            mIsStartPending = false;
+            mContext = null;
+            if (Log.IS_DEBUG) Log.logDebug(TAG, "stop() : X, before settings load");
+            return;
+        }
+
         if (mTriggerView == null) {
             // NOP. Already stopped.
             Log.logError(TAG, "Error. Already stopped.");
@@ -170,10 +252,15 @@ public class RapidSurfaceBlinderController {
         }
 
         // Release references.
+        RapidSurfaceBlinderApplication.getUiThreadHandler().removeCallbacks(
+                mPrepareBlinderTask);
+        mIsBlinderPrepared = false;
         mContext = null;
         if (mTriggerView != null) {
             mTriggerView.release();
-            mTriggerView.removeFromOverlayWindow();
+            if (!mIsOverlayWindowMerged) {
+                mTriggerView.removeFromOverlayWindow();
+            }
             mTriggerView = null;
         }
         if (mBlinderView != null) {
@@ -185,11 +272,79 @@ public class RapidSurfaceBlinderController {
         if (Log.IS_DEBUG) Log.logDebug(TAG, "stop() : X");
     }
 
-    public void enableBlinder() {
+    private void createBlinderView() {
+        Trace.beginSection("RSB:createBlinder");
+        mBlinderView = new BlinderView(mContext);
+        mBlinderView.initialize();
+        SettingsStore settings = RapidSurfaceBlinderApplication.getSettingsStore();
+        mBlinderView.setBackend(
+                settings.getInt(RapidSurfaceBlinderConstants.SETTING_BLINDER_BACKEND));
+        mBlinderView.setAnimation(
+                settings.getInt(RapidSurfaceBlinderConstants.SETTING_ANIMATION_CURVE),
+                settings.getInt(RapidSurfaceBlinderConstants.SETTING_ANIMATION_DURATION_MILLIS));
+        Trace.endSection();
+    }
+
+    private void prepareBlinder() {
+        if (mIsBlinderPrepared || mBlinderView == null) {
+            // Already prepared, or stopped.
+            return;
+        }
+        RapidSurfaceBlinderApplication.getUiThreadHandler().removeCallbacks(
+                mPrepareBlinderTask);
+
+        // Window is already added below trigger. Only surface is allocated here.
+        Trace.beginSection("RSB:prepareBlinder");
+        mBlinderView.setVisibility(View.VISIBLE);
+        mIsBlinderPrepared = true;
+
+        BlinderLatencyTracker.getInstance().onBlinderPrepared();
+        Trace.endSection();
+    }
+
+    /**
+     * First frame of trigger is drawn.
+     */
+    public void onTriggerDrawn() {
+        BlinderLatencyTracker.getInstance().onTriggerDrawn();
+
+        // Prepare blinder after this frame.
+        if (!mIsBlinderPrepared) {
+            RapidSurfaceBlinderApplication.getUiThreadHandler().post(mPrepareBlinderTask);
+        }
+    }
+
+    private final PrepareBlinderTask mPrepareBlinderTask = new PrepareBlinderTask();
+    private class PrepareBlinderTask implements Runnable {
+        @Override
+        public void run() {
+            prepareBlinder();
+        }
+    }
+
+    /**
+     * Enable blinder.
+     *
+     * @param inputEventTimeMillis MotionEvent.getEventTime() of trigger input.
+     */
+    public void enableBlinder(long inputEventTimeMillis) {
+        BlinderLatencyTracker.getInstance().onBlindRequested(inputEventTimeMillis);
+        if (mBlinderView == null) {
+            // Stopped.
+            return;
+        }
+        // Requested before lazy preparation. No window is added here, only shown.
+        prepareBlinder();
         mBlinderView.enable();
     }
 
+    /**
+     * Disable blinder.
+     */
     public void disableBlinder() {
-        mBlinderView.disable();
+        BlinderLatencyTracker.getInstance().onBlindCanceled();
+        if (mBlinderView != null) {
+            mBlinderView.disable();
+        }
     }
 }
@@ -5,10 +5,15 @@ import android.app.PendingIntent;
 import android.app.Service;
 import android.content.Intent;
 import android.os.IBinder;
+import android.os.Trace;
+
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 
 import com.fezrestia.android.util.log.Log;
 import com.fezrestia.android.rapidsurfaceblinder.R;
 import com.fezrestia.android.rapidsurfaceblinder.activity.RapidSurfaceBlinderActivity;
+import com.fezrestia.android.rapidsurfaceblinder.control.BlinderLatencyTracker;
 import com.fezrestia.android.rapidsurfaceblinder.control.RapidSurfaceBlinderController;
 
 public class RapidSurfaceBlinderService extends Service {
@@ -38,6 +43,17 @@ public class RapidSurfaceBlinderService extends Service {
     public int onStartCommand(Intent intent, int flags, int startId) {
         if (Log.IS_DEBUG) Log.logDebug(TAG, "onStartCommand() : E");
 
+        if (intent != null) {
+            BlinderLatencyTracker.getInstance().onStartRequested(intent.getLongExtra(
+                    RapidSurfaceBlinderController.EXTRA_START_REQUEST_UPTIME_MILLIS, 0));
+        }
+
+        // Start overlay view finder. Trigger is shown before notification.
+        RapidSurfaceBlinderController.getInstance().start(RapidSurfaceBlinderService.this);
+        RapidSurfaceBlinderController.getInstance().resume();
+
+        Trace.beginSection("RSB:startForeground");
+
         // Preference trigger intent.
         Intent preferenceTrigger = new Intent(this, RapidSurfaceBlinderActivity.class);
         preferenceTrigger.setFlags(
@@ -61,9 +77,7 @@ public class RapidSurfaceBlinderService extends Service {
                 ONGOING_NOTIFICATION_ID,
                 notification);
 
-        // Start overlay view finder.
-        RapidSurfaceBlinderController.getInstance().start(RapidSurfaceBlinderService.this);
-        RapidSurfaceBlinderController.getInstance().resume();
+        Trace.endSection();
 
         if (Log.IS_DEBUG) Log.logDebug(TAG, "onStartCommand() : X");
         return START_NOT_STICKY;
@@ -83,4 +97,28 @@ public class RapidSurfaceBlinderService extends Service {
 
         if (Log.IS_DEBUG) Log.logDebug(TAG, "onDestroy() : X");
     }
+
+    /**
+     * Dump blind latency histograms, and buffered log on debug build.
+     *
+     * adb shell dumpsys activity service
+     *         com.fezrestia.android.rapidsurfaceblinder/.service.RapidSurfaceBlinderService
+     * Add "reset" argument to clear histograms after dump.
+     */
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        BlinderLatencyTracker.getInstance().dump(writer);
+        if (Log.IS_DEBUG) {
+            Log.dump(writer);
+        }
+
+        if (args != null) {
+            for (String arg : args) {
+                if ("reset".equals(arg)) {
+                    BlinderLatencyTracker.getInstance().reset();
+                    writer.println("Reset.");
+                }
+            }
+        }
+    }
 }
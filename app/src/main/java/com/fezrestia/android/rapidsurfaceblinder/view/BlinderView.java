@@ -2,29 +2,31 @@ package com.fezrestia.android.rapidsurfaceblinder.view;
 
 import android.content.Context;
 import android.content.res.Configuration;
+import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.PixelFormat;
 import android.graphics.Point;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.Display;
 import android.view.Gravity;
-import android.view.View;
+import android.view.MotionEvent;
+import android.view.ViewTreeObserver;
 import android.view.WindowManager;
 import android.widget.FrameLayout;
 
+import com.fezrestia.android.rapidsurfaceblinder.control.BlinderLatencyTracker;
 import com.fezrestia.android.util.log.Log;
 import com.fezrestia.android.rapidsurfaceblinder.RapidSurfaceBlinderApplication;
-import com.fezrestia.android.rapidsurfaceblinder.R;
 
+/**
+ * Blinder drawn by this view itself, without child view and layout inflation.
+ * This is a FrameLayout only to host trigger in merged overlay window mode.
+ */
 public class BlinderView extends FrameLayout {
     // Log tag.
     private static final String TAG = "BlinderView";
 
-    // Root view.
-    private FrameLayout mRootView = null;
-
-    // UI.
-    private View mBlinder = null;
-
     // Display coordinates.
     private int mDisplayLongLineLength = 0;
     private int mDisplayShortLineLength = 0;
@@ -36,15 +38,31 @@ public class BlinderView extends FrameLayout {
     private WindowManager mWindowManager = null;
     private WindowManager.LayoutParams mWindowLayoutParams = null;
 
-    // Animation handler.
-    private BlinderStateChangeAnimationTask mStateChangeTask = null;
-    // Animation refresh interval.
-    private static final int ANIMATION_REFRESH_INTERVAL = 16;
+    // Animation.
+    private BlinderStateChangeAnimation mStateChangeAnimation = null;
+    // Animation curve.
+    public static final int ANIMATION_CURVE_LINEAR = 0;
+    public static final int ANIMATION_CURVE_EASE_OUT = 1;
+    public static final int ANIMATION_CURVE_EASE_IN_OUT = 2;
+    private int mAnimationCurve = ANIMATION_CURVE_EASE_OUT;
+    // Duration of full transparent to full opaque transition.
+    public static final int DEFAULT_ANIMATION_DURATION_MILLIS = 150;
+    private int mAnimationDurationMillis = DEFAULT_ANIMATION_DURATION_MILLIS;
+
+    // Blinder backend.
+    public static final int BACKEND_ALPHA = 0;
+    public static final int BACKEND_OPAQUE_LAYER = 1;
+    public static final int BACKEND_DIM_AMOUNT = 2;
+    public static final int BACKEND_SCREEN_BRIGHTNESS = 3;
+    private BlinderBackend mBackend = null;
+    // Window flags required by backend at current level, added to all of interaction flags.
+    private int mBackendFlags = 0;
+    // Current blind level. 0.0 is transparent, 1.0 is fully blinded.
+    private float mBlindLevel = 0.0f;
 
     // Interaction flag.
     private static final int INTERACTIVE_FLAGS = 0 // Dummy
             | WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE
-            | WindowManager.LayoutParams.FLAG_WATCH_OUTSIDE_TOUCH
             | WindowManager.LayoutParams.FLAG_LAYOUT_NO_LIMITS
             | WindowManager.LayoutParams.FLAG_HARDWARE_ACCELERATED
             | WindowManager.LayoutParams.FLAG_FULLSCREEN
@@ -52,13 +70,37 @@ public class BlinderView extends FrameLayout {
             ;
     private static final int NOT_INTERACTIVE_FLAGS = 0 // Dummy
             | WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE
-            | WindowManager.LayoutParams.FLAG_WATCH_OUTSIDE_TOUCH
             | WindowManager.LayoutParams.FLAG_LAYOUT_NO_LIMITS
             | WindowManager.LayoutParams.FLAG_HARDWARE_ACCELERATED
             | WindowManager.LayoutParams.FLAG_FULLSCREEN
             | WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE
             | WindowManager.LayoutParams.FLAG_LAYOUT_IN_SCREEN
             ;
+    // Merged window flag while not blinded, touchable only in trigger sized window.
+    private static final int MERGED_IDLE_FLAGS = 0 // Dummy
+            | WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE
+            | WindowManager.LayoutParams.FLAG_NOT_TOUCH_MODAL
+            | WindowManager.LayoutParams.FLAG_LAYOUT_NO_LIMITS
+            | WindowManager.LayoutParams.FLAG_HARDWARE_ACCELERATED
+            ;
+    // Merged window flag while fading out. Full screen, but trigger must be touchable.
+    private static final int MERGED_FADE_OUT_FLAGS = 0 // Dummy
+            | WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE
+            | WindowManager.LayoutParams.FLAG_NOT_TOUCH_MODAL
+            | WindowManager.LayoutParams.FLAG_LAYOUT_NO_LIMITS
+            | WindowManager.LayoutParams.FLAG_HARDWARE_ACCELERATED
+            | WindowManager.LayoutParams.FLAG_FULLSCREEN
+            | WindowManager.LayoutParams.FLAG_LAYOUT_IN_SCREEN
+            ;
+    // Interactive flags are applied after opaque frame, not on blind request.
+    private boolean mIsInteractiveFlagsPending = false;
+
+    // Trigger hosted in this window, null if trigger has its own window.
+    private TriggerView mMergedTrigger = null;
+    // Window is full screen or not. Merged window is trigger sized while not blinded.
+    private boolean mIsWindowExpanded = true;
+    // Merged window is full screen and fading out.
+    private boolean mIsMergedFadeOut = false;
 
     // CONSTRUCTOR.
     public BlinderView(final Context context) {
@@ -100,14 +142,14 @@ public class BlinderView extends FrameLayout {
     }
 
     private void cacheInstances() {
-        // Root.
-        mRootView = (FrameLayout) findViewById(R.id.root);
-
-        // UI.
-        mBlinder = findViewById(R.id.blinder);
+        // Blinder is drawn by onDraw().
+        setWillNotDraw(false);
 
         // Animation.
-        mStateChangeTask = new BlinderStateChangeAnimationTask();
+        mStateChangeAnimation = new BlinderStateChangeAnimation();
+
+        // Backend.
+        mBackend = new AlphaBackend();
     }
 
     private void createWindowParameters() {
@@ -126,11 +168,20 @@ public class BlinderView extends FrameLayout {
      * Release all resources.
      */
     public void release() {
-        mRootView = null;
-        mBlinder = null;
+        if (mMergedTrigger != null) {
+            removeView(mMergedTrigger);
+            mMergedTrigger = null;
+        }
 
-        RapidSurfaceBlinderApplication.getUiThreadHandler().removeCallbacks(mStateChangeTask);
-        mStateChangeTask = null;
+        mStateChangeAnimation.finish();
+        mStateChangeAnimation = null;
+        mIsMergedFadeOut = false;
+
+        mBackend = null;
+
+        mIsInteractiveFlagsPending = false;
+        RapidSurfaceBlinderApplication.getUiThreadHandler().removeCallbacks(
+                mApplyInteractiveFlagsTask);
 
         mWindowManager = null;
         mWindowLayoutParams = null;
@@ -149,7 +200,58 @@ public class BlinderView extends FrameLayout {
         winMng.addView(this, mWindowLayoutParams);
     }
 
+    /**
+     * Host trigger in this window, instead of independent trigger window.
+     *
+     * Touchable region of a window can not be limited by public API. So, merged window is
+     * trigger sized while not blinded, and expanded to full screen on blind.
+     * This saves one overlay surface, but blind request needs window relayout.
+     *
+     * @param trigger Initialized trigger, not added to WindowManager.
+     */
+    public void setMergedTrigger(TriggerView trigger) {
+        mMergedTrigger = trigger;
+        addView(mMergedTrigger, new FrameLayout.LayoutParams(
+                TriggerView.TRIGGER_SIZE,
+                TriggerView.TRIGGER_SIZE,
+                Gravity.LEFT | Gravity.BOTTOM));
+
+        // Not blinded.
+        mIsWindowExpanded = false;
+        mWindowLayoutParams.flags = MERGED_IDLE_FLAGS | mBackendFlags;
+        updateWindowParams();
+    }
+
+    private void setWindowExpanded(boolean isExpanded) {
+        mIsWindowExpanded = isExpanded;
+        mIsMergedFadeOut = false;
+        if (isExpanded) {
+            mWindowLayoutParams.flags = INTERACTIVE_FLAGS | mBackendFlags;
+        } else {
+            mWindowLayoutParams.flags = MERGED_IDLE_FLAGS | mBackendFlags;
+        }
+        updateWindowParams();
+    }
+
     private void updateWindowParams() {
+        if (!mIsWindowExpanded) {
+            // Same as trigger window.
+            mWindowLayoutParams.gravity = Gravity.LEFT | Gravity.BOTTOM;
+            mWindowLayoutParams.x = mMergedTrigger.getOffsetX();
+            mWindowLayoutParams.y = mMergedTrigger.getOffsetY();
+            mWindowLayoutParams.width = TriggerView.TRIGGER_SIZE;
+            mWindowLayoutParams.height = TriggerView.TRIGGER_SIZE;
+            updateMergedTriggerMargin(0, 0);
+
+            if (isAttachedToWindow()) {
+                mWindowManager.updateViewLayout(this, mWindowLayoutParams);
+            }
+            return;
+        }
+        if (mMergedTrigger != null) {
+            updateMergedTriggerMargin(mMergedTrigger.getOffsetX(), mMergedTrigger.getOffsetY());
+        }
+
         mWindowLayoutParams.gravity = Gravity.LEFT | Gravity.TOP;
 
         mWindowLayoutParams.x = 0;
@@ -175,6 +277,14 @@ public class BlinderView extends FrameLayout {
         }
     }
 
+    private void updateMergedTriggerMargin(int leftMargin, int bottomMargin) {
+        FrameLayout.LayoutParams params =
+                (FrameLayout.LayoutParams) mMergedTrigger.getLayoutParams();
+        params.leftMargin = leftMargin;
+        params.bottomMargin = bottomMargin;
+        mMergedTrigger.setLayoutParams(params);
+    }
+
     /**
      * Remove this view from WindowManager layer.
      */
@@ -190,8 +300,6 @@ public class BlinderView extends FrameLayout {
         calculateScreenConfiguration();
         // Window layout.
         updateWindowParams();
-        // Update layout.
-        updateLayoutParams();
     }
 
     private void calculateScreenConfiguration() {
@@ -208,7 +316,33 @@ public class BlinderView extends FrameLayout {
         mOrientation = getContext().getResources().getConfiguration().orientation;
     }
 
-    private void updateLayoutParams() {
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (mBackend != null && mBackend.isDrawnByView() && 0.0f < mBlindLevel) {
+            canvas.drawColor(Color.argb(Math.round(mBlindLevel * 255.0f), 0, 0, 0));
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+
+        // Latency.
+        // Listener added before attach is not merged into window observer on some platforms.
+        getViewTreeObserver().addOnDrawListener(mOnDrawListenerImpl);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        getViewTreeObserver().removeOnDrawListener(mOnDrawListenerImpl);
+
+        // Opaque frame never comes. Apply to window parameters, used on next addView().
+        if (mIsInteractiveFlagsPending) {
+            mIsInteractiveFlagsPending = false;
+            mWindowLayoutParams.flags = INTERACTIVE_FLAGS | mBackendFlags;
+        }
+
+        super.onDetachedFromWindow();
     }
 
     @Override
@@ -217,98 +351,526 @@ public class BlinderView extends FrameLayout {
                 "onConfigurationChanged() : [Config=" + newConfig.toString());
         super.onConfigurationChanged(newConfig);
 
-        // Stop animation.
-        RapidSurfaceBlinderApplication.getUiThreadHandler().removeCallbacks(mStateChangeTask);
+        // Finish animation.
+        mStateChangeAnimation.finish();
 
         // Update UI.
+        final long startNanos = System.nanoTime();
         updateTotalUserInterface();
+        BlinderLatencyTracker.getInstance().onConfigurationRelayout(
+                (System.nanoTime() - startNanos) / 1000L);
+    }
+
+    /**
+     * Set animation curve and duration of blinder state change.
+     * Partial transition takes time in proportion to level difference.
+     *
+     * @param curve One of ANIMATION_CURVE_*.
+     * @param durationMillis Duration of full transparent to full opaque transition.
+     */
+    public void setAnimation(int curve, int durationMillis) {
+        mAnimationCurve = curve;
+        mAnimationDurationMillis = durationMillis;
+    }
+
+    /**
+     * Set blinder backend. This must be called before addToOverlayWindow().
+     *
+     * @param backend One of BACKEND_*.
+     */
+    public void setBackend(int backend) {
+        switch (backend) {
+            case BACKEND_ALPHA:
+                mBackend = new AlphaBackend();
+                break;
+
+            case BACKEND_OPAQUE_LAYER:
+                mBackend = new OpaqueLayerBackend();
+                break;
+
+            case BACKEND_DIM_AMOUNT:
+                mBackend = new DimAmountBackend();
+                break;
+
+            case BACKEND_SCREEN_BRIGHTNESS:
+                mBackend = new ScreenBrightnessBackend();
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unexpected backend : " + backend);
+        }
+        if (Log.IS_DEBUG) Log.logDebug(TAG, "setBackend() : " + mBackend.getName());
+
+        updateBackendFlags();
+        mBackend.setLevel(mBlindLevel);
+    }
+
+    /**
+     * Replace backend flags in window parameters with current ones of backend.
+     *
+     * @return Window parameters are changed or not.
+     */
+    private boolean updateBackendFlags() {
+        final int backendFlags = mBackend.getWindowFlags();
+        if (backendFlags == mBackendFlags) {
+            return false;
+        }
+
+        mWindowLayoutParams.flags = (mWindowLayoutParams.flags & ~mBackendFlags) | backendFlags;
+        mBackendFlags = backendFlags;
+        return true;
     }
 
     public void enable() {
-        mStateChangeTask.setTargetAlpha(1.0f);
-        if (!mStateChangeTask.isActive()) {
-            mStateChangeTask.setActive();
-            RapidSurfaceBlinderApplication.getUiThreadHandler().post(mStateChangeTask);
+        mIsMergedFadeOut = false;
+
+        if (!mIsWindowExpanded) {
+            // Merged window must be full screen to blind.
+            setWindowExpanded(true);
+            mStateChangeAnimation.start(1.0f);
+            mIsInteractiveFlagsPending = true;
+            BlinderLatencyTracker.getInstance().onBlindWindowUpdated();
+            return;
         }
 
-        // Update flag.
-        mWindowLayoutParams.flags = INTERACTIVE_FLAGS;
-        if (isAttachedToWindow()) {
-            mWindowManager.updateViewLayout(this, mWindowLayoutParams);
+        mStateChangeAnimation.start(1.0f);
+
+        // Touch interception is not necessary to hide screen. So window relayout on system
+        // server is deferred until blinder is drawn as opaque, out of critical path.
+        if (1.0f <= mBlindLevel) {
+            // Already opaque, no frame to wait for.
+            updateWindowFlags(INTERACTIVE_FLAGS);
+            mBackend.onFullyOpaque();
+        } else if (!isAttachedToWindow()) {
+            // No frame is drawn and no draw listener is registered until attached.
+            // Flags are applied on addView().
+            updateWindowFlags(INTERACTIVE_FLAGS);
+        } else {
+            mIsInteractiveFlagsPending = true;
         }
+
+        BlinderLatencyTracker.getInstance().onBlindWindowUpdated();
     }
 
     public void disable() {
-        mStateChangeTask.setTargetAlpha(0.0f);
-        if (!mStateChangeTask.isActive()) {
-            mStateChangeTask.setActive();
-            RapidSurfaceBlinderApplication.getUiThreadHandler().post(mStateChangeTask);
+        mStateChangeAnimation.start(0.0f);
+
+        // Touch must pass through immediately.
+        mIsInteractiveFlagsPending = false;
+        RapidSurfaceBlinderApplication.getUiThreadHandler().removeCallbacks(
+                mApplyInteractiveFlagsTask);
+        if (mIsWindowExpanded) {
+            if (mMergedTrigger != null) {
+                // Merged window is shrunk to trigger after transparent.
+                // Until then, trigger in this window must be touchable to blind again.
+                mIsMergedFadeOut = true;
+                updateWindowFlags(MERGED_FADE_OUT_FLAGS);
+            } else {
+                updateWindowFlags(NOT_INTERACTIVE_FLAGS);
+            }
         }
+    }
 
-        // Update flag.
-        mWindowLayoutParams.flags = NOT_INTERACTIVE_FLAGS;
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        // Touch out of trigger. Window can not pass through touch inside its bounds,
+        // so finish fade out and shrink to trigger, then following touches pass through.
+        if (mIsMergedFadeOut && event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            mStateChangeAnimation.finish();
+        }
+        return false;
+    }
+
+    private void setBlindLevel(float level) {
+        final long startNanos = System.nanoTime();
+        mBlindLevel = level;
+        mBackend.setLevel(level);
+        BlinderLatencyTracker.getInstance().onBackendLevelApplied(
+                mBackend.getName(),
+                (System.nanoTime() - startNanos) / 1000L);
+
+        if (!mBackend.isDrawnByView() && 1.0f <= level) {
+            // Window attribute is already applied, no view frame to wait for.
+            onFullyOpaque();
+        }
+    }
+
+    private void onFullyOpaque() {
+        BlinderLatencyTracker.getInstance().onBlindFullyOpaque();
+
+        // Relayout is not allowed during draw, so post it after this frame.
+        if (mIsInteractiveFlagsPending) {
+            mIsInteractiveFlagsPending = false;
+            RapidSurfaceBlinderApplication.getUiThreadHandler().post(
+                    mApplyInteractiveFlagsTask);
+        }
+    }
+
+    private void onTransparent() {
+        if (mMergedTrigger != null && mIsWindowExpanded) {
+            setWindowExpanded(false);
+        }
+    }
+
+    private void updateWindowFlags(int flags) {
+        flags |= mBackendFlags;
+        if (mWindowLayoutParams.flags == flags) {
+            // No need to relayout.
+            return;
+        }
+
+        mWindowLayoutParams.flags = flags;
         if (isAttachedToWindow()) {
+            final long startNanos = System.nanoTime();
             mWindowManager.updateViewLayout(this, mWindowLayoutParams);
+            BlinderLatencyTracker.getInstance().onWindowRelayout(
+                    (System.nanoTime() - startNanos) / 1000L);
         }
     }
 
-    private class BlinderStateChangeAnimationTask implements Runnable {
-        private final float GAIN_P = 0.2f;
+    private final ApplyInteractiveFlagsTask mApplyInteractiveFlagsTask
+            = new ApplyInteractiveFlagsTask();
+    private class ApplyInteractiveFlagsTask implements Runnable {
+        @Override
+        public void run() {
+            if (mWindowLayoutParams != null) {
+                updateWindowFlags(INTERACTIVE_FLAGS);
+                mBackend.onFullyOpaque();
+            }
+        }
+    }
 
-        private float mTargetAlpha = 1.0f;
+    private final OnDrawListenerImpl mOnDrawListenerImpl = new OnDrawListenerImpl();
+    private class OnDrawListenerImpl implements ViewTreeObserver.OnDrawListener {
+        @Override
+        public void onDraw() {
+            // Blind latency is measured until first frame of fully opaque blinder.
+            if (mBackend != null && mBackend.isDrawnByView() && 1.0f <= mBlindLevel) {
+                onFullyOpaque();
+            }
+        }
+    }
 
-        private float mLastDiff = 0.0f;
+    /**
+     * Blinder backend, which renders blind level.
+     *
+     * Backends differ in composition cost. View alpha is blended on full screen layer for
+     * each frame, window attributes are composed by system without blending of this window.
+     */
+    private interface BlinderBackend {
+        /**
+         * Backend name.
+         *
+         * @return
+         */
+        String getName();
+
+        /**
+         * Window flags required by this backend at current blind level.
+         *
+         * @return
+         */
+        int getWindowFlags();
+
+        /**
+         * Blind level is rendered by drawing of this view or not.
+         *
+         * @return
+         */
+        boolean isDrawnByView();
+
+        /**
+         * Render blind level.
+         *
+         * @param level 0.0 is transparent, 1.0 is fully blinded.
+         */
+        void setLevel(float level);
+
+        /**
+         * Fully blinded frame is drawn. Window relayout is allowed here.
+         */
+        void onFullyOpaque();
+    }
 
-        boolean mIsActive = false;
+    private void relayoutWindow() {
+        if (mWindowManager != null && isAttachedToWindow()) {
+            mWindowManager.updateViewLayout(this, mWindowLayoutParams);
+        }
+    }
 
-        public void setTargetAlpha(float target) {
-            mTargetAlpha = target;
+    /**
+     * Translucent black drawn on translucent window.
+     */
+    private class AlphaBackend implements BlinderBackend {
+        @Override
+        public String getName() {
+            return "alpha";
         }
 
-        public float getTargetAlpha() {
-            return mTargetAlpha;
+        @Override
+        public int getWindowFlags() {
+            return 0;
         }
 
-        public void setActive() {
-            mIsActive = true;
+        @Override
+        public boolean isDrawnByView() {
+            return true;
         }
 
-        public boolean isActive() {
-            return mIsActive;
+        @Override
+        public void setLevel(float level) {
+            invalidate();
         }
 
         @Override
-        public void run() {
-            if (mBlinder != null) {
-                // Diff.
-                float diff = mTargetAlpha - mBlinder.getAlpha();
+        public void onFullyOpaque() {
+            // NOP.
+        }
+    }
+
+    /**
+     * Same as alpha, and window is changed to opaque format while fully blinded.
+     * Composer skips blending of this window and composition of windows below.
+     */
+    private class OpaqueLayerBackend extends AlphaBackend {
+        @Override
+        public String getName() {
+            return "opaque-layer";
+        }
+
+        @Override
+        public void setLevel(float level) {
+            if (level < 1.0f && mWindowLayoutParams.format == PixelFormat.OPAQUE) {
+                // Windows below must be visible from this frame.
+                mWindowLayoutParams.format = PixelFormat.TRANSLUCENT;
+                relayoutWindow();
+            }
+            super.setLevel(level);
+        }
+
+        @Override
+        public void onFullyOpaque() {
+            if (1.0f <= mBlindLevel && mWindowLayoutParams.format != PixelFormat.OPAQUE) {
+                mWindowLayoutParams.format = PixelFormat.OPAQUE;
+                relayoutWindow();
+            }
+        }
+    }
+
+    /**
+     * Dim layer behind this window, composed by system. Each dim amount change is relayout,
+     * so dim amount is changed in DIM_AMOUNT_STEP_COUNT steps, not on each frame.
+     * Dim layer exists only while blinded.
+     */
+    private class DimAmountBackend implements BlinderBackend {
+        // Dim amount steps in full transition.
+        private static final int DIM_AMOUNT_STEP_COUNT = 4;
+
+        @Override
+        public String getName() {
+            return "dim-amount";
+        }
+
+        @Override
+        public int getWindowFlags() {
+            if (0.0f < mBlindLevel) {
+                return WindowManager.LayoutParams.FLAG_DIM_BEHIND;
+            }
+            return 0;
+        }
+
+        @Override
+        public boolean isDrawnByView() {
+            return false;
+        }
+
+        @Override
+        public void setLevel(float level) {
+            boolean isChanged = updateBackendFlags();
+
+            // Round up, any blind level dims at least one step from first frame.
+            final float dimAmount =
+                    (float) Math.ceil(level * DIM_AMOUNT_STEP_COUNT) / DIM_AMOUNT_STEP_COUNT;
+            if (mWindowLayoutParams.dimAmount != dimAmount) {
+                mWindowLayoutParams.dimAmount = dimAmount;
+                isChanged = true;
+            }
+
+            if (isChanged) {
+                relayoutWindow();
+            }
+        }
 
-                // Check.
-                if (((int) (diff * 100)) == ((int) (mLastDiff * 100))) {
-                    // Already convergent.
+        @Override
+        public void onFullyOpaque() {
+            // NOP.
+        }
+    }
 
-                    mBlinder.setAlpha(mTargetAlpha);
+    /**
+     * Screen brightness override, no composition cost.
+     *
+     * User brightness can not be read as start point, so brightness is not animated and
+     * changed to minimum on blind. Content is still visible on some panels.
+     */
+    private class ScreenBrightnessBackend implements BlinderBackend {
+        @Override
+        public String getName() {
+            return "screen-brightness";
+        }
+
+        @Override
+        public int getWindowFlags() {
+            return 0;
+        }
+
+        @Override
+        public boolean isDrawnByView() {
+            return false;
+        }
 
-                    mIsActive = false;
-                    return;
+        @Override
+        public void setLevel(float level) {
+            float brightness;
+            if (0.0f < level) {
+                brightness = WindowManager.LayoutParams.BRIGHTNESS_OVERRIDE_OFF;
+            } else {
+                brightness = WindowManager.LayoutParams.BRIGHTNESS_OVERRIDE_NONE;
+            }
+
+            if (mWindowLayoutParams.screenBrightness != brightness) {
+                mWindowLayoutParams.screenBrightness = brightness;
+                relayoutWindow();
+            }
+        }
+
+        @Override
+        public void onFullyOpaque() {
+            // NOP.
+        }
+    }
+
+    /**
+     * Blind level animation driven by Choreographer frame time.
+     *
+     * Level is calculated from elapsed frame time, so animation completes within duration
+     * independent of display refresh rate.
+     */
+    private class BlinderStateChangeAnimation implements Choreographer.FrameCallback {
+        // Animation from/to.
+        private float mStartLevel = 0.0f;
+        private float mTargetLevel = 1.0f;
+
+        // Duration of this transition, scaled by level distance.
+        private long mDurationNanos = 0;
+
+        // Start time, same time base as Choreographer frame time.
+        private long mStartTimeNanos = 0;
+
+        // Frames rendered in this transition.
+        private int mFrameCount = 0;
+
+        private boolean mIsActive = false;
+
+        /**
+         * Start transition from current level to target.
+         *
+         * @param target
+         */
+        public void start(float target) {
+            if (mBackend == null) {
+                return;
+            }
+
+            mStartLevel = mBlindLevel;
+            mTargetLevel = target;
+            mDurationNanos = (long) (Math.abs(mTargetLevel - mStartLevel)
+                    * mAnimationDurationMillis * 1000000L);
+            // First frame already makes progress, elapsed from this request.
+            mStartTimeNanos = System.nanoTime();
+            mFrameCount = 0;
+
+            if (!mIsActive) {
+                mIsActive = true;
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+
+        /**
+         * Stop transition, and jump to target level.
+         */
+        public void finish() {
+            if (mIsActive) {
+                Choreographer.getInstance().removeFrameCallback(this);
+                setBlindLevel(mTargetLevel);
+                onFinished();
+            }
+        }
+
+        private void onFinished() {
+            mIsActive = false;
+
+            if (Log.IS_DEBUG) {
+                // Constant event, no concatenation on each transition.
+                if (mTargetLevel <= 0.0f) {
+                    Log.logDebug(TAG, "Animation finished : [Target=0] Frames=", mFrameCount);
                 } else {
-                    // Next move.
+                    Log.logDebug(TAG, "Animation finished : [Target=1] Frames=", mFrameCount);
+                }
+            }
+            BlinderLatencyTracker.getInstance().onAnimationFinished(mFrameCount);
 
-                    float curAlpha = mBlinder.getAlpha();
-                    curAlpha += diff * GAIN_P;
+            if (mTargetLevel <= 0.0f) {
+                onTransparent();
+            }
+        }
 
-                    mBlinder.setAlpha(curAlpha);
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (mBackend == null) {
+                mIsActive = false;
+                return;
+            }
 
-                    if (isAttachedToWindow()) {
-                        // Go to next.
-                        RapidSurfaceBlinderApplication.getUiThreadHandler().postDelayed(
-                                this,
-                                ANIMATION_REFRESH_INTERVAL);
-                    }
+            // Progress.
+            float fraction;
+            if (mDurationNanos <= 0) {
+                fraction = 1.0f;
+            } else {
+                fraction = (float) (frameTimeNanos - mStartTimeNanos) / mDurationNanos;
+                if (fraction < 0.0f) {
+                    fraction = 0.0f;
+                } else if (1.0f < fraction) {
+                    fraction = 1.0f;
                 }
+            }
+
+            setBlindLevel(mStartLevel
+                    + (mTargetLevel - mStartLevel) * interpolate(mAnimationCurve, fraction));
+            ++mFrameCount;
 
-                mLastDiff = diff;
+            if (fraction < 1.0f) {
+                // Go to next frame.
+                Choreographer.getInstance().postFrameCallback(this);
+            } else {
+                onFinished();
             }
         }
     }
+
+    private static float interpolate(int curve, float fraction) {
+        switch (curve) {
+            case ANIMATION_CURVE_LINEAR:
+                return fraction;
+
+            case ANIMATION_CURVE_EASE_OUT:
+                return 1.0f - (1.0f - fraction) * (1.0f - fraction);
+
+            case ANIMATION_CURVE_EASE_IN_OUT:
+                return (float) (Math.cos((fraction + 1.0f) * Math.PI) / 2.0f + 0.5f);
+
+            default:
+                throw new IllegalArgumentException("Unexpected curve : " + curve);
+        }
+    }
 }
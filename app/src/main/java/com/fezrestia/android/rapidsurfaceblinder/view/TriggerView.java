@@ -2,6 +2,7 @@ package com.fezrestia.android.rapidsurfaceblinder.view;
 
 import android.content.Context;
 import android.content.res.Configuration;
+import android.graphics.Canvas;
 import android.graphics.PixelFormat;
 import android.graphics.Point;
 import android.graphics.Rect;
@@ -10,25 +11,29 @@ import android.view.Display;
 import android.view.Gravity;
 import android.view.MotionEvent;
 import android.view.View;
-import android.view.ViewGroup;
+import android.view.ViewConfiguration;
 import android.view.WindowManager;
-import android.widget.RelativeLayout;
+
+import java.io.IOException;
 
 import com.fezrestia.android.lib.interaction.InteractionEngine;
+import com.fezrestia.android.lib.interaction.TouchTraceRecorder;
+import com.fezrestia.android.rapidsurfaceblinder.control.BlinderLatencyTracker;
 import com.fezrestia.android.rapidsurfaceblinder.control.RapidSurfaceBlinderController;
 import com.fezrestia.android.util.log.Log;
+import com.fezrestia.android.util.settings.SettingsStore;
+import com.fezrestia.android.rapidsurfaceblinder.RapidSurfaceBlinderConstants;
 import com.fezrestia.android.rapidsurfaceblinder.RapidSurfaceBlinderApplication;
-import com.fezrestia.android.rapidsurfaceblinder.R;
 
-public class TriggerView extends RelativeLayout {
+/**
+ * Trigger drawn by this view itself, without child view and layout inflation.
+ */
+public class TriggerView extends View {
     // Log tag.
     private static final String TAG = "TriggerView";
 
-    // Root view.
-    private RelativeLayout mRootView = null;
-
     // UI.
-    private View mBlinder = null;
+    private static final int TRIGGER_COLOR = 0xFFAAAAAA;
 
     // Display coordinates.
     private int mDisplayLongLineLength = 0;
@@ -43,6 +48,24 @@ public class TriggerView extends RelativeLayout {
 
     // Interaction.
     private InteractionEngine mInteractionEngine = null;
+    // Tap and long press thresholds.
+    public static final int DEFAULT_TAP_TIMEOUT_MILLIS = 250;
+    public static final int DEFAULT_LONG_PRESS_TIMEOUT_MILLIS = 250;
+    // Event time of touch event in progress, tap is detected synchronously on it.
+    private long mCurrentTouchEventTime = 0;
+
+    // Touch trace recording for off-device replay, enabled by setting.
+    private TouchTraceRecorder mTouchTraceRecorder = null;
+
+    // Trigger size, and default offset from left bottom corner of screen.
+    public static final int TRIGGER_SIZE = 128;
+    public static final int TRIGGER_OFFSET = 36;
+
+    // This view is added to WindowManager as an independent window, or hosted by BlinderView.
+    private boolean mIsOverlayWindowOwner = false;
+
+    // First frame is drawn or not.
+    private boolean mIsFirstFrameDrawn = false;
 
     // Size.
     private Rect mMinRect = new Rect();
@@ -94,24 +117,57 @@ public class TriggerView extends RelativeLayout {
     }
 
     private void cacheInstances() {
-        // Root.
-        mRootView = (RelativeLayout) findViewById(R.id.root);
-
-        // UI.
-        mBlinder = findViewById(R.id.blinder);
-
         // Set touch interceptor.
         mInteractionEngine = new InteractionEngine(
-                mRootView.getContext(),
-                mRootView,
+                getContext(),
+                this,
                 0,
                 0,//ViewConfiguration.get(getContext()).getScaledTouchSlop(),
                 RapidSurfaceBlinderApplication.getUiThreadHandler());
-        mInteractionEngine.setInteractionCallback(mInteractionCallbackImpl);
-        mRootView.setOnTouchListener(mOnTouchListenerImpl);
+        // Only tap and long press are used.
+        mInteractionEngine.setPrimitiveInteractionCallback(
+                mInteractionCallbackImpl,
+                InteractionEngine.INTEREST_TAP_AND_LONG_PRESS);
+        setOnTouchListener(mOnTouchListenerImpl);
+
+        // Touch trace.
+        if (RapidSurfaceBlinderApplication.getSettingsStore().getBoolean(
+                RapidSurfaceBlinderConstants.SETTING_TOUCH_TRACE_RECORDING)) {
+            mTouchTraceRecorder = new TouchTraceRecorder(getContext());
+        }
     }
 
     private void loadPreferences() {
+        SettingsStore settings = RapidSurfaceBlinderApplication.getSettingsStore();
+
+        // Thresholds.
+        mInteractionEngine.setTapAndLongPressThresholds(
+                settings.getInt(RapidSurfaceBlinderConstants.SETTING_TAP_TIMEOUT_MILLIS),
+                settings.getInt(RapidSurfaceBlinderConstants.SETTING_LONG_PRESS_TIMEOUT_MILLIS),
+                ViewConfiguration.get(getContext()).getScaledTouchSlop());
+
+        // Position.
+        mMinOffset.set(
+                settings.getInt(RapidSurfaceBlinderConstants.SETTING_TRIGGER_OFFSET_X),
+                settings.getInt(RapidSurfaceBlinderConstants.SETTING_TRIGGER_OFFSET_Y));
+    }
+
+    /**
+     * Get offset from left edge of screen.
+     *
+     * @return
+     */
+    public int getOffsetX() {
+        return mMinOffset.x;
+    }
+
+    /**
+     * Get offset from bottom edge of screen.
+     *
+     * @return
+     */
+    public int getOffsetY() {
+        return mMinOffset.y;
     }
 
     private void createWindowParameters() {
@@ -125,7 +181,6 @@ public class TriggerView extends RelativeLayout {
                 0 // Dummy
                         | WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE
                         | WindowManager.LayoutParams.FLAG_NOT_TOUCH_MODAL
-                        | WindowManager.LayoutParams.FLAG_WATCH_OUTSIDE_TOUCH
                         | WindowManager.LayoutParams.FLAG_LAYOUT_NO_LIMITS
                         | WindowManager.LayoutParams.FLAG_HARDWARE_ACCELERATED
                         ,
@@ -137,16 +192,17 @@ public class TriggerView extends RelativeLayout {
      */
     public void release() {
         if (mInteractionEngine != null) {
-            mInteractionEngine.setInteractionCallback(null);
+            mInteractionEngine.setPrimitiveInteractionCallback(null);
             mInteractionEngine.release();
             mInteractionEngine = null;
         }
 
-        if (mRootView != null) {
-            mRootView.setOnTouchListener(null);
-            mRootView = null;
+        if (mTouchTraceRecorder != null) {
+            mTouchTraceRecorder.release();
+            mTouchTraceRecorder = null;
         }
-        mBlinder = null;
+
+        setOnTouchListener(null);
 
         mWindowManager = null;
         mWindowLayoutParams = null;
@@ -163,6 +219,7 @@ public class TriggerView extends RelativeLayout {
         WindowManager winMng = (WindowManager)
                 getContext().getSystemService(Context.WINDOW_SERVICE);
         winMng.addView(this, mWindowLayoutParams);
+        mIsOverlayWindowOwner = true;
     }
 
     private void updateWindowParams() {
@@ -186,15 +243,14 @@ public class TriggerView extends RelativeLayout {
             }
         }
         mMaxOffset.set(0, 0);
-        mMinRect.set(0, 0, 128, 128);
-        mMinOffset.set(36, 36);
+        mMinRect.set(0, 0, TRIGGER_SIZE, TRIGGER_SIZE);
 
         mWindowLayoutParams.x = mMinOffset.x;
         mWindowLayoutParams.y = mMinOffset.y;
         mWindowLayoutParams.width = mMinRect.width();
         mWindowLayoutParams.height = mMinRect.height();
 
-        if (isAttachedToWindow()) {
+        if (mIsOverlayWindowOwner && isAttachedToWindow()) {
             mWindowManager.updateViewLayout(this, mWindowLayoutParams);
         }
     }
@@ -207,6 +263,7 @@ public class TriggerView extends RelativeLayout {
         WindowManager winMng = (WindowManager)
                 getContext().getSystemService(Context.WINDOW_SERVICE);
         winMng.removeView(this);
+        mIsOverlayWindowOwner = false;
     }
 
     private void updateTotalUserInterface() {
@@ -214,8 +271,6 @@ public class TriggerView extends RelativeLayout {
         calculateScreenConfiguration();
         // Window layout.
         updateWindowParams();
-        // Update layout.
-        updateLayoutParams();
     }
 
     private void calculateScreenConfiguration() {
@@ -236,12 +291,13 @@ public class TriggerView extends RelativeLayout {
         }
     }
 
-    private void updateLayoutParams() {
-        if (mBlinder != null) {
-            ViewGroup.LayoutParams params = mBlinder.getLayoutParams();
-            params.width = mMinRect.width();
-            params.height = mMinRect.height();
-            mBlinder.setLayoutParams(params);
+    @Override
+    protected void onDraw(Canvas canvas) {
+        canvas.drawColor(TRIGGER_COLOR);
+
+        if (!mIsFirstFrameDrawn) {
+            mIsFirstFrameDrawn = true;
+            RapidSurfaceBlinderController.getInstance().onTriggerDrawn();
         }
     }
 
@@ -249,34 +305,65 @@ public class TriggerView extends RelativeLayout {
     private class OnTouchListenerImpl implements OnTouchListener {
         @Override
         public boolean onTouch(View v, MotionEvent event) {
+            // Outside touch is not watched, but count it in case it is delivered.
+            if (event.getActionMasked() == MotionEvent.ACTION_OUTSIDE) {
+                BlinderLatencyTracker.getInstance().onOutsideTouch();
+                return false;
+            }
+
             // Use absolute position, because window position change affects view motion event.
             event.setLocation(event.getRawX(), event.getRawY());
 
+            if (mTouchTraceRecorder != null) {
+                try {
+                    mTouchTraceRecorder.record(event);
+                } catch (IOException e) {
+                    // Recording is best effort, stop it.
+                    Log.logError(TAG, "onTouch() : Failed to record touch trace. " + e);
+                    mTouchTraceRecorder.release();
+                    mTouchTraceRecorder = null;
+                }
+            }
+
+            mCurrentTouchEventTime = event.getEventTime();
             mInteractionEngine.onTouchEvent(event);
             return true;
         }
     }
 
-    private final InteractionEngine.InteractionCallback mInteractionCallbackImpl
+    private final InteractionEngine.PrimitiveInteractionCallback mInteractionCallbackImpl
             = new TnteractionCallbackImpl();
-    private class TnteractionCallbackImpl implements InteractionEngine.InteractionCallback {
+    private class TnteractionCallbackImpl
+            implements InteractionEngine.PrimitiveInteractionCallback {
         @Override
-        public void onSingleTouched(Point point) {
+        public void onSingleTouched(int x, int y) {
             // NOP.
         }
 
         @Override
-        public void onSingleMoved(Point currentPoint, Point lastPoint, Point downPoint) {
+        public void onSingleMoved(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
             // NOP.
         }
 
         @Override
-        public void onSingleStopped(Point currentPoint, Point lastPoint, Point downPoint) {
+        public void onSingleStopped(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
             // NOP.
         }
 
         @Override
-        public void onSingleReleased(Point point) {
+        public void onSingleReleased(int x, int y) {
             // NOP.
         }
 
@@ -286,12 +373,12 @@ public class TriggerView extends RelativeLayout {
         }
 
         @Override
-        public void onDoubleTouched(Point point0, Point point1) {
+        public void onDoubleTouched(int x0, int y0, int x1, int y1) {
             // NOP.
         }
 
         @Override
-        public void onDoubleMoved(Point point0, Point point1) {
+        public void onDoubleMoved(int x0, int y0, int x1, int y1) {
             // NOP.
         }
 
@@ -306,7 +393,11 @@ public class TriggerView extends RelativeLayout {
         }
 
         @Override
-        public void onSingleReleasedInDouble(Point release, Point remain) {
+        public void onSingleReleasedInDouble(
+                int releaseX,
+                int releaseY,
+                int remainX,
+                int remainY) {
             // NOP.
         }
 
@@ -320,6 +411,16 @@ public class TriggerView extends RelativeLayout {
             // NOP.
         }
 
+        @Override
+        public void onSingleTapped(int x, int y) {
+            RapidSurfaceBlinderController.getInstance().enableBlinder(mCurrentTouchEventTime);
+        }
+
+        @Override
+        public void onSingleLongPressed(int x, int y) {
+            RapidSurfaceBlinderController.getInstance().disableBlinder();
+        }
+
         @Override
         public void onFling(MotionEvent event1, MotionEvent event2, float velocX, float velocY) {
             // NOP.
@@ -327,7 +428,7 @@ public class TriggerView extends RelativeLayout {
 
         @Override
         public void onLongPress(MotionEvent event) {
-            RapidSurfaceBlinderController.getInstance().disableBlinder();
+            // NOP.
         }
 
         @Override
@@ -337,7 +438,7 @@ public class TriggerView extends RelativeLayout {
 
         @Override
         public void onSingleTapUp(MotionEvent event) {
-            RapidSurfaceBlinderController.getInstance().enableBlinder();
+            // NOP.
         }
     }
 
@@ -348,6 +449,9 @@ public class TriggerView extends RelativeLayout {
         super.onConfigurationChanged(newConfig);
 
         // Update UI.
+        final long startNanos = System.nanoTime();
         updateTotalUserInterface();
+        BlinderLatencyTracker.getInstance().onConfigurationRelayout(
+                (System.nanoTime() - startNanos) / 1000L);
     }
 }
@@ -1,8 +1,48 @@
 package com.fezrestia.android.util.log;
 
+import com.fezrestia.android.rapidsurfaceblinder.BuildConfig;
+
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log facility.
+ *
+ * IS_DEBUG is compile time constant from build type, so debug log blocks guarded by it are
+ * removed from release build.
+ * Events are stored into preallocated ring buffer without formatting and allocation, and
+ * formatted only on dump(). Error events are also written to logcat.
+ */
 public class Log {
     // All area total log trigger.
-    public static final boolean IS_DEBUG = true;
+    public static final boolean IS_DEBUG = BuildConfig.LOG_ENABLED;
+
+    // Event level.
+    private static final int LEVEL_DEBUG = 0;
+    private static final int LEVEL_ERROR = 1;
+
+    // Ring buffer. Size must be power of 2.
+    private static final int RING_SIZE = 4096;
+    private static final int RING_MASK = RING_SIZE - 1;
+    private static final AtomicLong mNextSequence = new AtomicLong(0);
+    // Sequence of event stored in each slot, -1 while slot is being written.
+    private static final AtomicLongArray mSequences = new AtomicLongArray(RING_SIZE);
+    private static final long[] mTimeNanos = new long[RING_SIZE];
+    private static final long[] mThreadIds = new long[RING_SIZE];
+    private static final int[] mLevels = new int[RING_SIZE];
+    private static final String[] mTags = new String[RING_SIZE];
+    private static final String[] mEvents = new String[RING_SIZE];
+    private static final long[] mValues = new long[RING_SIZE];
+    private static final boolean[] mHasValues = new boolean[RING_SIZE];
+
+    static {
+        for (int i = 0; i < RING_SIZE; ++i) {
+            mSequences.set(i, -1);
+        }
+    }
 
     /**
      * Debug log.
@@ -11,7 +51,18 @@ public class Log {
      * @param event
      */
     public static void logDebug(String tag, String event) {
-        log("DEBUG", tag, event);
+        log(LEVEL_DEBUG, tag, event, 0, false);
+    }
+
+    /**
+     * Debug log with value. Event string can be constant, without concatenation.
+     *
+     * @param tag
+     * @param event
+     * @param value
+     */
+    public static void logDebug(String tag, String event, long value) {
+        log(LEVEL_DEBUG, tag, event, value, true);
     }
 
     /**
@@ -21,15 +72,79 @@ public class Log {
      * @param event
      */
     public static void logError(String tag, String event) {
-        log("ERROR", tag, event);
+        log(LEVEL_ERROR, tag, event, 0, false);
+
+        // Errors must be visible without dump.
+        android.util.Log.e("TraceLog", "[ERROR] [" + tag + "] : " + event);
+    }
+
+    private static void log(int level, String tag, String event, long value, boolean hasValue) {
+        final long sequence = mNextSequence.getAndIncrement();
+        final int slot = (int) (sequence & RING_MASK);
+
+        mSequences.set(slot, -1);
+        mTimeNanos[slot] = System.nanoTime();
+        mThreadIds[slot] = Thread.currentThread().getId();
+        mLevels[slot] = level;
+        mTags[slot] = tag;
+        mEvents[slot] = event;
+        mValues[slot] = value;
+        mHasValues[slot] = hasValue;
+        mSequences.set(slot, sequence);
     }
 
-    private static void log(String globalTag, String localTag, String event) {
-        StringBuilder builder = new StringBuilder().append("[").append(globalTag).append("] ")
-                .append("[TIME = ").append(System.currentTimeMillis()).append("] ")
-                .append("[").append(localTag).append("]")
-                .append("[").append(Thread.currentThread().getName()).append("] ")
-                .append(": ").append(event);
-        android.util.Log.e("TraceLog", builder.toString());
+    /**
+     * Format and write buffered events, oldest first.
+     * Events overwritten during dump are skipped.
+     *
+     * @param writer
+     */
+    public static void dump(PrintWriter writer) {
+        // Thread names, resolved only here.
+        Map<Long, String> threadNames = new HashMap<Long, String>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            threadNames.put(thread.getId(), thread.getName());
+        }
+
+        final long last = mNextSequence.get();
+        final long first = Math.max(0, last - RING_SIZE);
+        writer.println("Log : [Events=" + last + "] [Buffered=" + (last - first) + "]");
+
+        for (long sequence = first; sequence < last; ++sequence) {
+            final int slot = (int) (sequence & RING_MASK);
+            if (mSequences.get(slot) != sequence) {
+                continue;
+            }
+
+            final long timeNanos = mTimeNanos[slot];
+            final long threadId = mThreadIds[slot];
+            final int level = mLevels[slot];
+            final String tag = mTags[slot];
+            final String event = mEvents[slot];
+            final long value = mValues[slot];
+            final boolean hasValue = mHasValues[slot];
+
+            if (mSequences.get(slot) != sequence) {
+                // Overwritten while read.
+                continue;
+            }
+
+            String threadName = threadNames.get(threadId);
+            if (threadName == null) {
+                threadName = "tid=" + threadId;
+            }
+
+            StringBuilder builder = new StringBuilder()
+                    .append("[").append(level == LEVEL_ERROR ? "ERROR" : "DEBUG").append("] ")
+                    .append("[TIME = ").append(timeNanos / 1000000L).append(".")
+                    .append(String.format("%03d", (timeNanos / 1000L) % 1000L)).append("] ")
+                    .append("[").append(tag).append("]")
+                    .append("[").append(threadName).append("] ")
+                    .append(": ").append(event);
+            if (hasValue) {
+                builder.append(value);
+            }
+            writer.println(builder.toString());
+        }
     }
 }
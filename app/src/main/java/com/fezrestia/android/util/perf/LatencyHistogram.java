@@ -0,0 +1,158 @@
+package com.fezrestia.android.util.perf;
+
+import java.io.PrintWriter;
+
+/**
+ * Fixed memory latency histogram in microseconds.
+ * Any other non-negative value, for example frame count, can be recorded with its unit.
+ *
+ * Values are recorded into log-linear buckets, 8 sub-buckets per power of 2.
+ * So, record() is constant time without allocation, and percentile error is within 12.5%.
+ */
+public class LatencyHistogram {
+    // Bucket layout.
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    // Name and unit.
+    private final String mName;
+    private final String mUnit;
+
+    // Buckets.
+    private final long[] mBuckets = new long[BUCKET_COUNT];
+
+    // Statistics.
+    private long mCount = 0;
+    private long mSum = 0;
+    private long mMax = 0;
+
+    /**
+     * CONSTRUCTOR.
+     *
+     * @param name
+     */
+    public LatencyHistogram(String name) {
+        this(name, "us");
+    }
+
+    /**
+     * CONSTRUCTOR.
+     *
+     * @param name
+     * @param unit Unit of recorded value, used on dump.
+     */
+    public LatencyHistogram(String name, String unit) {
+        mName = name;
+        mUnit = unit;
+    }
+
+    /**
+     * Record one latency.
+     *
+     * @param value Negative value is recorded as 0.
+     */
+    public synchronized void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        ++mBuckets[getBucketIndex(value)];
+        ++mCount;
+        mSum += value;
+        if (mMax < value) {
+            mMax = value;
+        }
+    }
+
+    private static int getBucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            // Exact.
+            return (int) value;
+        }
+        final int msb = 63 - Long.numberOfLeadingZeros(value);
+        final int sub = (int) (value >>> (msb - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (msb - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + sub;
+    }
+
+    private static long getBucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            // Exact.
+            return index;
+        }
+        final int shift = index / SUB_BUCKET_COUNT - 1;
+        final int sub = index % SUB_BUCKET_COUNT;
+        return ((long) (SUB_BUCKET_COUNT + sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Get recorded count.
+     *
+     * @return
+     */
+    public synchronized long getCount() {
+        return mCount;
+    }
+
+    /**
+     * Get latency at percentile, upper bound of bucket.
+     *
+     * @param percentile 0 to 100.
+     * @return Value in unit, or 0 if nothing recorded.
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(mCount * percentile / 100.0);
+        if (rank < 1) {
+            rank = 1;
+        }
+
+        long accumulated = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            accumulated += mBuckets[i];
+            if (rank <= accumulated) {
+                return Math.min(getBucketUpperBound(i), mMax);
+            }
+        }
+        return mMax;
+    }
+
+    /**
+     * Clear all records.
+     */
+    public synchronized void reset() {
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            mBuckets[i] = 0;
+        }
+        mCount = 0;
+        mSum = 0;
+        mMax = 0;
+    }
+
+    /**
+     * Dump statistics in one line.
+     *
+     * @param writer
+     */
+    public synchronized void dump(PrintWriter writer) {
+        writer.print(mName);
+        writer.print(" : count=");
+        writer.print(mCount);
+        writer.print(" mean=");
+        writer.print(mCount == 0 ? 0 : mSum / mCount);
+        writer.print(" p50=");
+        writer.print(getPercentile(50));
+        writer.print(" p90=");
+        writer.print(getPercentile(90));
+        writer.print(" p99=");
+        writer.print(getPercentile(99));
+        writer.print(" max=");
+        writer.print(mMax);
+        writer.print(" [");
+        writer.print(mUnit);
+        writer.println("]");
+    }
+}
@@ -0,0 +1,502 @@
+package com.fezrestia.android.util.settings;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+
+import com.fezrestia.android.util.log.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Small settings store backed by memory-mapped file.
+ *
+ * Each typed key owns one fixed slot of the file. Values are cached in memory, so reads are
+ * lock-free. File is opened, loaded and written only on writer thread. Writes are coalesced
+ * and stored into mapped pages without fsync, so written values survive process death.
+ *
+ * Reads and writes never wait for load. Load is started on construction. Before load is
+ * finished, read returns default value of key, or value written before load. Values written
+ * before load are kept over loaded ones, and listeners are notified of keys changed by load
+ * on the thread which created the store. Use runAfterLoaded() to read once after load.
+ */
+public class SettingsStore {
+    // Log tag.
+    private static final String TAG = "SettingsStore";
+
+    // File layout.
+    private static final int MAGIC = 0x53455453; // "SETS"
+    private static final int VERSION = 1;
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_VERSION = 4;
+    private static final int OFFSET_SET_MASK = 8;
+    private static final int OFFSET_VALUES = 16;
+    public static final int MAX_SLOT_COUNT = 64;
+    private static final int FILE_SIZE = OFFSET_VALUES + MAX_SLOT_COUNT * 8;
+
+    // Values, and set or not bit per slot. Unset slot returns default value of key.
+    private final AtomicLongArray mValues = new AtomicLongArray(MAX_SLOT_COUNT);
+    private final AtomicLong mSetMask = new AtomicLong(0);
+
+    // Slots not written to file yet.
+    private final AtomicLong mDirtyMask = new AtomicLong(0);
+
+    // Writer thread.
+    private static final String WRITER_THREAD_NAME = "SettingsWriter";
+    private final HandlerThread mWriterThread;
+    private final Handler mWriterHandler;
+
+    // Mapped file, only accessed on writer thread. Null if file is not available.
+    private MappedByteBuffer mBuffer = null;
+
+    // Load.
+    private volatile boolean mIsLoaded = false;
+    private final Object mLoadLock = new Object();
+    // Slots written before load, guarded by mLoadLock.
+    private long mWrittenBeforeLoadMask = 0;
+    // Loaded and migrated values, only accessed on writer thread in load.
+    private final long[] mLoadedValues = new long[MAX_SLOT_COUNT];
+    private long mLoadedMask = 0;
+    // Tasks requested before load, guarded by mLoadLock.
+    private final List<Runnable> mAfterLoadedTasks = new ArrayList<Runnable>();
+
+    // Keys accessed via this store, to notify listeners of keys changed by load.
+    private final AtomicReferenceArray<Key> mKeys = new AtomicReferenceArray<Key>(MAX_SLOT_COUNT);
+
+    // Thread to notify changes by load.
+    private final Handler mNotifyHandler;
+
+    // Listeners.
+    private final CopyOnWriteArrayList<OnSettingChangedListener> mListeners
+            = new CopyOnWriteArrayList<OnSettingChangedListener>();
+
+    /**
+     * Setting key with fixed slot.
+     */
+    public abstract static class Key {
+        private final int mSlot;
+
+        Key(int slot) {
+            if (slot < 0 || MAX_SLOT_COUNT <= slot) {
+                throw new IllegalArgumentException("Unexpected slot : " + slot);
+            }
+            mSlot = slot;
+        }
+
+        abstract long getDefaultBits();
+    }
+
+    /**
+     * Integer setting key.
+     */
+    public static class IntKey extends Key {
+        private final int mDefaultValue;
+
+        /**
+         * CONSTRUCTOR.
+         *
+         * @param slot Unique in store, 0 to MAX_SLOT_COUNT - 1.
+         * @param defaultValue
+         */
+        public IntKey(int slot, int defaultValue) {
+            super(slot);
+            mDefaultValue = defaultValue;
+        }
+
+        @Override
+        long getDefaultBits() {
+            return mDefaultValue;
+        }
+    }
+
+    /**
+     * Float setting key.
+     */
+    public static class FloatKey extends Key {
+        private final float mDefaultValue;
+
+        /**
+         * CONSTRUCTOR.
+         *
+         * @param slot Unique in store, 0 to MAX_SLOT_COUNT - 1.
+         * @param defaultValue
+         */
+        public FloatKey(int slot, float defaultValue) {
+            super(slot);
+            mDefaultValue = defaultValue;
+        }
+
+        @Override
+        long getDefaultBits() {
+            return Float.floatToRawIntBits(mDefaultValue);
+        }
+    }
+
+    /**
+     * Boolean setting key.
+     */
+    public static class BooleanKey extends Key {
+        private final boolean mDefaultValue;
+
+        /**
+         * CONSTRUCTOR.
+         *
+         * @param slot Unique in store, 0 to MAX_SLOT_COUNT - 1.
+         * @param defaultValue
+         */
+        public BooleanKey(int slot, boolean defaultValue) {
+            super(slot);
+            mDefaultValue = defaultValue;
+        }
+
+        @Override
+        long getDefaultBits() {
+            return mDefaultValue ? 1 : 0;
+        }
+    }
+
+    /**
+     * Backing file and migration. Called on writer thread.
+     */
+    public interface Callback {
+        /**
+         * Get backing file.
+         *
+         * @return
+         */
+        File getFile();
+
+        /**
+         * Backing file is newly created. Migrate settings from older storage here.
+         *
+         * @param store
+         */
+        void onCreated(SettingsStore store);
+    }
+
+    /**
+     * Setting change callback.
+     */
+    public interface OnSettingChangedListener {
+        /**
+         * Setting value is changed. Called on thread which changed setting,
+         * or thread which created store if changed by load.
+         *
+         * @param key
+         */
+        void onSettingChanged(Key key);
+    }
+
+    /**
+     * CONSTRUCTOR.
+     *
+     * @param callback
+     */
+    public SettingsStore(Callback callback) {
+        final Looper looper = Looper.myLooper();
+        if (looper != null) {
+            mNotifyHandler = new Handler(looper);
+        } else {
+            mNotifyHandler = null;
+        }
+
+        mWriterThread = new HandlerThread(WRITER_THREAD_NAME);
+        mWriterThread.start();
+        mWriterHandler = new Handler(mWriterThread.getLooper());
+        mWriterHandler.post(new LoadTask(callback));
+    }
+
+    /**
+     * Add change listener.
+     *
+     * @param listener
+     */
+    public void addOnSettingChangedListener(OnSettingChangedListener listener) {
+        mListeners.addIfAbsent(listener);
+    }
+
+    /**
+     * Remove change listener.
+     *
+     * @param listener
+     */
+    public void removeOnSettingChangedListener(OnSettingChangedListener listener) {
+        mListeners.remove(listener);
+    }
+
+    /**
+     * Settings are loaded or not. Before load, read returns default value.
+     *
+     * @return
+     */
+    public boolean isLoaded() {
+        return mIsLoaded;
+    }
+
+    /**
+     * Run task after load, on thread which created store. If already loaded,
+     * task is run synchronously.
+     *
+     * @param task
+     */
+    public void runAfterLoaded(Runnable task) {
+        if (!mIsLoaded) {
+            synchronized (mLoadLock) {
+                if (!mIsLoaded) {
+                    mAfterLoadedTasks.add(task);
+                    return;
+                }
+            }
+        }
+        task.run();
+    }
+
+    public int getInt(IntKey key) {
+        return (int) getBits(key);
+    }
+
+    public float getFloat(FloatKey key) {
+        return Float.intBitsToFloat((int) getBits(key));
+    }
+
+    public boolean getBoolean(BooleanKey key) {
+        return getBits(key) != 0;
+    }
+
+    public void putInt(IntKey key, int value) {
+        putBits(key, value);
+    }
+
+    public void putFloat(FloatKey key, float value) {
+        putBits(key, Float.floatToRawIntBits(value));
+    }
+
+    public void putBoolean(BooleanKey key, boolean value) {
+        putBits(key, value ? 1 : 0);
+    }
+
+    private long getBits(Key key) {
+        registerKey(key);
+
+        if ((mSetMask.get() & (1L << key.mSlot)) == 0) {
+            return key.getDefaultBits();
+        }
+        return mValues.get(key.mSlot);
+    }
+
+    private void putBits(Key key, long bits) {
+        registerKey(key);
+
+        final boolean isChanged;
+        if (mIsLoaded) {
+            isChanged = storeBits(key.mSlot, bits);
+        } else {
+            synchronized (mLoadLock) {
+                if (mIsLoaded) {
+                    isChanged = storeBits(key.mSlot, bits);
+                } else if (Thread.currentThread() == mWriterThread) {
+                    // Migration in load. Values written before load are kept,
+                    // and listeners are notified after load.
+                    if ((mWrittenBeforeLoadMask & (1L << key.mSlot)) == 0) {
+                        mLoadedValues[key.mSlot] = bits;
+                        mLoadedMask |= 1L << key.mSlot;
+                    }
+                    return;
+                } else {
+                    // Flush is executed after load on writer thread.
+                    mWrittenBeforeLoadMask |= 1L << key.mSlot;
+                    isChanged = storeBits(key.mSlot, bits);
+                }
+            }
+        }
+        if (!isChanged) {
+            return;
+        }
+
+        for (OnSettingChangedListener listener : mListeners) {
+            listener.onSettingChanged(key);
+        }
+    }
+
+    // Store to memory and request flush. Returns changed or not.
+    private boolean storeBits(int slot, long bits) {
+        final long bit = 1L << slot;
+        final long previous = mValues.getAndSet(slot, bits);
+        final boolean isSet = (getAndOr(mSetMask, bit) & bit) != 0;
+        if (isSet && previous == bits) {
+            // Not changed.
+            return false;
+        }
+
+        // Coalesce writes, flush is posted only by first dirty slot.
+        if (getAndOr(mDirtyMask, bit) == 0) {
+            mWriterHandler.post(mFlushTask);
+        }
+        return true;
+    }
+
+    private void registerKey(Key key) {
+        if (mKeys.get(key.mSlot) == null) {
+            mKeys.set(key.mSlot, key);
+        }
+    }
+
+    private static long getAndOr(AtomicLong target, long bits) {
+        while (true) {
+            final long current = target.get();
+            if (target.compareAndSet(current, current | bits)) {
+                return current;
+            }
+        }
+    }
+
+    private class LoadTask implements Runnable {
+        private final Callback mCallback;
+
+        LoadTask(Callback callback) {
+            mCallback = callback;
+        }
+
+        @Override
+        public void run() {
+            boolean isCreated = false;
+            try {
+                File file = mCallback.getFile();
+                RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                try {
+                    isCreated = (raf.length() != FILE_SIZE);
+                    raf.setLength(FILE_SIZE);
+                    mBuffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+                } finally {
+                    // Mapping is valid after close.
+                    raf.close();
+                }
+
+                if (!isCreated && (mBuffer.getInt(OFFSET_MAGIC) != MAGIC
+                        || mBuffer.getInt(OFFSET_VERSION) != VERSION)) {
+                    Log.logError(TAG, "Unexpected settings file, discard it.");
+                    isCreated = true;
+                }
+
+                if (isCreated) {
+                    mBuffer.putLong(OFFSET_SET_MASK, 0);
+                    mBuffer.putInt(OFFSET_VERSION, VERSION);
+                    mBuffer.putInt(OFFSET_MAGIC, MAGIC);
+                } else {
+                    for (int slot = 0; slot < MAX_SLOT_COUNT; ++slot) {
+                        mLoadedValues[slot] = mBuffer.getLong(OFFSET_VALUES + slot * 8);
+                    }
+                    mLoadedMask = mBuffer.getLong(OFFSET_SET_MASK);
+                }
+            } catch (IOException e) {
+                Log.logError(TAG, "Failed to map settings file, not persistent. " + e);
+                mBuffer = null;
+            }
+
+            if (isCreated) {
+                mCallback.onCreated(SettingsStore.this);
+            }
+
+            // Apply loaded values under values written before load.
+            long changedMask = 0;
+            final List<Runnable> afterLoadedTasks;
+            synchronized (mLoadLock) {
+                final long appliedMask = mLoadedMask & ~mWrittenBeforeLoadMask;
+                for (int slot = 0; slot < MAX_SLOT_COUNT; ++slot) {
+                    if ((appliedMask & (1L << slot)) != 0) {
+                        // Value is set before mask, reader never sees unset value.
+                        mValues.set(slot, mLoadedValues[slot]);
+                    }
+                }
+                getAndOr(mSetMask, appliedMask);
+
+                // Keys are checked after mask. Key registered later reads loaded value,
+                // key registered earlier may have read default value.
+                for (int slot = 0; slot < MAX_SLOT_COUNT; ++slot) {
+                    if ((appliedMask & (1L << slot)) != 0) {
+                        final Key key = mKeys.get(slot);
+                        if (key != null && key.getDefaultBits() != mLoadedValues[slot]) {
+                            changedMask |= 1L << slot;
+                        }
+                    }
+                }
+
+                if (isCreated && appliedMask != 0) {
+                    // Migrated values are not in file yet.
+                    getAndOr(mDirtyMask, appliedMask);
+                    mWriterHandler.post(mFlushTask);
+                }
+
+                mIsLoaded = true;
+                afterLoadedTasks = new ArrayList<Runnable>(mAfterLoadedTasks);
+                mAfterLoadedTasks.clear();
+            }
+
+            if (changedMask != 0) {
+                runOnNotifyThread(new NotifyLoadedTask(changedMask));
+            }
+            for (Runnable task : afterLoadedTasks) {
+                runOnNotifyThread(task);
+            }
+
+            if (Log.IS_DEBUG) Log.logDebug(TAG, "Loaded : [Created=" + isCreated + "]");
+        }
+    }
+
+    private void runOnNotifyThread(Runnable task) {
+        if (mNotifyHandler != null) {
+            mNotifyHandler.post(task);
+        } else {
+            task.run();
+        }
+    }
+
+    private class NotifyLoadedTask implements Runnable {
+        private final long mChangedMask;
+
+        NotifyLoadedTask(long changedMask) {
+            mChangedMask = changedMask;
+        }
+
+        @Override
+        public void run() {
+            for (int slot = 0; slot < MAX_SLOT_COUNT; ++slot) {
+                if ((mChangedMask & (1L << slot)) != 0) {
+                    final Key key = mKeys.get(slot);
+                    for (OnSettingChangedListener listener : mListeners) {
+                        listener.onSettingChanged(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private final FlushTask mFlushTask = new FlushTask();
+    private class FlushTask implements Runnable {
+        @Override
+        public void run() {
+            final long dirty = mDirtyMask.getAndSet(0);
+            if (mBuffer == null || dirty == 0) {
+                return;
+            }
+
+            for (int slot = 0; slot < MAX_SLOT_COUNT; ++slot) {
+                if ((dirty & (1L << slot)) != 0) {
+                    mBuffer.putLong(OFFSET_VALUES + slot * 8, mValues.get(slot));
+                }
+            }
+            // Mask is written after values, a slot is never set with stale value.
+            mBuffer.putLong(OFFSET_SET_MASK, mSetMask.get());
+        }
+    }
+}
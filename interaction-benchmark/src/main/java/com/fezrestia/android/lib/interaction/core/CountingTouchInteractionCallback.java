@@ -0,0 +1,83 @@
+package com.fezrestia.android.lib.interaction.core;
+
+/**
+ * Callback only counts notifications, so benchmark result is not eliminated.
+ */
+class CountingTouchInteractionCallback implements TouchInteractionCallback {
+    // Notification count.
+    int mCount = 0;
+
+    // Single touch interaction.
+    @Override
+    public void onSingleTouched(int x, int y) {
+        ++mCount;
+    }
+
+    @Override
+    public void onSingleMoved(int curX, int curY, int lastX, int lastY, int downX, int downY) {
+        ++mCount;
+    }
+
+    @Override
+    public void onSingleStopped(int curX, int curY, int lastX, int lastY, int downX, int downY) {
+        ++mCount;
+    }
+
+    @Override
+    public void onSingleReleased(int x, int y) {
+        ++mCount;
+    }
+
+    @Override
+    public void onSingleCanceled() {
+        ++mCount;
+    }
+
+    // Double touch interaction.
+    @Override
+    public void onDoubleTouched(int x0, int y0, int x1, int y1) {
+        ++mCount;
+    }
+
+    @Override
+    public void onDoubleMoved(int x0, int y0, int x1, int y1) {
+        ++mCount;
+    }
+
+    @Override
+    public void onDoubleScaled(float currentLength, float previousLength, float originalLength) {
+        ++mCount;
+    }
+
+    @Override
+    public void onDoubleRotated(float degreeVsOrigin, float degreeVsLast) {
+        ++mCount;
+    }
+
+    @Override
+    public void onSingleReleasedInDouble(int releaseX, int releaseY, int remainX, int remainY) {
+        ++mCount;
+    }
+
+    @Override
+    public void onDoubleCanceled() {
+        ++mCount;
+    }
+
+    // Over triple touch interaction.
+    @Override
+    public void onOverTripleCanceled() {
+        ++mCount;
+    }
+
+    // Tap and long press.
+    @Override
+    public void onSingleTapped(int x, int y) {
+        ++mCount;
+    }
+
+    @Override
+    public void onSingleLongPressed(int x, int y) {
+        ++mCount;
+    }
+}
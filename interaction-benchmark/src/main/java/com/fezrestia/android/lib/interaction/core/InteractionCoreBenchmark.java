@@ -0,0 +1,90 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of InteractionCore.onTouchSample() per touch event.
+ *
+ * InteractionEngine.onTouchEvent() is MotionEvent to TouchSample conversion,
+ * hit test and Android GestureDetector around this.
+ * One invocation inputs one event of the trace, and the trace is repeated.
+ * Scheduled detector tasks are executed by virtual time, and included in the cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InteractionCoreBenchmark {
+    // Interval between traces, enough to run out all scheduled tasks.
+    private static final int TRACE_INTERVAL_MILLIS = 1000;
+
+    @Param({
+            TouchTraces.TAP,
+            TouchTraces.LONG_PRESS,
+            TouchTraces.SINGLE_DRAG,
+            TouchTraces.PINCH,
+            TouchTraces.ROTATE,
+            TouchTraces.TRIPLE_CANCEL,
+            TouchTraces.PINCH_240HZ,
+            TouchTraces.ROTATE_240HZ})
+    public String trace;
+
+    @Param({"timer", "event_time"})
+    public String stopDetectionMode;
+
+    private TouchSample[] mTrace;
+    private int mIndex;
+    private long mTimeOffset;
+    private final TouchSample mSample = new TouchSample();
+
+    private VirtualTimeScheduler mScheduler;
+    private InteractionCore mCore;
+    private CountingTouchInteractionCallback mCallback;
+
+    @Setup
+    public void setup() {
+        mTrace = TouchTraces.create(trace);
+        mIndex = 0;
+        mTimeOffset = 0;
+
+        mScheduler = new VirtualTimeScheduler(0);
+        mCore = new InteractionCore(TouchTraces.TOUCH_SLOP, mScheduler, mScheduler, mScheduler);
+        mCallback = new CountingTouchInteractionCallback();
+        mCore.setCallback(mCallback, InteractionCore.INTEREST_ALL);
+        if ("event_time".equals(stopDetectionMode)) {
+            mCore.setTouchStopDetectionMode(InteractionCore.TOUCH_STOP_DETECTION_MODE_EVENT_TIME);
+        } else {
+            mCore.setTouchStopDetectionMode(InteractionCore.TOUCH_STOP_DETECTION_MODE_TIMER);
+        }
+    }
+
+    @Benchmark
+    public int onTouchSample() {
+        TouchTraces.copy(mTrace[mIndex], mSample, mTimeOffset);
+        mScheduler.advanceTo(mSample.getEventTime());
+        mCore.onTouchSample(mSample);
+
+        ++mIndex;
+        if (mIndex == mTrace.length) {
+            // Repeat trace.
+            mIndex = 0;
+            mTimeOffset = mSample.getEventTime() + TRACE_INTERVAL_MILLIS;
+        }
+
+        return mCallback.mCount;
+    }
+}
@@ -0,0 +1,117 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of TouchScaleAndRotateDetector.updateCurrentPosition() per 2-finger move event.
+ * Compared with LegacyTouchScaleAndRotateDetector, by detector parameter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScaleAndRotateDetectorBenchmark
+        implements TouchScaleAndRotateDetector.ScaleAndRotateDetectorListener {
+    @Param({TouchTraces.PINCH, TouchTraces.ROTATE})
+    public String trace;
+
+    // Detector implementation.
+    static final String DETECTOR_CURRENT = "current";
+    static final String DETECTOR_LEGACY = "legacy";
+    @Param({DETECTOR_CURRENT, DETECTOR_LEGACY})
+    public String detector;
+
+    // 2-finger move events.
+    private TouchSample[] mMoves;
+    private int mIndex;
+
+    private TouchScaleAndRotateDetector mDetector;
+    private LegacyTouchScaleAndRotateDetector mLegacyDetector;
+    private boolean mIsLegacy;
+    private int mCount;
+
+    @Setup
+    public void setup() {
+        ArrayList<TouchSample> moves = new ArrayList<TouchSample>();
+        for (TouchSample sample : TouchTraces.create(trace)) {
+            if (sample.getActionMasked() == TouchSample.ACTION_MOVE
+                    && sample.getPointerCount() == 2) {
+                moves.add(sample);
+            }
+        }
+        mMoves = moves.toArray(new TouchSample[moves.size()]);
+        mIndex = 0;
+
+        mIsLegacy = DETECTOR_LEGACY.equals(detector);
+        mDetector = new TouchScaleAndRotateDetector();
+        mDetector.setScaleAndRotateDetectorListener(this);
+        mLegacyDetector = new LegacyTouchScaleAndRotateDetector();
+        mLegacyDetector.setScaleAndRotateDetectorListener(this);
+        startDetection();
+    }
+
+    private void startDetection() {
+        TouchSample first = mMoves[0];
+        if (mIsLegacy) {
+            mLegacyDetector.startScaleAndRotateDetection(
+                    first.getX(0), first.getY(0), first.getX(1), first.getY(1));
+        } else {
+            mDetector.startScaleAndRotateDetection(
+                    first.getX(0), first.getY(0), first.getX(1), first.getY(1));
+        }
+    }
+
+    @Benchmark
+    public int updateCurrentPosition() {
+        TouchSample sample = mMoves[mIndex];
+        if (mIsLegacy) {
+            mLegacyDetector.updateCurrentPosition(
+                    sample.getX(0), sample.getY(0), sample.getX(1), sample.getY(1));
+        } else {
+            mDetector.updateCurrentPosition(
+                    sample.getX(0), sample.getY(0), sample.getX(1), sample.getY(1));
+        }
+
+        ++mIndex;
+        if (mIndex == mMoves.length) {
+            // Repeat gesture.
+            mIndex = 0;
+            if (mIsLegacy) {
+                mLegacyDetector.stopScaleAndRotateDetection();
+            } else {
+                mDetector.stopScaleAndRotateDetection();
+            }
+            startDetection();
+        }
+
+        return mCount;
+    }
+
+    @Override
+    public void onDoubleTouchScaleDetected(
+            float currentLength,
+            float previousLength,
+            float originalLength) {
+        ++mCount;
+    }
+
+    @Override
+    public void onDoubleTouchRotateDetected(float degreeVsOrigin, float degreeVsPrevious) {
+        ++mCount;
+    }
+}
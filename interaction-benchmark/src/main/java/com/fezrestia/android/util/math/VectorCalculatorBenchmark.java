@@ -0,0 +1,122 @@
+package com.fezrestia.android.util.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of VectorCalculator per call, with random vector pairs.
+ * legacy* are same calls of LegacyVectorCalculator, as baseline.
+ * *Batch process all vector pairs in one call, score is per vector pair.
+ * *Int use integer variants with same vectors rounded to int.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorCalculatorBenchmark {
+    // Vector pair count, power of 2.
+    private static final int VECTOR_COUNT = 1024;
+
+    private final float[] mX0 = new float[VECTOR_COUNT];
+    private final float[] mY0 = new float[VECTOR_COUNT];
+    private final float[] mX1 = new float[VECTOR_COUNT];
+    private final float[] mY1 = new float[VECTOR_COUNT];
+    private final int[] mIntX0 = new int[VECTOR_COUNT];
+    private final int[] mIntY0 = new int[VECTOR_COUNT];
+    private final int[] mIntX1 = new int[VECTOR_COUNT];
+    private final int[] mIntY1 = new int[VECTOR_COUNT];
+    private final boolean[] mResults = new boolean[VECTOR_COUNT];
+    private int mIndex;
+
+    @Setup
+    public void setup() {
+        // Fixed seed, to compare results between runs.
+        Random random = new Random(0);
+        for (int i = 0; i < VECTOR_COUNT; ++i) {
+            mX0[i] = random.nextFloat() * 200.0f - 100.0f;
+            mY0[i] = random.nextFloat() * 200.0f - 100.0f;
+            mX1[i] = random.nextFloat() * 200.0f - 100.0f;
+            mY1[i] = random.nextFloat() * 200.0f - 100.0f;
+            mIntX0[i] = Math.round(mX0[i]);
+            mIntY0[i] = Math.round(mY0[i]);
+            mIntX1[i] = Math.round(mX1[i]);
+            mIntY1[i] = Math.round(mY1[i]);
+        }
+        mIndex = 0;
+    }
+
+    private int nextIndex() {
+        mIndex = (mIndex + 1) & (VECTOR_COUNT - 1);
+        return mIndex;
+    }
+
+    @Benchmark
+    public float getRadianFrom2Vector() {
+        final int i = nextIndex();
+        return VectorCalculator.getRadianFrom2Vector(mX0[i], mY0[i], mX1[i], mY1[i]);
+    }
+
+    @Benchmark
+    public boolean isSquare() {
+        final int i = nextIndex();
+        return VectorCalculator.isSquare(mX0[i], mY0[i], mX1[i], mY1[i]);
+    }
+
+    @Benchmark
+    public boolean isParallel() {
+        final int i = nextIndex();
+        return VectorCalculator.isParallel(mX0[i], mY0[i], mX1[i], mY1[i]);
+    }
+
+    @Benchmark
+    public boolean isSquareInt() {
+        final int i = nextIndex();
+        return VectorCalculator.isSquare(mIntX0[i], mIntY0[i], mIntX1[i], mIntY1[i]);
+    }
+
+    @Benchmark
+    public boolean isSameDirectionInt() {
+        final int i = nextIndex();
+        return VectorCalculator.isSameDirection(mIntX0[i], mIntY0[i], mIntX1[i], mIntY1[i]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VECTOR_COUNT)
+    public boolean[] isSquareBatch() {
+        VectorCalculator.isSquare(mX0, mY0, mX1, mY1, mResults, VECTOR_COUNT);
+        return mResults;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VECTOR_COUNT)
+    public boolean[] isParallelBatch() {
+        VectorCalculator.isParallel(mX0, mY0, mX1, mY1, mResults, VECTOR_COUNT);
+        return mResults;
+    }
+
+    @Benchmark
+    public boolean legacyIsSquare() {
+        final int i = nextIndex();
+        return LegacyVectorCalculator.isSquare(mX0[i], mY0[i], mX1[i], mY1[i]);
+    }
+
+    @Benchmark
+    public boolean legacyIsParallel() {
+        final int i = nextIndex();
+        return LegacyVectorCalculator.isParallel(mX0[i], mY0[i], mX1[i], mY1[i]);
+    }
+}
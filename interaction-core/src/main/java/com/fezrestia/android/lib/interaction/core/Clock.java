@@ -0,0 +1,16 @@
+package com.fezrestia.android.lib.interaction.core;
+
+/**
+ * Time source for interaction detection.
+ *
+ * Time base must be same as event time of TouchSample.
+ * (On Android, SystemClock.uptimeMillis())
+ */
+public interface Clock {
+    /**
+     * Get current time.
+     *
+     * @return Current time in millis.
+     */
+    long uptimeMillis();
+}
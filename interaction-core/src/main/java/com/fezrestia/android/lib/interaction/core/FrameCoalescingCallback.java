@@ -0,0 +1,327 @@
+package com.fezrestia.android.lib.interaction.core;
+
+/**
+ * TouchInteractionCallback which delivers move, scale and rotate at most once per frame.
+ *
+ * Move, scale and rotate callbacks are accumulated until next frame, and delivered as one
+ * consolidated callback of each kind on onFrame(). Scale factor and rotation are kept exactly
+ * same as total of accumulated callbacks. Other callbacks are delivered immediately, after
+ * pending callbacks are flushed, so callback order is kept.
+ *
+ * Callbacks to target are called outside lock, so target can call back to engine.
+ */
+public class FrameCoalescingCallback implements TouchInteractionCallback {
+    // Target.
+    private volatile TouchInteractionCallback mTarget;
+
+    // Frame source.
+    private final FrameRequester mFrameRequester;
+    private boolean mIsFrameRequested = false;
+
+    // Pending single move. Last position is the one of first accumulated callback.
+    private boolean mHasPendingSingleMove = false;
+    private int mSingleCurX;
+    private int mSingleCurY;
+    private int mSingleLastX;
+    private int mSingleLastY;
+    private int mSingleDownX;
+    private int mSingleDownY;
+
+    // Pending double move.
+    private boolean mHasPendingDoubleMove = false;
+    private int mDoubleX0;
+    private int mDoubleY0;
+    private int mDoubleX1;
+    private int mDoubleY1;
+
+    // Pending scale. Net scale factor is product of current / previous of each callback,
+    // so previous length is scaled if callbacks are not contiguous.
+    private boolean mHasPendingScale = false;
+    private float mScaleCurrentLength;
+    private double mScalePreviousLength;
+    private float mScaleOriginalLength;
+
+    // Pending rotation. Net rotation is total of degree vs last of each callback.
+    private boolean mHasPendingRotate = false;
+    private float mRotateDegreeVsOrigin;
+    private double mNetRotateDegree;
+
+    // Callbacks merged into pending one.
+    private long mCoalescedCount = 0;
+
+    /**
+     * Frame source.
+     */
+    public interface FrameRequester {
+        /**
+         * Request onFrame() of callback on next frame.
+         * Not requested again until onFrame() is called.
+         *
+         * @param callback
+         */
+        void requestFrame(FrameCoalescingCallback callback);
+    }
+
+    /**
+     * CONSTRUCTOR.
+     *
+     * @param target
+     * @param frameRequester
+     */
+    public FrameCoalescingCallback(
+            TouchInteractionCallback target,
+            FrameRequester frameRequester) {
+        mTarget = target;
+        mFrameRequester = frameRequester;
+    }
+
+    /**
+     * Change target. Pending callbacks are delivered to new target.
+     *
+     * @param target
+     */
+    public void setTarget(TouchInteractionCallback target) {
+        mTarget = target;
+    }
+
+    /**
+     * Get count of callbacks merged into other one, since creation.
+     *
+     * @return
+     */
+    public synchronized long getCoalescedCount() {
+        return mCoalescedCount;
+    }
+
+    /**
+     * Frame is started. Deliver pending callbacks.
+     */
+    public void onFrame() {
+        synchronized (this) {
+            mIsFrameRequested = false;
+        }
+        flush();
+    }
+
+    /**
+     * Deliver pending callbacks immediately.
+     */
+    public void flush() {
+        final boolean hasSingleMove;
+        final int singleCurX;
+        final int singleCurY;
+        final int singleLastX;
+        final int singleLastY;
+        final int singleDownX;
+        final int singleDownY;
+        final boolean hasDoubleMove;
+        final int doubleX0;
+        final int doubleY0;
+        final int doubleX1;
+        final int doubleY1;
+        final boolean hasScale;
+        final float scaleCurrentLength;
+        final float scalePreviousLength;
+        final float scaleOriginalLength;
+        final boolean hasRotate;
+        final float rotateDegreeVsOrigin;
+        final float rotateDegreeVsLast;
+
+        synchronized (this) {
+            hasSingleMove = mHasPendingSingleMove;
+            singleCurX = mSingleCurX;
+            singleCurY = mSingleCurY;
+            singleLastX = mSingleLastX;
+            singleLastY = mSingleLastY;
+            singleDownX = mSingleDownX;
+            singleDownY = mSingleDownY;
+            hasDoubleMove = mHasPendingDoubleMove;
+            doubleX0 = mDoubleX0;
+            doubleY0 = mDoubleY0;
+            doubleX1 = mDoubleX1;
+            doubleY1 = mDoubleY1;
+            hasScale = mHasPendingScale;
+            scaleCurrentLength = mScaleCurrentLength;
+            scalePreviousLength = (float) mScalePreviousLength;
+            scaleOriginalLength = mScaleOriginalLength;
+            hasRotate = mHasPendingRotate;
+            rotateDegreeVsOrigin = mRotateDegreeVsOrigin;
+            rotateDegreeVsLast = (float) mNetRotateDegree;
+
+            mHasPendingSingleMove = false;
+            mHasPendingDoubleMove = false;
+            mHasPendingScale = false;
+            mHasPendingRotate = false;
+        }
+
+        // Same order as detection in one event.
+        final TouchInteractionCallback target = mTarget;
+        if (hasSingleMove) {
+            target.onSingleMoved(
+                    singleCurX,
+                    singleCurY,
+                    singleLastX,
+                    singleLastY,
+                    singleDownX,
+                    singleDownY);
+        }
+        if (hasRotate) {
+            target.onDoubleRotated(rotateDegreeVsOrigin, rotateDegreeVsLast);
+        }
+        if (hasScale) {
+            target.onDoubleScaled(scaleCurrentLength, scalePreviousLength, scaleOriginalLength);
+        }
+        if (hasDoubleMove) {
+            target.onDoubleMoved(doubleX0, doubleY0, doubleX1, doubleY1);
+        }
+    }
+
+    // Must be called with lock.
+    private void requestFrame() {
+        if (!mIsFrameRequested) {
+            mIsFrameRequested = true;
+            mFrameRequester.requestFrame(this);
+        }
+    }
+
+    // Single touch interaction.
+    @Override
+    public void onSingleTouched(int x, int y) {
+        flush();
+        mTarget.onSingleTouched(x, y);
+    }
+
+    @Override
+    public synchronized void onSingleMoved(
+            int curX,
+            int curY,
+            int lastX,
+            int lastY,
+            int downX,
+            int downY) {
+        if (mHasPendingSingleMove) {
+            ++mCoalescedCount;
+        } else {
+            mHasPendingSingleMove = true;
+            mSingleLastX = lastX;
+            mSingleLastY = lastY;
+        }
+        mSingleCurX = curX;
+        mSingleCurY = curY;
+        mSingleDownX = downX;
+        mSingleDownY = downY;
+        requestFrame();
+    }
+
+    @Override
+    public void onSingleStopped(
+            int curX,
+            int curY,
+            int lastX,
+            int lastY,
+            int downX,
+            int downY) {
+        flush();
+        mTarget.onSingleStopped(curX, curY, lastX, lastY, downX, downY);
+    }
+
+    @Override
+    public void onSingleReleased(int x, int y) {
+        flush();
+        mTarget.onSingleReleased(x, y);
+    }
+
+    @Override
+    public void onSingleCanceled() {
+        flush();
+        mTarget.onSingleCanceled();
+    }
+
+    // Double touch interaction.
+    @Override
+    public void onDoubleTouched(int x0, int y0, int x1, int y1) {
+        flush();
+        mTarget.onDoubleTouched(x0, y0, x1, y1);
+    }
+
+    @Override
+    public synchronized void onDoubleMoved(int x0, int y0, int x1, int y1) {
+        if (mHasPendingDoubleMove) {
+            ++mCoalescedCount;
+        } else {
+            mHasPendingDoubleMove = true;
+        }
+        mDoubleX0 = x0;
+        mDoubleY0 = y0;
+        mDoubleX1 = x1;
+        mDoubleY1 = y1;
+        requestFrame();
+    }
+
+    @Override
+    public synchronized void onDoubleScaled(
+            float currentLength,
+            float previousLength,
+            float originalLength) {
+        if (mHasPendingScale) {
+            ++mCoalescedCount;
+            // Ratio is exactly 1 if previous length is current length of last callback.
+            mScalePreviousLength *= (double) previousLength / mScaleCurrentLength;
+        } else {
+            mHasPendingScale = true;
+            mScalePreviousLength = previousLength;
+        }
+        mScaleCurrentLength = currentLength;
+        mScaleOriginalLength = originalLength;
+        requestFrame();
+    }
+
+    @Override
+    public synchronized void onDoubleRotated(float degreeVsOrigin, float degreeVsLast) {
+        if (mHasPendingRotate) {
+            ++mCoalescedCount;
+            mNetRotateDegree += degreeVsLast;
+        } else {
+            mHasPendingRotate = true;
+            mNetRotateDegree = degreeVsLast;
+        }
+        mRotateDegreeVsOrigin = degreeVsOrigin;
+        requestFrame();
+    }
+
+    @Override
+    public void onSingleReleasedInDouble(
+            int releaseX,
+            int releaseY,
+            int remainX,
+            int remainY) {
+        flush();
+        mTarget.onSingleReleasedInDouble(releaseX, releaseY, remainX, remainY);
+    }
+
+    @Override
+    public void onDoubleCanceled() {
+        flush();
+        mTarget.onDoubleCanceled();
+    }
+
+    // Over triple touch interaction.
+    @Override
+    public void onOverTripleCanceled() {
+        flush();
+        mTarget.onOverTripleCanceled();
+    }
+
+    // Tap and long press.
+    @Override
+    public void onSingleTapped(int x, int y) {
+        flush();
+        mTarget.onSingleTapped(x, y);
+    }
+
+    @Override
+    public void onSingleLongPressed(int x, int y) {
+        flush();
+        mTarget.onSingleLongPressed(x, y);
+    }
+}
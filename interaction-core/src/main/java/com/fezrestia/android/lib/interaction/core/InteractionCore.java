@@ -0,0 +1,1408 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import java.util.ArrayList;
+
+/**
+ * Platform independent touch interaction detector.
+ *
+ * Touch events are input as TouchSample, and time related detection is driven by
+ * injected Clock and Scheduler. So, this class can run on plain JVM.
+ *
+ * Historical samples of ACTION_MOVE are fed to detectors with current sample as one batch,
+ * and each detector notifies its result at most once per event.
+ *
+ * Each TouchSample is dispatched to ordered pipeline of TouchRecognizer. Built-in recognizers
+ * are enabled by interest mask, and other recognizers can be added before or after them.
+ */
+public class InteractionCore
+        implements
+                TouchMoveAndStopDetector.TouchStopDetectorListener,
+                TouchScaleAndRotateDetector.ScaleAndRotateDetectorListener,
+                TapAndLongPressRecognizer.TapAndLongPressListener {
+    // Time source and schedulers.
+    private final Clock mClock;
+    private Scheduler mDetectorScheduler;
+    private Scheduler mCallbackScheduler;
+
+    // Touch slop.
+    private final int mTouchSlop;
+
+    // Touch stop detector.
+    private TouchMoveAndStopDetector mSingleTouchMoveAndStopDetector = null;
+
+    // Touch stop detection mode.
+    public static final int TOUCH_STOP_DETECTION_MODE_TIMER =
+            TouchMoveAndStopDetector.STOP_DETECTION_MODE_TIMER;
+    public static final int TOUCH_STOP_DETECTION_MODE_EVENT_TIME =
+            TouchMoveAndStopDetector.STOP_DETECTION_MODE_EVENT_TIME;
+    private int mTouchStopDetectionMode = TOUCH_STOP_DETECTION_MODE_TIMER;
+
+    // Scale and Rotate detector.
+    private TouchScaleAndRotateDetector mDoubleTouchScaleAndRotateDetector = null;
+
+    // Historical and current samples of one event, reused for each event.
+    private static final int BATCH_SIZE = TouchSample.MAX_HISTORY_SIZE + 1;
+    private final int[] mSingleBatchX = new int[BATCH_SIZE];
+    private final int[] mSingleBatchY = new int[BATCH_SIZE];
+    private final long[] mSingleBatchEventTime = new long[BATCH_SIZE];
+    private final float[] mDoubleBatchX0 = new float[BATCH_SIZE];
+    private final float[] mDoubleBatchY0 = new float[BATCH_SIZE];
+    private final float[] mDoubleBatchX1 = new float[BATCH_SIZE];
+    private final float[] mDoubleBatchY1 = new float[BATCH_SIZE];
+
+    // Tap and long press recognizer.
+    private TapAndLongPressRecognizer mTapAndLongPressRecognizer = null;
+    private int mTapTimeoutMillis = TapAndLongPressRecognizer.DEFAULT_TAP_TIMEOUT_MILLIS;
+    private int mLongPressTimeoutMillis =
+            TapAndLongPressRecognizer.DEFAULT_LONG_PRESS_TIMEOUT_MILLIS;
+    private int mTapSlop;
+
+    // Dummy interaction callback.
+    private static final TouchInteractionCallback NULL_CALLBACK = new NullCallback();
+
+    // Interaction callback.
+    private TouchInteractionCallback mCallback = NULL_CALLBACK;
+
+    // Interest mask.
+    // Touch state callbacks. (touched, released, canceled, double moved, and so on)
+    public static final int INTEREST_TOUCH_STATE = 1;
+    // onSingleMoved() and onSingleStopped(), detected by touch stop detector.
+    public static final int INTEREST_SINGLE_MOVE_AND_STOP = 1 << 1;
+    // onDoubleScaled() and onDoubleRotated(), detected by scale and rotate detector.
+    public static final int INTEREST_DOUBLE_SCALE_AND_ROTATE = 1 << 2;
+    // Reserved for platform dependent extension, never used by core.
+    public static final int INTEREST_RESERVED_EXT_0 = 1 << 3;
+    public static final int INTEREST_RESERVED_EXT_1 = 1 << 4;
+    // onSingleTapped() and onSingleLongPressed(), detected by tap and long press recognizer.
+    public static final int INTEREST_TAP_AND_LONG_PRESS = 1 << 5;
+    public static final int INTEREST_ALL = 0 // Dummy
+            | INTEREST_TOUCH_STATE
+            | INTEREST_SINGLE_MOVE_AND_STOP
+            | INTEREST_DOUBLE_SCALE_AND_ROTATE
+            | INTEREST_TAP_AND_LONG_PRESS
+            ;
+    // State machine is necessary to deliver these callbacks.
+    private static final int INTEREST_STATE_MACHINE = 0 // Dummy
+            | INTEREST_TOUCH_STATE
+            | INTEREST_SINGLE_MOVE_AND_STOP
+            | INTEREST_DOUBLE_SCALE_AND_ROTATE
+            ;
+    private int mInterestMask = 0;
+
+    // Added recognizer order in pipeline.
+    public static final int RECOGNIZER_ORDER_BEFORE_BUILT_IN = 0;
+    public static final int RECOGNIZER_ORDER_AFTER_BUILT_IN = 1;
+
+    // Built-in recognizer names.
+    public static final String RECOGNIZER_SINGLE_MOVE_AND_STOP = "SingleMoveAndStop";
+    public static final String RECOGNIZER_TAP_AND_LONG_PRESS = "TapAndLongPress";
+    public static final String RECOGNIZER_STATE_MACHINE = "StateMachine";
+
+    // Recognizer and its counters.
+    private static class RecognizerSlot {
+        final TouchRecognizer mRecognizer;
+        long mSampleCount = 0;
+        long mTotalNanos = 0;
+        long mClaimCount = 0;
+
+        RecognizerSlot(TouchRecognizer recognizer) {
+            mRecognizer = recognizer;
+        }
+    }
+
+    // Added recognizers.
+    private final ArrayList<RecognizerSlot> mBeforeBuiltInSlots = new ArrayList<RecognizerSlot>();
+    private final ArrayList<RecognizerSlot> mAfterBuiltInSlots = new ArrayList<RecognizerSlot>();
+
+    // Built-in recognizers, same order as pipeline.
+    private final RecognizerSlot mSingleMoveAndStopSlot =
+            new RecognizerSlot(new SingleMoveAndStopStage());
+    private final RecognizerSlot mTapAndLongPressSlot =
+            new RecognizerSlot(new TapAndLongPressStage());
+    private final RecognizerSlot mStateMachineSlot =
+            new RecognizerSlot(new StateMachineStage());
+
+    // Current pipeline, rebuilt on change, so dispatch iterates it without allocation.
+    private RecognizerSlot[] mPipeline = new RecognizerSlot[0];
+
+    // Pipeline index of recognizer which claims current gesture, or -1.
+    private int mClaimedIndex = -1;
+
+    // Measure time of each recognizer or not.
+    private boolean mIsRecognizerTimingEnabled = false;
+
+    // Cancel sample for built-in recognizers of canceled gesture.
+    private final TouchSample mCancelSample = new TouchSample();
+
+    // This class is null object for TouchInteractionCallback.
+    private static final class NullCallback implements TouchInteractionCallback {
+        // Single touch interaction.
+        @Override
+        public void onSingleTouched(int x, int y) {
+            // NOP.
+        }
+
+        @Override
+        public void onSingleMoved(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            // NOP.
+        }
+
+        @Override
+        public void onSingleStopped(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            // NOP.
+        }
+
+        @Override
+        public void onSingleReleased(int x, int y) {
+            // NOP.
+        }
+
+        @Override
+        public void onSingleCanceled() {
+            // NOP.
+        }
+
+        // Double touch interaction.
+        @Override
+        public void onDoubleTouched(int x0, int y0, int x1, int y1) {
+            // NOP.
+        }
+
+        @Override
+        public void onDoubleMoved(int x0, int y0, int x1, int y1) {
+            // NOP.
+        }
+
+        @Override
+        public void onDoubleScaled(
+                float currentLength, float previousLength, float originalLength) {
+            // NOP.
+        }
+
+        @Override
+        public void onDoubleRotated(float degreeVsOrigin, float degreeVsLast) {
+            // NOP.
+        }
+
+        @Override
+        public void onSingleReleasedInDouble(
+                int releaseX,
+                int releaseY,
+                int remainX,
+                int remainY) {
+            // NOP.
+        }
+
+        @Override
+        public void onDoubleCanceled() {
+            // NOP.
+        }
+
+        // Over triple touch interaction.
+        @Override
+        public void onOverTripleCanceled() {
+            // NOP.
+        }
+
+        // Tap and long press.
+        @Override
+        public void onSingleTapped(int x, int y) {
+            // NOP.
+        }
+
+        @Override
+        public void onSingleLongPressed(int x, int y) {
+            // NOP.
+        }
+    }
+
+    /**
+     * CONSTRUCTOR.
+     *
+     * @param touchSlop Touch stop is detected within touch slop.
+     * @param clock Time source, same time base as TouchSample event time.
+     * @param detectorScheduler Used for periodic touch stop check
+     *         in TOUCH_STOP_DETECTION_MODE_TIMER.
+     * @param callbackScheduler Used to deliver asynchronous detection result.
+     */
+    public InteractionCore(
+            int touchSlop,
+            Clock clock,
+            Scheduler detectorScheduler,
+            Scheduler callbackScheduler) {
+        mTouchSlop = touchSlop;
+        mTapSlop = touchSlop;
+        mClock = clock;
+        mDetectorScheduler = detectorScheduler;
+        mCallbackScheduler = callbackScheduler;
+    }
+
+    /**
+     * Release all references.
+     */
+    public synchronized void release() {
+        if (mSingleTouchMoveAndStopDetector != null) {
+            mSingleTouchMoveAndStopDetector.release();
+            mSingleTouchMoveAndStopDetector = null;
+        }
+        if (mDoubleTouchScaleAndRotateDetector != null) {
+            mDoubleTouchScaleAndRotateDetector.release();
+            mDoubleTouchScaleAndRotateDetector = null;
+        }
+        if (mTapAndLongPressRecognizer != null) {
+            mTapAndLongPressRecognizer.release();
+            mTapAndLongPressRecognizer = null;
+        }
+
+        mDetectorScheduler = null;
+        mCallbackScheduler = null;
+
+        mCallback = NULL_CALLBACK;
+        mInterestMask = 0;
+
+        mBeforeBuiltInSlots.clear();
+        mAfterBuiltInSlots.clear();
+        rebuildPipeline();
+    }
+
+    /**
+     * Set callback with interest mask.
+     *
+     * Detectors which are not required by interest mask are never created nor fed.
+     *
+     * @param callback
+     * @param interestMask Combination of INTEREST_*.
+     */
+    public synchronized void setCallback(TouchInteractionCallback callback, int interestMask) {
+        if (callback != null) {
+            mCallback = callback;
+            mInterestMask = interestMask;
+        } else {
+            mCallback = NULL_CALLBACK;
+            mInterestMask = 0;
+        }
+
+        // Release detectors nobody listens to.
+        if (!isInterestedIn(INTEREST_SINGLE_MOVE_AND_STOP)
+                && mSingleTouchMoveAndStopDetector != null) {
+            mSingleTouchMoveAndStopDetector.release();
+            mSingleTouchMoveAndStopDetector = null;
+        }
+        if (!isInterestedIn(INTEREST_DOUBLE_SCALE_AND_ROTATE)
+                && mDoubleTouchScaleAndRotateDetector != null) {
+            mDoubleTouchScaleAndRotateDetector.release();
+            mDoubleTouchScaleAndRotateDetector = null;
+        }
+        if (!isInterestedIn(INTEREST_TAP_AND_LONG_PRESS)
+                && mTapAndLongPressRecognizer != null) {
+            mTapAndLongPressRecognizer.release();
+            mTapAndLongPressRecognizer = null;
+        }
+        if (!isInterestedIn(INTEREST_STATE_MACHINE) && mCurrentInteractionState != mIdle) {
+            changeTo(mIdle);
+        }
+
+        rebuildPipeline();
+    }
+
+    private boolean isInterestedIn(int interest) {
+        return (mInterestMask & interest) != 0;
+    }
+
+    /**
+     * Set touch stop detection mode.
+     *
+     * In TOUCH_STOP_DETECTION_MODE_TIMER, touch position is sampled on detector scheduler
+     * periodically, and stop is notified via callback scheduler asynchronously.
+     *
+     * In TOUCH_STOP_DETECTION_MODE_EVENT_TIME, stop is decided from TouchSample event time,
+     * and notified synchronously on input thread. Only one deferred check is posted
+     * to callback scheduler to detect fully stopped finger.
+     * Callback scheduler must be on the thread which calls onTouchSample().
+     *
+     * @param mode TOUCH_STOP_DETECTION_MODE_TIMER or TOUCH_STOP_DETECTION_MODE_EVENT_TIME
+     */
+    public synchronized void setTouchStopDetectionMode(int mode) {
+        mTouchStopDetectionMode = mode;
+        if (mSingleTouchMoveAndStopDetector != null) {
+            mSingleTouchMoveAndStopDetector.setStopDetectionMode(mode);
+        }
+    }
+
+    /**
+     * Set tap and long press thresholds.
+     *
+     * Touch released before tap timeout is tap, and touch kept for long press timeout
+     * is long press. Touch moved over tap slop is neither of them.
+     * Touch slop is used as tap slop in default.
+     *
+     * @param tapTimeoutMillis
+     * @param longPressTimeoutMillis
+     * @param tapSlop
+     */
+    public synchronized void setTapAndLongPressThresholds(
+            int tapTimeoutMillis,
+            int longPressTimeoutMillis,
+            int tapSlop) {
+        mTapTimeoutMillis = tapTimeoutMillis;
+        mLongPressTimeoutMillis = longPressTimeoutMillis;
+        mTapSlop = tapSlop;
+        if (mTapAndLongPressRecognizer != null) {
+            mTapAndLongPressRecognizer.setThresholds(
+                    tapTimeoutMillis,
+                    longPressTimeoutMillis,
+                    tapSlop);
+        }
+    }
+
+    // Interaction state IDs.
+    public static final int STATE_IDLE = 0;
+    public static final int STATE_SINGLE_DOWN = 1;
+    public static final int STATE_SINGLE_MOVE = 2;
+    public static final int STATE_SINGLE_STOP = 3;
+    public static final int STATE_DOUBLE_DOWN = 4;
+    public static final int STATE_DOUBLE_MOVE = 5;
+    public static final int STATE_OVER_TRIPLE = 6;
+    private static final int STATE_COUNT = 7;
+
+    // Interaction state interface.
+    private interface InteractionState {
+        int getStateId();
+        void handleTouchSample(TouchSample sample);
+        void handleSingleTouchMoveEvent(
+                int curX, int curY, int lastX, int lastY, int downX, int downY);
+        void handleSingleTouchStopEvent(
+                int curX, int curY, int lastX, int lastY, int downX, int downY);
+        void handleTouchScaleEvent(float currentLength, float previousLength, float originalLength);
+        void handleTouchRotateEvent(float degreeVsOrigin, float degreeVsLast);
+    }
+
+    // All states are allocated only once, and reused for each transition.
+    private final InteractionState mIdle = new Idle();
+    private final InteractionState mSingleDown = new SingleDown();
+    private final InteractionState mSingleMove = new SingleMove();
+    private final InteractionState mSingleStop = new SingleStop();
+    private final InteractionState mDoubleDown = new DoubleDown();
+    private final InteractionState mDoubleMove = new DoubleMove();
+    private final InteractionState mOverTriple = new OverTriple();
+
+    // Interaction State.
+    private InteractionState mCurrentInteractionState = mIdle;
+
+    // Transition counts, indexed by state ID of transition destination.
+    private final long[] mTransitionCounts = new long[STATE_COUNT];
+    private long mTotalTransitionCount = 0;
+
+    private synchronized void changeTo(InteractionState next) {
+        mCurrentInteractionState = next;
+
+        ++mTransitionCounts[next.getStateId()];
+        ++mTotalTransitionCount;
+    }
+
+    /**
+     * Get current interaction state ID.
+     *
+     * @return One of STATE_*.
+     */
+    public synchronized int getCurrentStateId() {
+        return mCurrentInteractionState.getStateId();
+    }
+
+    /**
+     * Get transition count to the state.
+     *
+     * @param stateId One of STATE_*.
+     * @return
+     */
+    public synchronized long getTransitionCount(int stateId) {
+        return mTransitionCounts[stateId];
+    }
+
+    /**
+     * Get total transition count.
+     *
+     * @return
+     */
+    public synchronized long getTotalTransitionCount() {
+        return mTotalTransitionCount;
+    }
+
+    /**
+     * Reset all transition counts.
+     */
+    public synchronized void resetTransitionCounts() {
+        for (int i = 0; i < STATE_COUNT; ++i) {
+            mTransitionCounts[i] = 0;
+        }
+        mTotalTransitionCount = 0;
+    }
+
+    private class Idle implements InteractionState {
+        @Override
+        public int getStateId() {
+            return STATE_IDLE;
+        }
+
+        @Override
+        public void handleTouchSample(TouchSample sample) {
+            switch (sample.getActionMasked()) {
+                case TouchSample.ACTION_DOWN:
+                    mCallback.onSingleTouched(
+                            (int) sample.getX(0), (int) sample.getY(0));
+                    changeTo(mSingleDown);
+                    return;
+
+                default:
+                    // NOP.
+                    return;
+            }
+        }
+
+        @Override
+        public void handleSingleTouchMoveEvent(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            // NOP.
+        }
+
+        @Override
+        public void handleSingleTouchStopEvent(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            // NOP.
+        }
+
+        @Override
+        public void handleTouchScaleEvent(
+                float currentLength,
+                float previousLength,
+                float originalLength) {
+            // NOP.
+        }
+
+        @Override
+        public void handleTouchRotateEvent(float degreeVsOrigin, float degreeVsLast) {
+            // NOP.
+        }
+    }
+
+    private class SingleDown implements InteractionState {
+        @Override
+        public int getStateId() {
+            return STATE_SINGLE_DOWN;
+        }
+
+        @Override
+        public void handleTouchSample(TouchSample sample) {
+            switch (sample.getActionMasked()) {
+                case TouchSample.ACTION_MOVE:
+                    // NOP. Move is detected in TouchMoveAndStopDetector.
+                    changeTo(mSingleMove);
+                    return;
+
+                case TouchSample.ACTION_UP:
+                    mCallback.onSingleReleased(
+                            (int) sample.getX(0), (int) sample.getY(0));
+                    changeTo(mIdle);
+                    return;
+
+                case TouchSample.ACTION_CANCEL:
+                    mCallback.onSingleCanceled();
+                    changeTo(mIdle);
+                    return;
+
+                case TouchSample.ACTION_POINTER_DOWN:
+                    if (sample.getPointerCount() == 1) {
+                        return;
+                    }
+                    mCallback.onDoubleTouched(
+                            (int) sample.getX(0), (int) sample.getY(0),
+                            (int) sample.getX(1), (int) sample.getY(1));
+                    changeTo(mDoubleDown);
+                    return;
+
+                default:
+                    // NOP.
+                    return;
+            }
+        }
+
+        @Override
+        public void handleSingleTouchMoveEvent(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            // NOP.
+        }
+
+        @Override
+        public void handleSingleTouchStopEvent(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            // NOP.
+        }
+
+        @Override
+        public void handleTouchScaleEvent(
+                float currentLength,
+                float previousLength,
+                float originalLength) {
+            // NOP.
+        }
+
+        @Override
+        public void handleTouchRotateEvent(
+                float degreeVsOrigin,
+                float degreeVsLast) {
+            // NOP.
+        }
+    }
+
+    private class SingleMove implements InteractionState {
+        @Override
+        public int getStateId() {
+            return STATE_SINGLE_MOVE;
+        }
+
+        @Override
+        public void handleTouchSample(TouchSample sample) {
+            switch (sample.getActionMasked()) {
+                case TouchSample.ACTION_UP:
+                    mCallback.onSingleReleased(
+                            (int) sample.getX(0), (int) sample.getY(0));
+                    changeTo(mIdle);
+                    return;
+
+                case TouchSample.ACTION_CANCEL:
+                    mCallback.onSingleCanceled();
+                    changeTo(mIdle);
+                    return;
+
+                case TouchSample.ACTION_POINTER_DOWN:
+                    if (sample.getPointerCount() == 1) {
+                        return;
+                    }
+                    mCallback.onDoubleTouched(
+                            (int) sample.getX(0), (int) sample.getY(0),
+                            (int) sample.getX(1), (int) sample.getY(1));
+                    changeTo(mDoubleDown);
+                    return;
+
+                default:
+                    // NOP.
+                    return;
+            }
+        }
+
+        @Override
+        public void handleSingleTouchMoveEvent(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            mCallback.onSingleMoved(curX, curY, lastX, lastY, downX, downY);
+        }
+
+        @Override
+        public void handleSingleTouchStopEvent(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            mCallback.onSingleStopped(curX, curY, lastX, lastY, downX, downY);
+            changeTo(mSingleStop);
+        }
+
+        @Override
+        public void handleTouchScaleEvent(
+                float currentLength,
+                float previousLength,
+                float originalLength) {
+            // NOP.
+        }
+
+        @Override
+        public void handleTouchRotateEvent(float degreeVsOrigin, float degreeVsLast) {
+            // NOP.
+        }
+    }
+
+    private class SingleStop implements InteractionState {
+        @Override
+        public int getStateId() {
+            return STATE_SINGLE_STOP;
+        }
+
+        @Override
+        public void handleTouchSample(TouchSample sample) {
+            switch (sample.getActionMasked()) {
+                case TouchSample.ACTION_UP:
+                    mCallback.onSingleReleased(
+                            (int) sample.getX(0), (int) sample.getY(0));
+                    changeTo(mIdle);
+                    return;
+
+                case TouchSample.ACTION_CANCEL:
+                    mCallback.onSingleCanceled();
+                    changeTo(mIdle);
+                    return;
+
+                case TouchSample.ACTION_POINTER_DOWN:
+                    if (sample.getPointerCount() == 1) {
+                        return;
+                    }
+                    mCallback.onDoubleTouched(
+                            (int) sample.getX(0), (int) sample.getY(0),
+                            (int) sample.getX(1), (int) sample.getY(1));
+                    changeTo(mDoubleDown);
+                    return;
+
+                default:
+                    // NOP.
+                    return;
+            }
+        }
+
+        @Override
+        public void handleSingleTouchMoveEvent(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            mCallback.onSingleMoved(curX, curY, lastX, lastY, downX, downY);
+            changeTo(mSingleMove);
+        }
+
+        @Override
+        public void handleSingleTouchStopEvent(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            // NOP.
+        }
+
+        @Override
+        public void handleTouchScaleEvent(
+                float currentLength,
+                float previousLength,
+                float originalLength) {
+            // NOP.
+        }
+
+        @Override
+        public void handleTouchRotateEvent(float degreeVsOrigin, float degreeVsLast) {
+            // NOP.
+        }
+    }
+
+    private class DoubleDown implements InteractionState {
+        @Override
+        public int getStateId() {
+            return STATE_DOUBLE_DOWN;
+        }
+
+        @Override
+        public void handleTouchSample(TouchSample sample) {
+            switch (sample.getActionMasked()) {
+                case TouchSample.ACTION_MOVE:
+                    if (sample.getPointerCount() != 2) {
+                        return;
+                    }
+                    int x0 = (int) sample.getX(0);
+                    int y0 = (int) sample.getY(0);
+                    int x1 = (int) sample.getX(1);
+                    int y1 = (int) sample.getY(1);
+                    mCallback.onDoubleMoved(x0, y0, x1, y1);
+
+                    // Start scale and rotate detection.
+                    if (isInterestedIn(INTEREST_DOUBLE_SCALE_AND_ROTATE)) {
+                        getDoubleTouchScaleAndRotateDetector().startScaleAndRotateDetection(
+                                x0, y0, x1, y1);
+                    }
+
+                    changeTo(mDoubleMove);
+                    return;
+
+                case TouchSample.ACTION_CANCEL:
+                    mCallback.onDoubleCanceled();
+                    changeTo(mIdle);
+                    return;
+
+                case TouchSample.ACTION_POINTER_DOWN:
+                    changeTo(mOverTriple);
+                    return;
+
+                case TouchSample.ACTION_POINTER_UP:
+                    if (sample.getPointerCount() == 1) {
+                        return;
+                    }
+                    int release = sample.getActionIndex();
+                    int remain;
+                    if (release == 0) {
+                        remain = 1;
+                    } else {
+                        remain = 0;
+                    }
+                    mCallback.onSingleReleasedInDouble(
+                            (int) sample.getX(release), (int) sample.getY(release),
+                            (int) sample.getX(remain), (int) sample.getY(remain));
+
+                    // Reset internal fields.
+                    if (isInterestedIn(INTEREST_SINGLE_MOVE_AND_STOP)) {
+                        getSingleTouchMoveAndStopDetector().updateCurrentAndLastPosition(
+                                (int) sample.getX(remain),
+                                (int) sample.getY(remain));
+                    }
+
+                    changeTo(mSingleMove);
+                    return;
+
+                default:
+                    // NOP.
+                    return;
+            }
+        }
+
+        @Override
+        public void handleSingleTouchMoveEvent(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            // NOP.
+        }
+
+        @Override
+        public void handleSingleTouchStopEvent(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            // NOP.
+        }
+
+        @Override
+        public void handleTouchScaleEvent(
+                float currentLength,
+                float previousLength,
+                float originalLength) {
+            // NOP.
+        }
+
+        @Override
+        public void handleTouchRotateEvent(float degreeVsOrigin, float degreeVsLast) {
+            // NOP.
+        }
+    }
+
+    private class DoubleMove implements InteractionState {
+        @Override
+        public int getStateId() {
+            return STATE_DOUBLE_MOVE;
+        }
+
+        @Override
+        public void handleTouchSample(TouchSample sample) {
+            switch (sample.getActionMasked()) {
+                case TouchSample.ACTION_MOVE:
+                    if (sample.getPointerCount() != 2) {
+                        return;
+                    }
+                    // Update scale and rotate detection.
+                    if (isInterestedIn(INTEREST_DOUBLE_SCALE_AND_ROTATE)) {
+                        final int count = fillDoubleTouchBatch(sample);
+                        getDoubleTouchScaleAndRotateDetector().updateCurrentPositions(
+                                mDoubleBatchX0, mDoubleBatchY0,
+                                mDoubleBatchX1, mDoubleBatchY1,
+                                count);
+                    }
+
+                    mCallback.onDoubleMoved(
+                            (int) sample.getX(0), (int) sample.getY(0),
+                            (int) sample.getX(1), (int) sample.getY(1));
+                    return;
+
+                case TouchSample.ACTION_CANCEL:
+                    mCallback.onDoubleCanceled();
+                    changeTo(mIdle);
+                    return;
+
+                case TouchSample.ACTION_POINTER_DOWN:
+                    // Stop touch scale and rotate detection.
+                    if (isInterestedIn(INTEREST_DOUBLE_SCALE_AND_ROTATE)) {
+                        getDoubleTouchScaleAndRotateDetector().stopScaleAndRotateDetection();
+                    }
+                    changeTo(mOverTriple);
+                    return;
+
+                case TouchSample.ACTION_POINTER_UP:
+                    // Stop touch scale and rotate detection.
+                    if (isInterestedIn(INTEREST_DOUBLE_SCALE_AND_ROTATE)) {
+                        getDoubleTouchScaleAndRotateDetector().stopScaleAndRotateDetection();
+                    }
+
+                    int release = sample.getActionIndex();
+                    int remain;
+                    if (release == 0) {
+                        remain = 1;
+                    } else {
+                        remain = 0;
+                    }
+                    mCallback.onSingleReleasedInDouble(
+                            (int) sample.getX(release), (int) sample.getY(release),
+                            (int) sample.getX(remain), (int) sample.getY(remain));
+
+                    // Reset internal fields.
+                    if (isInterestedIn(INTEREST_SINGLE_MOVE_AND_STOP)) {
+                        getSingleTouchMoveAndStopDetector().updateCurrentAndLastPosition(
+                                (int) sample.getX(remain),
+                                (int) sample.getY(remain));
+                    }
+
+                    changeTo(mSingleMove);
+                    return;
+            }
+        }
+
+        @Override
+        public void handleSingleTouchMoveEvent(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            // NOP.
+        }
+
+        @Override
+        public void handleSingleTouchStopEvent(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            // NOP.
+        }
+
+        @Override
+        public void handleTouchScaleEvent(
+                float currentLength,
+                float previousLength,
+                float originalLength) {
+            mCallback.onDoubleScaled(currentLength, previousLength, originalLength);
+        }
+
+        @Override
+        public void handleTouchRotateEvent(float degreeVsOrigin, float degreeVsLast) {
+            mCallback.onDoubleRotated(degreeVsOrigin, degreeVsLast);
+        }
+    }
+
+    private class OverTriple implements InteractionState {
+        @Override
+        public int getStateId() {
+            return STATE_OVER_TRIPLE;
+        }
+
+        @Override
+        public void handleTouchSample(TouchSample sample) {
+            switch (sample.getActionMasked()) {
+                case TouchSample.ACTION_CANCEL:
+                    mCallback.onOverTripleCanceled();
+                    changeTo(mIdle);
+                    return;
+
+                case TouchSample.ACTION_POINTER_UP:
+                    if (sample.getPointerCount() == 3) {
+                        changeTo(mDoubleDown);
+                    }
+                    return;
+
+                default:
+                    // NOP.
+                    return;
+            }
+        }
+
+        @Override
+        public void handleSingleTouchMoveEvent(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            // NOP.
+        }
+
+        @Override
+        public void handleSingleTouchStopEvent(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            // NOP.
+        }
+
+        @Override
+        public void handleTouchScaleEvent(
+                float currentLength,
+                float previousLength,
+                float originalLength) {
+            // NOP.
+        }
+
+        @Override
+        public void handleTouchRotateEvent(float degreeVsOrigin, float degreeVsLast) {
+            // NOP.
+        }
+    }
+
+    /**
+     * Input touch sample to interaction core.
+     *
+     * @param sample
+     */
+    public synchronized void onTouchSample(TouchSample sample) {
+        final int action = sample.getActionMasked();
+        if (action == TouchSample.ACTION_DOWN) {
+            // New gesture.
+            mClaimedIndex = -1;
+        }
+
+        // Recognizers after claiming one are already canceled.
+        final RecognizerSlot[] pipeline = mPipeline;
+        final int count = (mClaimedIndex < 0) ? pipeline.length : mClaimedIndex + 1;
+        for (int i = 0; i < count; ++i) {
+            if (dispatch(pipeline[i], sample) && mClaimedIndex < 0) {
+                onGestureClaimed(pipeline, i);
+                break;
+            }
+        }
+
+        if (action == TouchSample.ACTION_UP || action == TouchSample.ACTION_CANCEL) {
+            // End of gesture.
+            mClaimedIndex = -1;
+        }
+    }
+
+    private boolean dispatch(RecognizerSlot slot, TouchSample sample) {
+        ++slot.mSampleCount;
+
+        if (!mIsRecognizerTimingEnabled) {
+            return slot.mRecognizer.onTouchSample(sample);
+        }
+
+        final long startNanos = System.nanoTime();
+        final boolean isClaimed = slot.mRecognizer.onTouchSample(sample);
+        slot.mTotalNanos += System.nanoTime() - startNanos;
+        return isClaimed;
+    }
+
+    private void onGestureClaimed(RecognizerSlot[] pipeline, int claimedIndex) {
+        mClaimedIndex = claimedIndex;
+        ++pipeline[claimedIndex].mClaimCount;
+
+        for (int i = claimedIndex + 1; i < pipeline.length; ++i) {
+            pipeline[i].mRecognizer.onGestureCanceled();
+        }
+    }
+
+    private TouchSample getCancelSample() {
+        mCancelSample.set(TouchSample.ACTION_CANCEL, 0, 0, mClock.uptimeMillis());
+        return mCancelSample;
+    }
+
+    /**
+     * Add recognizer to pipeline.
+     * Recognizer already added is ignored.
+     *
+     * @param recognizer
+     * @param order RECOGNIZER_ORDER_BEFORE_BUILT_IN or RECOGNIZER_ORDER_AFTER_BUILT_IN.
+     *         Recognizers of same order are placed in added order.
+     */
+    public synchronized void addRecognizer(TouchRecognizer recognizer, int order) {
+        if (indexOf(mBeforeBuiltInSlots, recognizer) >= 0
+                || indexOf(mAfterBuiltInSlots, recognizer) >= 0) {
+            return;
+        }
+
+        RecognizerSlot slot = new RecognizerSlot(recognizer);
+        if (order == RECOGNIZER_ORDER_BEFORE_BUILT_IN) {
+            mBeforeBuiltInSlots.add(slot);
+        } else {
+            mAfterBuiltInSlots.add(slot);
+        }
+        rebuildPipeline();
+    }
+
+    /**
+     * Remove recognizer from pipeline.
+     *
+     * @param recognizer
+     */
+    public synchronized void removeRecognizer(TouchRecognizer recognizer) {
+        int index = indexOf(mBeforeBuiltInSlots, recognizer);
+        if (index >= 0) {
+            mBeforeBuiltInSlots.remove(index);
+        }
+        index = indexOf(mAfterBuiltInSlots, recognizer);
+        if (index >= 0) {
+            mAfterBuiltInSlots.remove(index);
+        }
+        rebuildPipeline();
+    }
+
+    private static int indexOf(ArrayList<RecognizerSlot> slots, TouchRecognizer recognizer) {
+        for (int i = 0; i < slots.size(); ++i) {
+            if (slots.get(i).mRecognizer == recognizer) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void rebuildPipeline() {
+        final RecognizerSlot claimedSlot = (mClaimedIndex < 0) ? null : mPipeline[mClaimedIndex];
+
+        ArrayList<RecognizerSlot> pipeline = new ArrayList<RecognizerSlot>();
+        pipeline.addAll(mBeforeBuiltInSlots);
+        if (isInterestedIn(INTEREST_SINGLE_MOVE_AND_STOP)) {
+            pipeline.add(mSingleMoveAndStopSlot);
+        }
+        if (isInterestedIn(INTEREST_TAP_AND_LONG_PRESS)) {
+            pipeline.add(mTapAndLongPressSlot);
+        }
+        if (isInterestedIn(INTEREST_STATE_MACHINE)) {
+            pipeline.add(mStateMachineSlot);
+        }
+        pipeline.addAll(mAfterBuiltInSlots);
+        mPipeline = pipeline.toArray(new RecognizerSlot[pipeline.size()]);
+
+        // Claim is kept only while claiming recognizer is in pipeline.
+        mClaimedIndex = (claimedSlot == null) ? -1 : pipeline.indexOf(claimedSlot);
+    }
+
+    /**
+     * Measure time spent in each recognizer or not. Disabled in default.
+     *
+     * @param isEnabled
+     */
+    public synchronized void setRecognizerTimingEnabled(boolean isEnabled) {
+        mIsRecognizerTimingEnabled = isEnabled;
+    }
+
+    /**
+     * Get count of recognizers in pipeline.
+     *
+     * @return
+     */
+    public synchronized int getRecognizerCount() {
+        return mPipeline.length;
+    }
+
+    /**
+     * Get name of recognizer.
+     *
+     * @param index Pipeline index.
+     * @return
+     */
+    public synchronized String getRecognizerName(int index) {
+        return mPipeline[index].mRecognizer.getName();
+    }
+
+    /**
+     * Get count of samples input to recognizer.
+     *
+     * @param index Pipeline index.
+     * @return
+     */
+    public synchronized long getRecognizerSampleCount(int index) {
+        return mPipeline[index].mSampleCount;
+    }
+
+    /**
+     * Get total time spent in recognizer, while timing is enabled.
+     *
+     * @param index Pipeline index.
+     * @return
+     */
+    public synchronized long getRecognizerTotalNanos(int index) {
+        return mPipeline[index].mTotalNanos;
+    }
+
+    /**
+     * Get count of gestures claimed by recognizer.
+     *
+     * @param index Pipeline index.
+     * @return
+     */
+    public synchronized long getRecognizerClaimCount(int index) {
+        return mPipeline[index].mClaimCount;
+    }
+
+    /**
+     * Reset counters of all recognizers in pipeline.
+     */
+    public synchronized void resetRecognizerCounters() {
+        for (RecognizerSlot slot : mPipeline) {
+            slot.mSampleCount = 0;
+            slot.mTotalNanos = 0;
+            slot.mClaimCount = 0;
+        }
+    }
+
+    // Built-in recognizers never claim gesture.
+    private class SingleMoveAndStopStage implements TouchRecognizer {
+        @Override
+        public String getName() {
+            return RECOGNIZER_SINGLE_MOVE_AND_STOP;
+        }
+
+        @Override
+        public boolean onTouchSample(TouchSample sample) {
+            updateSingleTouchMoveAndStopDetector(sample);
+            return false;
+        }
+
+        @Override
+        public void onGestureCanceled() {
+            updateSingleTouchMoveAndStopDetector(getCancelSample());
+        }
+    }
+
+    private class TapAndLongPressStage implements TouchRecognizer {
+        @Override
+        public String getName() {
+            return RECOGNIZER_TAP_AND_LONG_PRESS;
+        }
+
+        @Override
+        public boolean onTouchSample(TouchSample sample) {
+            getTapAndLongPressRecognizer().onTouchSample(sample);
+            return false;
+        }
+
+        @Override
+        public void onGestureCanceled() {
+            getTapAndLongPressRecognizer().onTouchSample(getCancelSample());
+        }
+    }
+
+    private class StateMachineStage implements TouchRecognizer {
+        @Override
+        public String getName() {
+            return RECOGNIZER_STATE_MACHINE;
+        }
+
+        @Override
+        public boolean onTouchSample(TouchSample sample) {
+            mCurrentInteractionState.handleTouchSample(sample);
+            return false;
+        }
+
+        @Override
+        public void onGestureCanceled() {
+            // Deliver canceled callback of current state.
+            mCurrentInteractionState.handleTouchSample(getCancelSample());
+        }
+    }
+
+    private void updateSingleTouchMoveAndStopDetector(TouchSample sample) {
+        // Switch.
+        switch (sample.getActionMasked()) {
+            case TouchSample.ACTION_DOWN:
+                // Start touch stop detection.
+                getSingleTouchMoveAndStopDetector().startTouchStopDetection(
+                        (int) sample.getX(0), (int) sample.getY(0), sample.getEventTime());
+                break;
+
+            case TouchSample.ACTION_MOVE:
+                if (1 == sample.getPointerCount()) {
+                    // Update touch stop detector.
+                    final int count = fillSingleTouchBatch(sample);
+                    getSingleTouchMoveAndStopDetector().updateCurrentPositions(
+                            mSingleBatchX, mSingleBatchY, mSingleBatchEventTime, count);
+                }
+                break;
+
+            case TouchSample.ACTION_UP:
+                // fall-through.
+            case TouchSample.ACTION_CANCEL:
+                // Stop touch stop detection.
+                getSingleTouchMoveAndStopDetector().stopTouchStopDetection();
+                break;
+
+            default:
+                // NOP.
+                break;
+        }
+    }
+
+    private int fillSingleTouchBatch(TouchSample sample) {
+        final int historySize = sample.getHistorySize();
+        for (int pos = 0; pos < historySize; ++pos) {
+            mSingleBatchX[pos] = (int) sample.getHistoricalX(0, pos);
+            mSingleBatchY[pos] = (int) sample.getHistoricalY(0, pos);
+            mSingleBatchEventTime[pos] = sample.getHistoricalEventTime(pos);
+        }
+        mSingleBatchX[historySize] = (int) sample.getX(0);
+        mSingleBatchY[historySize] = (int) sample.getY(0);
+        mSingleBatchEventTime[historySize] = sample.getEventTime();
+        return historySize + 1;
+    }
+
+    private int fillDoubleTouchBatch(TouchSample sample) {
+        final int historySize = sample.getHistorySize();
+        for (int pos = 0; pos < historySize; ++pos) {
+            mDoubleBatchX0[pos] = sample.getHistoricalX(0, pos);
+            mDoubleBatchY0[pos] = sample.getHistoricalY(0, pos);
+            mDoubleBatchX1[pos] = sample.getHistoricalX(1, pos);
+            mDoubleBatchY1[pos] = sample.getHistoricalY(1, pos);
+        }
+        mDoubleBatchX0[historySize] = sample.getX(0);
+        mDoubleBatchY0[historySize] = sample.getY(0);
+        mDoubleBatchX1[historySize] = sample.getX(1);
+        mDoubleBatchY1[historySize] = sample.getY(1);
+        return historySize + 1;
+    }
+
+    /**
+     * Cancel interaction detection.
+     */
+    public void cancel() {
+        changeTo(mIdle);
+    }
+
+    @Override
+    public synchronized void onSingleTouchMoveDetected(
+            final int curX,
+            final int curY,
+            final int lastX,
+            final int lastY,
+            final int downX,
+            final int downY) {
+        mCurrentInteractionState.handleSingleTouchMoveEvent(
+                curX, curY, lastX, lastY, downX, downY);
+    }
+
+    @Override
+    public synchronized void onSingleTouchStopDetected(
+            final int curX,
+            final int curY,
+            final int lastX,
+            final int lastY,
+            final int downX,
+            final int downY) {
+        mCurrentInteractionState.handleSingleTouchStopEvent(
+                curX, curY, lastX, lastY, downX, downY);
+    }
+
+    @Override
+    public synchronized void onDoubleTouchScaleDetected(
+            final float currentLength,
+            final float previousLength,
+            final float originalLength) {
+        mCurrentInteractionState.handleTouchScaleEvent(currentLength, previousLength, originalLength);
+    }
+
+    @Override
+    public synchronized void onDoubleTouchRotateDetected(
+            final float degreeVsOrigin,
+            final float degreeVsLast) {
+        mCurrentInteractionState.handleTouchRotateEvent(degreeVsOrigin, degreeVsLast);
+    }
+
+    @Override
+    public synchronized void onSingleTapDetected(int x, int y) {
+        mCallback.onSingleTapped(x, y);
+    }
+
+    @Override
+    public synchronized void onSingleLongPressDetected(int x, int y) {
+        mCallback.onSingleLongPressed(x, y);
+    }
+
+    private TouchMoveAndStopDetector getSingleTouchMoveAndStopDetector() {
+        // Create touch stop detector.
+        if (mSingleTouchMoveAndStopDetector == null) {
+            mSingleTouchMoveAndStopDetector = new TouchMoveAndStopDetector(
+                    mTouchSlop,
+                    mClock,
+                    mDetectorScheduler,
+                    mCallbackScheduler);
+            mSingleTouchMoveAndStopDetector.setTouchStopDetectorListener(this);
+            mSingleTouchMoveAndStopDetector.setStopDetectionMode(mTouchStopDetectionMode);
+        }
+        return mSingleTouchMoveAndStopDetector;
+    }
+
+    private TouchScaleAndRotateDetector getDoubleTouchScaleAndRotateDetector() {
+        // Create touch scale and rotate detector.
+        if (mDoubleTouchScaleAndRotateDetector == null) {
+            mDoubleTouchScaleAndRotateDetector = new TouchScaleAndRotateDetector();
+            mDoubleTouchScaleAndRotateDetector.setScaleAndRotateDetectorListener(this);
+        }
+        return mDoubleTouchScaleAndRotateDetector;
+    }
+
+    private TapAndLongPressRecognizer getTapAndLongPressRecognizer() {
+        // Create tap and long press recognizer.
+        if (mTapAndLongPressRecognizer == null) {
+            mTapAndLongPressRecognizer = new TapAndLongPressRecognizer(
+                    mTapSlop,
+                    mCallbackScheduler);
+            mTapAndLongPressRecognizer.setTapAndLongPressListener(this);
+            mTapAndLongPressRecognizer.setThresholds(
+                    mTapTimeoutMillis,
+                    mLongPressTimeoutMillis,
+                    mTapSlop);
+        }
+        return mTapAndLongPressRecognizer;
+    }
+}
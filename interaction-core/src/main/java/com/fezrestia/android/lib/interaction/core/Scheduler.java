@@ -0,0 +1,31 @@
+package com.fezrestia.android.lib.interaction.core;
+
+/**
+ * Task scheduler for interaction detection.
+ *
+ * Time base must be same as Clock.
+ * (On Android, Handler is used)
+ */
+public interface Scheduler {
+    /**
+     * Run task as soon as possible.
+     *
+     * @param task
+     */
+    void post(Runnable task);
+
+    /**
+     * Run task at the time.
+     *
+     * @param task
+     * @param uptimeMillis
+     */
+    void postAtTime(Runnable task, long uptimeMillis);
+
+    /**
+     * Remove all pending posts of the task.
+     *
+     * @param task
+     */
+    void remove(Runnable task);
+}
@@ -0,0 +1,213 @@
+package com.fezrestia.android.lib.interaction.core;
+
+/**
+ * This class can detect single tap and long press.
+ * And callback the result to listener.
+ *
+ * Tap is detected on ACTION_UP synchronously. Long press is detected by one task
+ * posted to callback scheduler at ACTION_DOWN, and removed on ACTION_UP.
+ *
+ * Tap timeout is exclusive, so touch released at long press timeout is never a tap
+ * even if both timeouts are same. If ACTION_UP at or after long press timeout is handled
+ * before long press task runs, long press is detected on ACTION_UP instead.
+ */
+class TapAndLongPressRecognizer {
+    // Default thresholds.
+    static final int DEFAULT_TAP_TIMEOUT_MILLIS = 500;
+    static final int DEFAULT_LONG_PRESS_TIMEOUT_MILLIS = 500;
+
+    // Thresholds.
+    private int mTapTimeoutMillis = DEFAULT_TAP_TIMEOUT_MILLIS;
+    private int mLongPressTimeoutMillis = DEFAULT_LONG_PRESS_TIMEOUT_MILLIS;
+    private int mTapSlop;
+
+    // Scheduler for long press timeout.
+    private Scheduler mCallbackScheduler;
+
+    // Long press timeout task.
+    private final LongPressTimeoutTask mLongPressTimeoutTask = new LongPressTimeoutTask();
+
+    // Tap or long press is still possible or not.
+    private boolean mIsCandidate = false;
+
+    // Down event.
+    private int mDownX = 0;
+    private int mDownY = 0;
+    private long mDownTime = 0;
+
+    /**
+     * Tap and long press detection callback.
+     */
+    interface TapAndLongPressListener {
+        /**
+         * Single tap is detected.
+         *
+         * @param x
+         * @param y
+         */
+        void onSingleTapDetected(int x, int y);
+
+        /**
+         * Single long press is detected.
+         *
+         * @param x
+         * @param y
+         */
+        void onSingleLongPressDetected(int x, int y);
+    }
+
+    private TapAndLongPressListener mListener;
+
+    /**
+     * CONSTRUCTOR.
+     *
+     * @param tapSlop
+     * @param callbackScheduler
+     */
+    TapAndLongPressRecognizer(int tapSlop, Scheduler callbackScheduler) {
+        mTapSlop = tapSlop;
+        mCallbackScheduler = callbackScheduler;
+    }
+
+    /**
+     * Release all references, and remove long press timeout task.
+     */
+    synchronized void release() {
+        cancel();
+        mListener = null;
+        mCallbackScheduler = null;
+    }
+
+    /**
+     * Set callback.
+     *
+     * @param listener
+     */
+    void setTapAndLongPressListener(TapAndLongPressListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Set thresholds.
+     *
+     * @param tapTimeoutMillis Touch released before this time is tap.
+     * @param longPressTimeoutMillis Touch kept for this time is long press.
+     * @param tapSlop Touch moved over this distance is neither tap nor long press.
+     */
+    synchronized void setThresholds(int tapTimeoutMillis, int longPressTimeoutMillis, int tapSlop) {
+        mTapTimeoutMillis = tapTimeoutMillis;
+        mLongPressTimeoutMillis = longPressTimeoutMillis;
+        mTapSlop = tapSlop;
+    }
+
+    /**
+     * Input touch sample.
+     *
+     * @param sample
+     */
+    synchronized void onTouchSample(TouchSample sample) {
+        switch (sample.getActionMasked()) {
+            case TouchSample.ACTION_DOWN:
+                cancel();
+
+                mDownX = (int) sample.getX(0);
+                mDownY = (int) sample.getY(0);
+                mDownTime = sample.getEventTime();
+                mIsCandidate = true;
+
+                if (mCallbackScheduler != null) {
+                    mCallbackScheduler.postAtTime(
+                            mLongPressTimeoutTask,
+                            mDownTime + mLongPressTimeoutMillis);
+                }
+                break;
+
+            case TouchSample.ACTION_MOVE:
+                if (!mIsCandidate) {
+                    break;
+                }
+                // Historical samples, finger may go out of slop and back in one event.
+                final int historySize = sample.getHistorySize();
+                for (int pos = 0; pos < historySize; ++pos) {
+                    if (!isInTapSlop(
+                            (int) sample.getHistoricalX(0, pos),
+                            (int) sample.getHistoricalY(0, pos))) {
+                        // Moved.
+                        cancel();
+                        return;
+                    }
+                }
+                if (!isInTapSlop((int) sample.getX(0), (int) sample.getY(0))) {
+                    // Moved.
+                    cancel();
+                }
+                break;
+
+            case TouchSample.ACTION_UP:
+                final boolean isCandidate = mIsCandidate;
+                final long duration = sample.getEventTime() - mDownTime;
+                cancel();
+                if (!isCandidate || mListener == null) {
+                    // Already moved, detected, or released.
+                    break;
+                }
+
+                if (mLongPressTimeoutMillis <= duration) {
+                    // Long press task is not run yet, and removed above.
+                    mListener.onSingleLongPressDetected(mDownX, mDownY);
+                } else if (duration < mTapTimeoutMillis
+                        && isInTapSlop((int) sample.getX(0), (int) sample.getY(0))) {
+                    mListener.onSingleTapDetected(mDownX, mDownY);
+                }
+                break;
+
+            case TouchSample.ACTION_POINTER_DOWN:
+                // fall-through.
+            case TouchSample.ACTION_CANCEL:
+                // Not single touch.
+                cancel();
+                break;
+
+            default:
+                // NOP.
+                break;
+        }
+    }
+
+    private boolean isInTapSlop(int x, int y) {
+        final int dx = x - mDownX;
+        final int dy = y - mDownY;
+        return dx * dx + dy * dy <= mTapSlop * mTapSlop;
+    }
+
+    private void cancel() {
+        mIsCandidate = false;
+        if (mCallbackScheduler != null) {
+            mCallbackScheduler.remove(mLongPressTimeoutTask);
+        }
+    }
+
+    private class LongPressTimeoutTask implements Runnable {
+        @Override
+        public void run() {
+            final TapAndLongPressListener listener;
+            final int x;
+            final int y;
+            synchronized (TapAndLongPressRecognizer.this) {
+                if (!mIsCandidate || mListener == null) {
+                    // Already released or moved.
+                    return;
+                }
+
+                // Long press is not a tap any more.
+                mIsCandidate = false;
+                listener = mListener;
+                x = mDownX;
+                y = mDownY;
+            }
+
+            // Notify out of lock, listener may lock itself.
+            listener.onSingleLongPressDetected(x, y);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.fezrestia.android.lib.interaction.core;
+
+/**
+ * Touch interaction callback based on primitive coordinates.
+ */
+public interface TouchInteractionCallback {
+    // Single touch interaction.
+    void onSingleTouched(int x, int y);
+    void onSingleMoved(int curX, int curY, int lastX, int lastY, int downX, int downY);
+    void onSingleStopped(int curX, int curY, int lastX, int lastY, int downX, int downY);
+    void onSingleReleased(int x, int y);
+    void onSingleCanceled();
+
+    // Double touch interaction.
+    void onDoubleTouched(int x0, int y0, int x1, int y1);
+    void onDoubleMoved(int x0, int y0, int x1, int y1);
+    void onDoubleScaled(float currentLength, float previousLength, float originalLength);
+    void onDoubleRotated(float degreeVsOrigin, float degreeVsLast);
+    void onSingleReleasedInDouble(int releaseX, int releaseY, int remainX, int remainY);
+    void onDoubleCanceled();
+
+    // Over triple touch interaction.
+    void onOverTripleCanceled();
+
+    // Tap and long press.
+    void onSingleTapped(int x, int y);
+    void onSingleLongPressed(int x, int y);
+}
@@ -0,0 +1,637 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fezrestia.android.util.math.VectorCalculator;
+
+/**
+ * This class can detect primary touch position is moved or stopped.
+ * And callback the result to listener.
+ *
+ * Positions of one event, including historical samples, are processed as one batch.
+ * Move is notified at most once per batch.
+ */
+class TouchMoveAndStopDetector {
+    // Time source.
+    private final Clock mClock;
+
+    // Scheduler for periodic touch stop detection.
+    private Scheduler mTouchStopDetectorScheduler;
+
+    // Timer task
+    private final TouchStopDetectorTimerTask mTouchStopDetectorTimerTask
+            = new TouchStopDetectorTimerTask();
+
+    // Touch stop detection is active or not.
+    private boolean mIsTouchStopDetectionActive = false;
+
+    // Next check time based on Clock.
+    private long mNextCheckUptimeMillis = 0;
+
+    // Touch stop timer interval.
+    private int TOUCH_STOP_DETECTION_TIMER_INTERVAL = 200;
+
+    // Stop detection mode.
+    // Timer mode samples touch position periodically on detector scheduler.
+    static final int STOP_DETECTION_MODE_TIMER = 0;
+    // Event time mode evaluates the same periodic check points on input thread,
+    // based on event time. Deferred check is posted to callback scheduler
+    // only to detect fully stopped finger, so callback scheduler must be on input thread.
+    static final int STOP_DETECTION_MODE_EVENT_TIME = 1;
+    private int mStopDetectionMode = STOP_DETECTION_MODE_TIMER;
+
+    // Deferred check task for event time mode.
+    private final DeferredTouchStopCheckTask mDeferredTouchStopCheckTask
+            = new DeferredTouchStopCheckTask();
+    private boolean mIsDeferredCheckPending = false;
+
+    // Listener.
+    private TouchStopDetectorListener mListener;
+
+    // Scheduler for listener event.
+    private Scheduler mCallbackScheduler = null;
+
+    // Position and Direction.
+    // Down, current and previous position are owned by input thread,
+    // and published to detector thread via mSharedTouchPos.
+    private int mDownX = 0;
+    private int mDownY = 0;
+    private int mCurrentTouchX = 0;
+    private int mCurrentTouchY = 0;
+    private int mPreviousTouchX = 0;
+    private int mPreviousTouchY = 0;
+    private final TouchPositionSeqLock mSharedTouchPos = new TouchPositionSeqLock();
+    private final int[] mCheckSnapshot = new int[TouchPositionSeqLock.SNAPSHOT_SIZE];
+
+    // Touch slop area center, packed x/y. Updated by both input thread and detector thread.
+    private final AtomicLong mTouchSlopAreaCenterPos = new AtomicLong(0);
+    private int mLatestCheckedX = 0;
+    private int mLatestCheckedY = 0;
+    private int mLatestCheckedTrackVecX = 0;
+    private int mLatestCheckedTrackVecY = 0;
+
+    // Touch slop distance.
+    private final int mTouchSlop;
+
+    // Finger is already moved or not.
+    private volatile boolean mIsFingerAlreadyMoved = false;
+
+    // Stop notification task for STOP_DETECTION_MODE_TIMER, reused for each stop.
+    private final NotifyOnSingleTouchStopDetectedTask mNotifyOnSingleTouchStopDetectedTask
+            = new NotifyOnSingleTouchStopDetectedTask();
+
+    /**
+     * Current, previous and down touch position shared between threads.
+     *
+     * This is sequence lock for single writer.
+     * Writer never blocks, and reader retries until it gets consistent snapshot.
+     */
+    static class TouchPositionSeqLock {
+        // Snapshot array layout.
+        static final int SNAPSHOT_CUR_X = 0;
+        static final int SNAPSHOT_CUR_Y = 1;
+        static final int SNAPSHOT_PREV_X = 2;
+        static final int SNAPSHOT_PREV_Y = 3;
+        static final int SNAPSHOT_DOWN_X = 4;
+        static final int SNAPSHOT_DOWN_Y = 5;
+        static final int SNAPSHOT_SIZE = 6;
+
+        // Odd while writing.
+        private volatile int mSequence = 0;
+
+        private volatile int mCurX = 0;
+        private volatile int mCurY = 0;
+        private volatile int mPrevX = 0;
+        private volatile int mPrevY = 0;
+        private volatile int mDownX = 0;
+        private volatile int mDownY = 0;
+
+        /**
+         * Publish position. Must be called only from one writer thread at a time.
+         *
+         * @param curX
+         * @param curY
+         * @param prevX
+         * @param prevY
+         * @param downX
+         * @param downY
+         */
+        void write(int curX, int curY, int prevX, int prevY, int downX, int downY) {
+            final int seq = mSequence;
+            mSequence = seq + 1;
+            mCurX = curX;
+            mCurY = curY;
+            mPrevX = prevX;
+            mPrevY = prevY;
+            mDownX = downX;
+            mDownY = downY;
+            mSequence = seq + 2;
+        }
+
+        /**
+         * Read consistent snapshot.
+         *
+         * @param snapshot Array with SNAPSHOT_SIZE length.
+         */
+        void read(int[] snapshot) {
+            int seqBefore;
+            int seqAfter;
+            do {
+                seqBefore = mSequence;
+                snapshot[SNAPSHOT_CUR_X] = mCurX;
+                snapshot[SNAPSHOT_CUR_Y] = mCurY;
+                snapshot[SNAPSHOT_PREV_X] = mPrevX;
+                snapshot[SNAPSHOT_PREV_Y] = mPrevY;
+                snapshot[SNAPSHOT_DOWN_X] = mDownX;
+                snapshot[SNAPSHOT_DOWN_Y] = mDownY;
+                seqAfter = mSequence;
+            } while (((seqBefore & 1) != 0) || (seqBefore != seqAfter));
+        }
+    }
+
+    private static long packPosition(int x, int y) {
+        return (((long) x) << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private static int unpackX(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    private static int unpackY(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * CONSTRUCTOR.
+     *
+     * @param touchSlop
+     * @param clock
+     * @param detectorScheduler Used for periodic check in STOP_DETECTION_MODE_TIMER.
+     * @param callbackScheduler
+     */
+    TouchMoveAndStopDetector(
+            int touchSlop,
+            Clock clock,
+            Scheduler detectorScheduler,
+            Scheduler callbackScheduler) {
+        mTouchSlop = touchSlop;
+        mClock = clock;
+        mTouchStopDetectorScheduler = detectorScheduler;
+        mCallbackScheduler = callbackScheduler;
+    }
+
+    /**
+     * Release all references, and stop detection timer task immediately.
+     */
+    synchronized void release() {
+        killTimer();
+        mListener = null;
+        mCallbackScheduler = null;
+        mTouchStopDetectorScheduler = null;
+    }
+
+    /**
+     * Touch and stop detection callback.
+     */
+    interface TouchStopDetectorListener {
+        /**
+         * Single touch move is detected.
+         *
+         * @param curX
+         * @param curY
+         * @param lastX
+         * @param lastY
+         * @param downX
+         * @param downY
+         */
+        void onSingleTouchMoveDetected(
+                final int curX,
+                final int curY,
+                final int lastX,
+                final int lastY,
+                final int downX,
+                final int downY);
+
+        /**
+         * Single touch stop is detected.
+         *
+         * @param curX
+         * @param curY
+         * @param lastX
+         * @param lastY
+         * @param downX
+         * @param downY
+         */
+        void onSingleTouchStopDetected(
+                final int curX,
+                final int curY,
+                final int lastX,
+                final int lastY,
+                final int downX,
+                final int downY);
+    }
+
+    /**
+     * Set callback.
+     *
+     * @param listener
+     */
+    void setTouchStopDetectorListener(TouchStopDetectorListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Set stop detection mode.
+     *
+     * @param mode STOP_DETECTION_MODE_TIMER or STOP_DETECTION_MODE_EVENT_TIME
+     */
+    synchronized void setStopDetectionMode(int mode) {
+        killTimer();
+        mStopDetectionMode = mode;
+    }
+
+    /**
+     * Start detection.
+     *
+     * @param downX
+     * @param downY
+     * @param downTime Event time of ACTION_DOWN based on Clock.
+     */
+    synchronized void startTouchStopDetection(int downX, int downY, long downTime) {
+        // Store down position.
+        mDownX = downX;
+        mDownY = downY;
+        mPreviousTouchX = downX;
+        mPreviousTouchY = downY;
+        publishTouchPosition();
+
+        // Update touch slop area center position.
+        mTouchSlopAreaCenterPos.set(packPosition(downX, downY));
+
+        // Update flag.
+        mIsFingerAlreadyMoved = false;
+
+        killTimer();
+
+        if (mStopDetectionMode == STOP_DETECTION_MODE_EVENT_TIME) {
+            // Check points are evaluated on each event.
+            // Deferred check is not necessary until finger is moved.
+            mIsTouchStopDetectionActive = true;
+            mNextCheckUptimeMillis = downTime + TOUCH_STOP_DETECTION_TIMER_INTERVAL;
+            return;
+        }
+
+        // Start periodic task on detector scheduler.
+        if (mTouchStopDetectorScheduler != null) {
+            mIsTouchStopDetectionActive = true;
+            mNextCheckUptimeMillis =
+                    mClock.uptimeMillis() + TOUCH_STOP_DETECTION_TIMER_INTERVAL;
+            mTouchStopDetectorScheduler.postAtTime(
+                    mTouchStopDetectorTimerTask,
+                    mNextCheckUptimeMillis);
+        }
+    }
+
+    /**
+     * Update current touch position.
+     *
+     * @param curX
+     * @param curY
+     * @param eventTime Event time based on Clock.
+     */
+    void updateCurrentPosition(int curX, int curY, long eventTime) {
+        final int lastX = mCurrentTouchX;
+        final int lastY = mCurrentTouchY;
+
+        final boolean isMoved = step(curX, curY, eventTime);
+
+        notifyBatch(isMoved, lastX, lastY);
+    }
+
+    /**
+     * Update current touch position with historical samples of one event.
+     *
+     * In STOP_DETECTION_MODE_EVENT_TIME, check points are evaluated with position and time
+     * of each sample, so stop is detected at the actual sample rate of touch panel.
+     *
+     * @param curX Oldest first, current position at count - 1.
+     * @param curY
+     * @param eventTime Event time based on Clock.
+     * @param count
+     */
+    void updateCurrentPositions(int[] curX, int[] curY, long[] eventTime, int count) {
+        final int lastX = mCurrentTouchX;
+        final int lastY = mCurrentTouchY;
+
+        boolean isMoved = false;
+        for (int i = 0; i < count; ++i) {
+            if (step(curX[i], curY[i], eventTime[i])) {
+                isMoved = true;
+            } else if (!mIsFingerAlreadyMoved) {
+                // Stop is detected in batch, move before stop is not notified.
+                isMoved = false;
+            }
+        }
+
+        notifyBatch(isMoved, lastX, lastY);
+    }
+
+    private boolean step(int curX, int curY, long eventTime) {
+        if (mStopDetectionMode == STOP_DETECTION_MODE_EVENT_TIME) {
+            // Evaluate check points passed before this sample with last position.
+            evaluatePassedCheckPoints(eventTime);
+        }
+
+        // Store last position.
+        mPreviousTouchX = mCurrentTouchX;
+        mPreviousTouchY = mCurrentTouchY;
+        // Set current position.
+        mCurrentTouchX = curX;
+        mCurrentTouchY = curY;
+        publishTouchPosition();
+
+        // Check finger is moved or not.
+        final long slopAreaCenter = mTouchSlopAreaCenterPos.get();
+        int difX = mCurrentTouchX - unpackX(slopAreaCenter);
+        int difY = mCurrentTouchY - unpackY(slopAreaCenter);
+        if ((mTouchSlop * mTouchSlop) < (difX * difX + difY * difY)) {
+            // Finger is moved.
+            mIsFingerAlreadyMoved = true;
+            return true;
+        }
+        return false;
+    }
+
+    private void notifyBatch(boolean isMoved, int lastX, int lastY) {
+        // Send event.
+        if (isMoved && mListener != null) {
+            mListener.onSingleTouchMoveDetected(
+                    mCurrentTouchX,
+                    mCurrentTouchY,
+                    lastX,
+                    lastY,
+                    mDownX,
+                    mDownY);
+        }
+
+        if (mStopDetectionMode == STOP_DETECTION_MODE_EVENT_TIME) {
+            requestDeferredCheck();
+        }
+    }
+
+    private void evaluatePassedCheckPoints(long uptimeMillis) {
+        if (!mIsTouchStopDetectionActive || uptimeMillis < mNextCheckUptimeMillis) {
+            // No check point is passed.
+            return;
+        }
+
+        long passedCount =
+                (uptimeMillis - mNextCheckUptimeMillis) / TOUCH_STOP_DETECTION_TIMER_INTERVAL + 1;
+
+        // Position is not changed between passed check points.
+        // After 2nd check, finger is already detected as stopped or not moved,
+        // so remaining checks have no effect.
+        checkTouchStop();
+        if (2 <= passedCount) {
+            checkTouchStop();
+        }
+
+        mNextCheckUptimeMillis += passedCount * TOUCH_STOP_DETECTION_TIMER_INTERVAL;
+    }
+
+    private void requestDeferredCheck() {
+        if (mIsDeferredCheckPending
+                || !mIsTouchStopDetectionActive
+                || !mIsFingerAlreadyMoved
+                || mCallbackScheduler == null) {
+            // Not necessary, or already requested.
+            return;
+        }
+
+        mIsDeferredCheckPending = true;
+        mCallbackScheduler.postAtTime(mDeferredTouchStopCheckTask, mNextCheckUptimeMillis);
+    }
+
+    private class DeferredTouchStopCheckTask implements Runnable {
+        @Override
+        public void run() {
+            synchronized (TouchMoveAndStopDetector.this) {
+                mIsDeferredCheckPending = false;
+
+                // No event after last one. Finger is fully stopped or moved very slowly.
+                evaluatePassedCheckPoints(mClock.uptimeMillis());
+
+                // Next check point, if finger is still considered as moving.
+                requestDeferredCheck();
+            }
+        }
+    }
+
+    /**
+     * Update current and last position.
+     *
+     * @param curX
+     * @param curY
+     */
+    void updateCurrentAndLastPosition(int curX, int curY) {
+        mPreviousTouchX = curX;
+        mPreviousTouchY = curY;
+        mCurrentTouchX = curX;
+        mCurrentTouchY = curY;
+        publishTouchPosition();
+    }
+
+    private void publishTouchPosition() {
+        mSharedTouchPos.write(
+                mCurrentTouchX,
+                mCurrentTouchY,
+                mPreviousTouchX,
+                mPreviousTouchY,
+                mDownX,
+                mDownY);
+    }
+
+    /**
+     * Stop detection.
+     */
+    synchronized void stopTouchStopDetection() {
+        // Release timer and task.
+        killTimer();
+
+        // Reset position.
+        mCurrentTouchX = 0;
+        mCurrentTouchY = 0;
+        mPreviousTouchX = 0;
+        mPreviousTouchY = 0;
+        publishTouchPosition();
+        mLatestCheckedX = 0;
+        mLatestCheckedY = 0;
+        mLatestCheckedTrackVecX = 0;
+        mLatestCheckedTrackVecY = 0;
+    }
+
+    private void killTimer() {
+        // Cancel task.
+        mIsTouchStopDetectionActive = false;
+        if (mTouchStopDetectorScheduler != null) {
+            mTouchStopDetectorScheduler.remove(mTouchStopDetectorTimerTask);
+        }
+        if (mCallbackScheduler != null) {
+            mCallbackScheduler.remove(mDeferredTouchStopCheckTask);
+        }
+        mIsDeferredCheckPending = false;
+    }
+
+    private class TouchStopDetectorTimerTask implements Runnable {
+        @Override
+        public void run() {
+            synchronized (TouchMoveAndStopDetector.this) {
+                if (!mIsTouchStopDetectionActive
+                        || mClock.uptimeMillis() < mNextCheckUptimeMillis) {
+                    // Canceled, or stale task of previous detection. Wait for next.
+                    return;
+                }
+
+                // Check.
+                checkTouchStop();
+
+                // Schedule next at fixed rate.
+                mNextCheckUptimeMillis += TOUCH_STOP_DETECTION_TIMER_INTERVAL;
+                mTouchStopDetectorScheduler.remove(this);
+                mTouchStopDetectorScheduler.postAtTime(this, mNextCheckUptimeMillis);
+            }
+        }
+    }
+
+    private void checkTouchStop() {
+        // Get consistent position published by input thread.
+        mSharedTouchPos.read(mCheckSnapshot);
+        final int curX = mCheckSnapshot[TouchPositionSeqLock.SNAPSHOT_CUR_X];
+        final int curY = mCheckSnapshot[TouchPositionSeqLock.SNAPSHOT_CUR_Y];
+        final int prevX = mCheckSnapshot[TouchPositionSeqLock.SNAPSHOT_PREV_X];
+        final int prevY = mCheckSnapshot[TouchPositionSeqLock.SNAPSHOT_PREV_Y];
+        final int downX = mCheckSnapshot[TouchPositionSeqLock.SNAPSHOT_DOWN_X];
+        final int downY = mCheckSnapshot[TouchPositionSeqLock.SNAPSHOT_DOWN_Y];
+
+        // Calculate difference and direction, exactly in integer.
+        int difX = curX - mLatestCheckedX;
+        int difY = curY - mLatestCheckedY;
+        boolean isSameDirection = VectorCalculator.isSameDirection(
+                difX,
+                difY,
+                mLatestCheckedTrackVecX,
+                mLatestCheckedTrackVecY);
+
+        // Update cached values.
+        updateLastCheckedParameters(curX, curY, difX, difY);
+
+        // Check finger is not moved yet, or not.
+        if (!mIsFingerAlreadyMoved) {
+            // This means, this task is executed after ACTION_DOWN or onTouchStop.
+            // Store current parameters.
+            // NOP.
+            return;
+        }
+
+        // Check finger is moved or not.
+        if ((difX == 0) && (difY == 0)) {
+            // Finger is stopped.
+            onTouchStopDetected(curX, curY, prevX, prevY, downX, downY);
+            return;
+        }
+
+        // Check touch event is in touch slop area or not.
+        if ((difX * difX + difY * difY) < (mTouchSlop * mTouchSlop)) {
+
+            // Calculate vector direction.
+            if (isSameDirection) {
+                // Consider finger is moved very slowly. Try next.
+                // NOP.
+                return;
+            }
+
+            // Detect touch stop.
+            onTouchStopDetected(curX, curY, prevX, prevY, downX, downY);
+        }
+    }
+
+    private void updateLastCheckedParameters(
+            int previousX,
+            int previousY,
+            int currentTrackX,
+            int currentTrackY) {
+        mLatestCheckedX = previousX;
+        mLatestCheckedY = previousY;
+        mLatestCheckedTrackVecX = currentTrackX;
+        mLatestCheckedTrackVecY = currentTrackY;
+    }
+
+    private void onTouchStopDetected(
+            int curX,
+            int curY,
+            int prevX,
+            int prevY,
+            int downX,
+            int downY) {
+        // Get down flag, to reset touch slop area.
+        mIsFingerAlreadyMoved = false;
+        mTouchSlopAreaCenterPos.set(packPosition(curX, curY));
+
+        if (mStopDetectionMode == STOP_DETECTION_MODE_EVENT_TIME) {
+            // Already on input thread.
+            if (mListener != null) {
+                mListener.onSingleTouchStopDetected(curX, curY, prevX, prevY, downX, downY);
+            }
+            return;
+        }
+
+        // Post to callback thread with coordinates at detection time.
+        // Stop is detected at most once per timer interval, so the task is not pending usually.
+        // If it is, only latest stop is notified.
+        if (mCallbackScheduler != null) {
+            mNotifyOnSingleTouchStopDetectedTask.set(curX, curY, prevX, prevY, downX, downY);
+            mCallbackScheduler.remove(mNotifyOnSingleTouchStopDetectedTask);
+            mCallbackScheduler.post(mNotifyOnSingleTouchStopDetectedTask);
+        }
+    }
+
+    private class NotifyOnSingleTouchStopDetectedTask implements Runnable {
+        // Written on detector thread, read on callback thread.
+        private final TouchPositionSeqLock mPosition = new TouchPositionSeqLock();
+        private final int[] mSnapshot = new int[TouchPositionSeqLock.SNAPSHOT_SIZE];
+
+        /**
+         * Set coordinates to be notified. Must be called on detector thread.
+         *
+         * @param curX
+         * @param curY
+         * @param lastX
+         * @param lastY
+         * @param downX
+         * @param downY
+         */
+        void set(
+                int curX,
+                int curY,
+                int lastX,
+                int lastY,
+                int downX,
+                int downY) {
+            mPosition.write(curX, curY, lastX, lastY, downX, downY);
+        }
+
+        @Override
+        public void run() {
+            mPosition.read(mSnapshot);
+            if (mListener != null) {
+                mListener.onSingleTouchStopDetected(
+                        mSnapshot[TouchPositionSeqLock.SNAPSHOT_CUR_X],
+                        mSnapshot[TouchPositionSeqLock.SNAPSHOT_CUR_Y],
+                        mSnapshot[TouchPositionSeqLock.SNAPSHOT_PREV_X],
+                        mSnapshot[TouchPositionSeqLock.SNAPSHOT_PREV_Y],
+                        mSnapshot[TouchPositionSeqLock.SNAPSHOT_DOWN_X],
+                        mSnapshot[TouchPositionSeqLock.SNAPSHOT_DOWN_Y]);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.fezrestia.android.lib.interaction.core;
+
+/**
+ * Gesture recognizer in recognizer pipeline of InteractionCore.
+ *
+ * Recognizers receive the same TouchSample in pipeline order. A recognizer can claim gesture,
+ * then recognizers after it are canceled and receive no sample until end of gesture.
+ * Gesture starts at ACTION_DOWN, and ends at ACTION_UP or ACTION_CANCEL.
+ */
+public interface TouchRecognizer {
+    /**
+     * Get name, used for timing counters.
+     *
+     * @return
+     */
+    String getName();
+
+    /**
+     * Input touch sample. Sample is reused, so do not keep reference.
+     *
+     * @param sample
+     * @return Claim current gesture or not.
+     */
+    boolean onTouchSample(TouchSample sample);
+
+    /**
+     * Current gesture is claimed by recognizer before this one. Cancel detection.
+     */
+    void onGestureCanceled();
+}
@@ -0,0 +1,168 @@
+package com.fezrestia.android.lib.interaction.core;
+
+/**
+ * Platform independent snapshot of one touch event.
+ *
+ * Instance is reused for each event by event source, so do not keep reference.
+ *
+ * ACTION_MOVE may have historical samples batched since last event, oldest first,
+ * same as android.view.MotionEvent. Coordinates of current sample are not included in history.
+ */
+public class TouchSample {
+    // Actions. Values are same as android.view.MotionEvent.
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+    public static final int ACTION_OUTSIDE = 4;
+    public static final int ACTION_POINTER_DOWN = 5;
+    public static final int ACTION_POINTER_UP = 6;
+
+    // Max pointer count of which coordinates are stored.
+    public static final int MAX_POINTER_COUNT = 16;
+
+    // Max historical sample count and pointer count of which history is stored.
+    // Detectors use history of first 2 pointers only.
+    public static final int MAX_HISTORY_SIZE = 32;
+    public static final int MAX_HISTORICAL_POINTER_COUNT = 2;
+
+    // Action.
+    private int mActionMasked = ACTION_CANCEL;
+    private int mActionIndex = 0;
+
+    // Pointers.
+    private int mPointerCount = 0;
+    private final float[] mX = new float[MAX_POINTER_COUNT];
+    private final float[] mY = new float[MAX_POINTER_COUNT];
+
+    // Event time in millis, same time base as Clock.
+    private long mEventTime = 0;
+
+    // Historical samples. Coordinates are stored per pointer, in MAX_HISTORY_SIZE stride.
+    private static final int HISTORY_BUFFER_SIZE = MAX_HISTORICAL_POINTER_COUNT * MAX_HISTORY_SIZE;
+    private int mHistorySize = 0;
+    private final float[] mHistoricalX = new float[HISTORY_BUFFER_SIZE];
+    private final float[] mHistoricalY = new float[HISTORY_BUFFER_SIZE];
+    private final long[] mHistoricalEventTime = new long[MAX_HISTORY_SIZE];
+
+    /**
+     * Set action and event time.
+     * Coordinates must be set by setPointer() for each pointer.
+     * History is cleared, and must be set by setHistorySize() after this if available.
+     *
+     * @param actionMasked One of ACTION_*.
+     * @param actionIndex Pointer index of ACTION_POINTER_DOWN/UP.
+     * @param pointerCount Total pointer count, may be larger than MAX_POINTER_COUNT.
+     * @param eventTime
+     */
+    public void set(int actionMasked, int actionIndex, int pointerCount, long eventTime) {
+        mActionMasked = actionMasked;
+        mActionIndex = actionIndex;
+        mPointerCount = pointerCount;
+        mEventTime = eventTime;
+        mHistorySize = 0;
+    }
+
+    /**
+     * Set event time only. Other values and history are kept.
+     *
+     * @param eventTime
+     */
+    public void setEventTime(long eventTime) {
+        mEventTime = eventTime;
+    }
+
+    /**
+     * Set historical sample count.
+     * Each sample must be set by setHistoricalEventTime() and setHistoricalPointer().
+     *
+     * @param historySize 0 to MAX_HISTORY_SIZE.
+     */
+    public void setHistorySize(int historySize) {
+        if (historySize < 0 || MAX_HISTORY_SIZE < historySize) {
+            throw new IllegalArgumentException("Unexpected history size : " + historySize);
+        }
+        mHistorySize = historySize;
+    }
+
+    /**
+     * Set event time of historical sample.
+     *
+     * @param pos Historical sample index, oldest is 0.
+     * @param eventTime
+     */
+    public void setHistoricalEventTime(int pos, long eventTime) {
+        mHistoricalEventTime[pos] = eventTime;
+    }
+
+    /**
+     * Set pointer coordinates of historical sample.
+     * Pointer over MAX_HISTORICAL_POINTER_COUNT is ignored.
+     *
+     * @param pointerIndex
+     * @param pos Historical sample index, oldest is 0.
+     * @param x
+     * @param y
+     */
+    public void setHistoricalPointer(int pointerIndex, int pos, float x, float y) {
+        if (pointerIndex < MAX_HISTORICAL_POINTER_COUNT) {
+            mHistoricalX[pointerIndex * MAX_HISTORY_SIZE + pos] = x;
+            mHistoricalY[pointerIndex * MAX_HISTORY_SIZE + pos] = y;
+        }
+    }
+
+    /**
+     * Set pointer coordinates.
+     * Pointer over MAX_POINTER_COUNT is ignored.
+     *
+     * @param pointerIndex
+     * @param x
+     * @param y
+     */
+    public void setPointer(int pointerIndex, float x, float y) {
+        if (pointerIndex < MAX_POINTER_COUNT) {
+            mX[pointerIndex] = x;
+            mY[pointerIndex] = y;
+        }
+    }
+
+    public int getActionMasked() {
+        return mActionMasked;
+    }
+
+    public int getActionIndex() {
+        return mActionIndex;
+    }
+
+    public int getPointerCount() {
+        return mPointerCount;
+    }
+
+    public float getX(int pointerIndex) {
+        return mX[pointerIndex];
+    }
+
+    public float getY(int pointerIndex) {
+        return mY[pointerIndex];
+    }
+
+    public long getEventTime() {
+        return mEventTime;
+    }
+
+    public int getHistorySize() {
+        return mHistorySize;
+    }
+
+    public float getHistoricalX(int pointerIndex, int pos) {
+        return mHistoricalX[pointerIndex * MAX_HISTORY_SIZE + pos];
+    }
+
+    public float getHistoricalY(int pointerIndex, int pos) {
+        return mHistoricalY[pointerIndex * MAX_HISTORY_SIZE + pos];
+    }
+
+    public long getHistoricalEventTime(int pos) {
+        return mHistoricalEventTime[pos];
+    }
+}
@@ -0,0 +1,295 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import com.fezrestia.android.util.math.VectorCalculator;
+
+/**
+ * This class can detect double touch events.(rotating and scaling).
+ * And callback the result to listener.
+ *
+ * Positions of one event, including historical samples, are processed as one batch.
+ * Rotation and scale are evaluated on each sample, and notified at most once per batch.
+ */
+class TouchScaleAndRotateDetector {
+    // Thresholds definitions.
+    private static final int ROTATE_DETECTION_THRESHOLD_DEGREE = 1;
+
+    // Touch point.
+    private float mCurrentTouchPos0X = 0.0f;
+    private float mCurrentTouchPos0Y = 0.0f;
+    private float mCurrentTouchPos1X = 0.0f;
+    private float mCurrentTouchPos1Y = 0.0f;
+    private float mPreviousTouchPos0X = 0.0f;
+    private float mPreviousTouchPos0Y = 0.0f;
+    private float mPreviousTouchPos1X = 0.0f;
+    private float mPreviousTouchPos1Y = 0.0f;
+
+    // Touch event vector.
+    private float mTouchVec0X = 0.0f;
+    private float mTouchVec0Y = 0.0f;
+    private float mTouchVec1X = 0.0f;
+    private float mTouchVec1Y = 0.0f;
+
+    // Axis vector between 2 touch point.
+    private float mPreviousAxisVecX = 0.0f;
+    private float mPreviousAxisVecY = 0.0f;
+    private float mCurrentAxisVecX = 0.0f;
+    private float mCurrentAxisVecY = 0.0f;
+
+    // Axis rotation difference.
+    private float mAxisRotateDeg = 0.0f;
+
+    // Axis length.
+    private float mOriginalAxisLen = 0.0f;
+    private float mPreviousAxisLen = 0.0f;
+
+    // Results of current batch. Step is sample with any finger moved.
+    private float mBatchStartAxisRotateDeg = 0.0f;
+    private float mBatchStartAxisLen = 0.0f;
+    private int mBatchStepCount = 0;
+    private int mBatchScaledStepCount = 0;
+    private boolean mIsBatchRotated = false;
+
+    /**
+     * Scale and rotate detection callback.
+     */
+    interface ScaleAndRotateDetectorListener {
+        /**
+         * 2-finger scaling gesture is detected.
+         *
+         * @param currentLength
+         * @param previousLength
+         * @param originalLength
+         */
+        void onDoubleTouchScaleDetected(
+                float currentLength,
+                float previousLength,
+                float originalLength);
+
+        /**
+         * 2-finger rotating gesture is detected.
+         *
+         * @param degreeVsOrigin
+         * @param degreeVsPrevious
+         */
+        void onDoubleTouchRotateDetected(
+                float degreeVsOrigin,
+                float degreeVsPrevious);
+    }
+
+    private ScaleAndRotateDetectorListener mListener;
+
+    /**
+     * CONSTRUCTOR.
+     */
+    TouchScaleAndRotateDetector() {
+        // NOP.
+    }
+
+    /**
+     * Release all references.
+     */
+    void release() {
+        mListener = null;
+    }
+
+    /**
+     * Set callback.
+     *
+     * @param listener
+     */
+    void setScaleAndRotateDetectorListener(ScaleAndRotateDetectorListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Start detection.
+     *
+     * @param x0
+     * @param y0
+     * @param x1
+     * @param y1
+     */
+    void startScaleAndRotateDetection(float x0, float y0, float x1, float y1) {
+        mPreviousTouchPos0X = x0;
+        mPreviousTouchPos0Y = y0;
+        mPreviousTouchPos1X = x1;
+        mPreviousTouchPos1Y = y1;
+        mPreviousAxisVecX = x1 - x0;
+        mPreviousAxisVecY = y1 - y0;
+        mOriginalAxisLen = VectorCalculator.getLength(mPreviousAxisVecX, mPreviousAxisVecY);
+        mPreviousAxisLen = mOriginalAxisLen;
+    }
+
+    /**
+     * Update current position.
+     *
+     * @param x0
+     * @param y0
+     * @param x1
+     * @param y1
+     */
+    void updateCurrentPosition(float x0, float y0, float x1, float y1) {
+        startBatch();
+        step(x0, y0, x1, y1);
+        notifyBatch();
+    }
+
+    /**
+     * Update current position with historical samples of one event.
+     *
+     * @param x0 Pointer 0 x, oldest first, current position at count - 1.
+     * @param y0
+     * @param x1
+     * @param y1
+     * @param count
+     */
+    void updateCurrentPositions(float[] x0, float[] y0, float[] x1, float[] y1, int count) {
+        startBatch();
+        for (int i = 0; i < count; ++i) {
+            step(x0[i], y0[i], x1[i], y1[i]);
+        }
+        notifyBatch();
+    }
+
+    private void startBatch() {
+        mBatchStartAxisRotateDeg = mAxisRotateDeg;
+        mBatchStartAxisLen = mPreviousAxisLen;
+        mBatchStepCount = 0;
+        mBatchScaledStepCount = 0;
+        mIsBatchRotated = false;
+    }
+
+    private void notifyBatch() {
+        // Rotation is notified by total difference in batch.
+        if (mIsBatchRotated) {
+            final float difDeg = mAxisRotateDeg - mBatchStartAxisRotateDeg;
+            if (ROTATE_DETECTION_THRESHOLD_DEGREE <= Math.abs(difDeg)) {
+                // Notify degree difference to listener.
+                mListener.onDoubleTouchRotateDetected(mAxisRotateDeg, difDeg);
+            }
+        }
+
+        // Scaling is notified if most of samples are scaled, against sample noise.
+        if (mBatchStepCount < mBatchScaledStepCount * 2) {
+            // Notify listener.
+            mListener.onDoubleTouchScaleDetected(
+                    mPreviousAxisLen,
+                    mBatchStartAxisLen,
+                    mOriginalAxisLen);
+        }
+    }
+
+    private void step(float x0, float y0, float x1, float y1) {
+        // Cache touch position.
+        mCurrentTouchPos0X = x0;
+        mCurrentTouchPos0Y = y0;
+        mCurrentTouchPos1X = x1;
+        mCurrentTouchPos1Y = y1;
+
+        // Create touch vector.
+        mTouchVec0X = mCurrentTouchPos0X - mPreviousTouchPos0X;
+        mTouchVec0Y = mCurrentTouchPos0Y - mPreviousTouchPos0Y;
+        mTouchVec1X = mCurrentTouchPos1X - mPreviousTouchPos1X;
+        mTouchVec1Y = mCurrentTouchPos1Y - mPreviousTouchPos1Y;
+
+        // Create axis vector.
+        mCurrentAxisVecX = mCurrentTouchPos1X - mCurrentTouchPos0X;
+        mCurrentAxisVecY = mCurrentTouchPos1Y - mCurrentTouchPos0Y;
+
+        // Direction of each touch vector against axis, by one dot product per vector pair.
+        // Squared cosine is compared with thresholds, without sqrt and acos.
+        final float axisSquaredLen = VectorCalculator.getSquaredLength(
+                mCurrentAxisVecX, mCurrentAxisVecY);
+        final float dot0 = VectorCalculator.getDotProduct(
+                mCurrentAxisVecX, mCurrentAxisVecY, mTouchVec0X, mTouchVec0Y);
+        final float dot1 = VectorCalculator.getDotProduct(
+                mCurrentAxisVecX, mCurrentAxisVecY, mTouchVec1X, mTouchVec1Y);
+        final float squaredLenProduct0 = axisSquaredLen
+                * VectorCalculator.getSquaredLength(mTouchVec0X, mTouchVec0Y);
+        final float squaredLenProduct1 = axisSquaredLen
+                * VectorCalculator.getSquaredLength(mTouchVec1X, mTouchVec1Y);
+
+        // Sample without move is neither scaled nor rotated, and not counted.
+        if (squaredLenProduct0 != 0.0f || squaredLenProduct1 != 0.0f) {
+            ++mBatchStepCount;
+        }
+
+        // Rotation.
+        if (VectorCalculator.isSquareByProduct(dot0, squaredLenProduct0)
+                && VectorCalculator.isSquareByProduct(dot1, squaredLenProduct1)) {
+            // Difference of rotation.
+            float outerProduct = VectorCalculator.getCrossProduct(
+                    mPreviousAxisVecX, mPreviousAxisVecY, mCurrentAxisVecX, mCurrentAxisVecY);
+            float difRad = VectorCalculator.getRadianFromProduct(
+                    VectorCalculator.getDotProduct(
+                            mPreviousAxisVecX,
+                            mPreviousAxisVecY,
+                            mCurrentAxisVecX,
+                            mCurrentAxisVecY),
+                    outerProduct);
+
+            // Direction of rotation.
+            float direction;
+            if (0 <= outerProduct) {
+                direction = 1.0f;
+            } else {
+                direction = -1.0f;
+            }
+
+            // Accumulate, threshold is checked per batch.
+            float difDeg = (float) (difRad * 360.0f / 2.0f / Math.PI * direction);
+            mAxisRotateDeg += difDeg;
+            mIsBatchRotated = true;
+        }
+
+        // Current axis length, previous one is cached.
+        final float currentLen = VectorCalculator.getLength(mCurrentAxisVecX, mCurrentAxisVecY);
+
+        // Scaling.
+        if (VectorCalculator.isParallelByProduct(dot0, squaredLenProduct0)
+                && VectorCalculator.isParallelByProduct(dot1, squaredLenProduct1)) {
+            ++mBatchScaledStepCount;
+        }
+
+        // Update previous data.
+        mPreviousAxisLen = currentLen;
+        mPreviousAxisVecX = mCurrentAxisVecX;
+        mPreviousAxisVecY = mCurrentAxisVecY;
+        mPreviousTouchPos0X = mCurrentTouchPos0X;
+        mPreviousTouchPos0Y = mCurrentTouchPos0Y;
+        mPreviousTouchPos1X = mCurrentTouchPos1X;
+        mPreviousTouchPos1Y = mCurrentTouchPos1Y;
+    }
+
+    /**
+     * Stop detection.
+     */
+    void stopScaleAndRotateDetection() {
+        // Reset all fields.
+        mCurrentTouchPos0X = 0.0f;
+        mCurrentTouchPos0Y = 0.0f;
+        mCurrentTouchPos1X = 0.0f;
+        mCurrentTouchPos1Y = 0.0f;
+        mPreviousTouchPos0X = 0.0f;
+        mPreviousTouchPos0Y = 0.0f;
+        mPreviousTouchPos1X = 0.0f;
+        mPreviousTouchPos1Y = 0.0f;
+
+        mTouchVec0X = 0.0f;
+        mTouchVec0Y = 0.0f;
+        mTouchVec1X = 0.0f;
+        mTouchVec1Y = 0.0f;
+
+        mPreviousAxisVecX = 0.0f;
+        mPreviousAxisVecY = 0.0f;
+        mCurrentAxisVecX = 0.0f;
+        mCurrentAxisVecY = 0.0f;
+
+        mAxisRotateDeg = 0.0f;
+
+        mOriginalAxisLen = 0.0f;
+        mPreviousAxisLen = 0.0f;
+
+        startBatch();
+    }
+}
@@ -0,0 +1,153 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read touch samples from binary touch trace written by TouchTraceWriter.
+ *
+ * Trace file is memory mapped, so large trace is not loaded to heap.
+ * Trace of older version without history is also readable.
+ */
+public class TouchTraceReader {
+    // Source.
+    private final ByteBuffer mBuffer;
+
+    // Event time of first sample.
+    private final long mBaseEventTime;
+
+    // Record has history or not.
+    private final boolean mHasHistory;
+
+    // Position of first record.
+    private final int mFirstRecordPosition;
+
+    // Previous event time.
+    private long mPreviousEventTime;
+
+    /**
+     * Map trace file to memory, and create reader.
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static TouchTraceReader open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            // Mapping is kept valid after channel is closed.
+            return new TouchTraceReader(channel.map(
+                    FileChannel.MapMode.READ_ONLY,
+                    0,
+                    channel.size()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * CONSTRUCTOR.
+     *
+     * @param buffer Trace from current position.
+     * @throws IOException Header is invalid.
+     */
+    public TouchTraceReader(ByteBuffer buffer) throws IOException {
+        mBuffer = buffer;
+
+        // Header.
+        try {
+            if (mBuffer.getInt() != TouchTraceWriter.MAGIC) {
+                throw new IOException("Not a touch trace.");
+            }
+            final int version = mBuffer.getInt();
+            if (version == TouchTraceWriter.VERSION) {
+                mHasHistory = true;
+            } else if (version == TouchTraceWriter.VERSION_WITHOUT_HISTORY) {
+                mHasHistory = false;
+            } else {
+                throw new IOException("Unsupported touch trace version : " + version);
+            }
+            mBaseEventTime = mBuffer.getLong();
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Touch trace header is truncated.", e);
+        }
+
+        mFirstRecordPosition = mBuffer.position();
+        mPreviousEventTime = mBaseEventTime;
+    }
+
+    /**
+     * Get event time of first sample.
+     *
+     * @return
+     */
+    public long getBaseEventTime() {
+        return mBaseEventTime;
+    }
+
+    /**
+     * Read next sample.
+     * Truncated last record is ignored.
+     *
+     * @param sample Filled with next sample.
+     * @return false if no more sample.
+     */
+    public boolean next(TouchSample sample) {
+        final int position = mBuffer.position();
+        try {
+            final int actionMasked = mBuffer.get();
+            final int actionIndex = mBuffer.get();
+            final int pointerCount = mBuffer.get();
+            final int historySize = mHasHistory ? mBuffer.get() : 0;
+
+            // Event time is set after history.
+            sample.set(actionMasked, actionIndex, pointerCount, 0);
+
+            // Historical samples.
+            long eventTime = mPreviousEventTime;
+            final int historicalPointerCount =
+                    Math.min(pointerCount, TouchSample.MAX_HISTORICAL_POINTER_COUNT);
+            sample.setHistorySize(historySize);
+            for (int pos = 0; pos < historySize; ++pos) {
+                eventTime += mBuffer.getInt();
+                sample.setHistoricalEventTime(pos, eventTime);
+                for (int i = 0; i < historicalPointerCount; ++i) {
+                    sample.setHistoricalPointer(
+                            i,
+                            pos,
+                            mBuffer.getShort() / TouchTraceWriter.COORDINATE_SCALE,
+                            mBuffer.getShort() / TouchTraceWriter.COORDINATE_SCALE);
+                }
+            }
+
+            eventTime += mBuffer.getInt();
+            sample.setEventTime(eventTime);
+            for (int i = 0; i < pointerCount; ++i) {
+                sample.setPointer(
+                        i,
+                        mBuffer.getShort() / TouchTraceWriter.COORDINATE_SCALE,
+                        mBuffer.getShort() / TouchTraceWriter.COORDINATE_SCALE);
+            }
+
+            mPreviousEventTime = eventTime;
+            return true;
+        } catch (BufferUnderflowException e) {
+            // End of trace.
+            mBuffer.position(position);
+            return false;
+        }
+    }
+
+    /**
+     * Rewind to first sample.
+     */
+    public void rewind() {
+        mBuffer.position(mFirstRecordPosition);
+        mPreviousEventTime = mBaseEventTime;
+    }
+}
@@ -0,0 +1,69 @@
+package com.fezrestia.android.lib.interaction.core;
+
+/**
+ * Replay touch trace through InteractionCore.
+ *
+ * Core must be created with the VirtualTimeScheduler as Clock and all Schedulers.
+ * Detection always follows recorded event time, and replay speed only changes
+ * how long the caller thread waits between samples.
+ */
+public class TouchTraceReplayer {
+    // Replay speed.
+    public static final int SPEED_RECORDED = 0;
+    public static final int SPEED_AS_FAST_AS_POSSIBLE = 1;
+
+    // Target.
+    private final InteractionCore mCore;
+    private final VirtualTimeScheduler mScheduler;
+
+    // Reused sample.
+    private final TouchSample mSample = new TouchSample();
+
+    /**
+     * CONSTRUCTOR.
+     *
+     * @param core
+     * @param scheduler
+     */
+    public TouchTraceReplayer(InteractionCore core, VirtualTimeScheduler scheduler) {
+        mCore = core;
+        mScheduler = scheduler;
+    }
+
+    /**
+     * Replay all samples from current position of reader.
+     *
+     * @param reader
+     * @param speed SPEED_RECORDED or SPEED_AS_FAST_AS_POSSIBLE
+     * @return Replayed sample count.
+     * @throws InterruptedException
+     */
+    public int replay(TouchTraceReader reader, int speed) throws InterruptedException {
+        final long startMillis = System.nanoTime() / 1000000L;
+        long firstEventTime = -1;
+        int count = 0;
+
+        while (reader.next(mSample)) {
+            final long eventTime = mSample.getEventTime();
+            if (firstEventTime < 0) {
+                firstEventTime = eventTime;
+            }
+
+            // Wait for recorded timing.
+            if (speed == SPEED_RECORDED) {
+                final long waitMillis = (eventTime - firstEventTime)
+                        - (System.nanoTime() / 1000000L - startMillis);
+                if (0 < waitMillis) {
+                    Thread.sleep(waitMillis);
+                }
+            }
+
+            // Run detector tasks scheduled until this event, and input.
+            mScheduler.advanceTo(eventTime);
+            mCore.onTouchSample(mSample);
+            ++count;
+        }
+
+        return count;
+    }
+}
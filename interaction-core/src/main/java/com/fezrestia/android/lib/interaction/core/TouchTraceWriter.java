@@ -0,0 +1,131 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Write touch samples to compact binary touch trace.
+ *
+ * Format, big endian.
+ *   Header : int MAGIC, int VERSION, long event time of first sample.
+ *   Record : byte action, byte action index, byte pointer count, byte history size,
+ *            historical samples, oldest first,
+ *            int event time difference from previous sample,
+ *            short x and short y for each pointer, fixed point of COORDINATE_SCALE.
+ *   Historical sample : int event time difference from previous sample,
+ *            short x and short y for each of first MAX_HISTORICAL_POINTER_COUNT pointers.
+ *
+ * VERSION_WITHOUT_HISTORY record has no history size and historical samples.
+ */
+public class TouchTraceWriter {
+    // Header.
+    static final int MAGIC = 0x54545243; // "TTRC"
+    static final int VERSION = 2;
+    static final int VERSION_WITHOUT_HISTORY = 1;
+
+    // Coordinates are stored as 16-bit fixed point, 1/4 pixel resolution.
+    static final float COORDINATE_SCALE = 4.0f;
+
+    // Output.
+    private final DataOutputStream mOutput;
+
+    // Header is written with first sample event time.
+    private boolean mIsHeaderWritten = false;
+
+    // Previous event time.
+    private long mPreviousEventTime = 0;
+
+    /**
+     * CONSTRUCTOR.
+     *
+     * @param output
+     */
+    public TouchTraceWriter(OutputStream output) {
+        mOutput = new DataOutputStream(new BufferedOutputStream(output));
+    }
+
+    /**
+     * Write one sample.
+     *
+     * @param sample
+     * @throws IOException
+     */
+    public void write(TouchSample sample) throws IOException {
+        if (!mIsHeaderWritten) {
+            writeHeader(sample.getEventTime());
+        }
+
+        final int pointerCount = Math.min(sample.getPointerCount(), TouchSample.MAX_POINTER_COUNT);
+        final int historySize = sample.getHistorySize();
+        mOutput.writeByte(sample.getActionMasked());
+        mOutput.writeByte(sample.getActionIndex());
+        mOutput.writeByte(pointerCount);
+        mOutput.writeByte(historySize);
+
+        // Historical samples.
+        final int historicalPointerCount =
+                Math.min(pointerCount, TouchSample.MAX_HISTORICAL_POINTER_COUNT);
+        for (int pos = 0; pos < historySize; ++pos) {
+            final long eventTime = sample.getHistoricalEventTime(pos);
+            mOutput.writeInt((int) (eventTime - mPreviousEventTime));
+            for (int i = 0; i < historicalPointerCount; ++i) {
+                mOutput.writeShort(toFixedPoint(sample.getHistoricalX(i, pos)));
+                mOutput.writeShort(toFixedPoint(sample.getHistoricalY(i, pos)));
+            }
+            mPreviousEventTime = eventTime;
+        }
+
+        mOutput.writeInt((int) (sample.getEventTime() - mPreviousEventTime));
+        for (int i = 0; i < pointerCount; ++i) {
+            mOutput.writeShort(toFixedPoint(sample.getX(i)));
+            mOutput.writeShort(toFixedPoint(sample.getY(i)));
+        }
+
+        mPreviousEventTime = sample.getEventTime();
+    }
+
+    private void writeHeader(long baseEventTime) throws IOException {
+        mOutput.writeInt(MAGIC);
+        mOutput.writeInt(VERSION);
+        mOutput.writeLong(baseEventTime);
+        mPreviousEventTime = baseEventTime;
+        mIsHeaderWritten = true;
+    }
+
+    private static int toFixedPoint(float coordinate) {
+        int fixed = Math.round(coordinate * COORDINATE_SCALE);
+
+        // Clamp.
+        if (fixed < Short.MIN_VALUE) {
+            fixed = Short.MIN_VALUE;
+        } else if (Short.MAX_VALUE < fixed) {
+            fixed = Short.MAX_VALUE;
+        }
+
+        return fixed;
+    }
+
+    /**
+     * Flush buffered records.
+     *
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        mOutput.flush();
+    }
+
+    /**
+     * Flush and close output.
+     * Empty trace has only header.
+     *
+     * @throws IOException
+     */
+    public void close() throws IOException {
+        if (!mIsHeaderWritten) {
+            writeHeader(0);
+        }
+        mOutput.close();
+    }
+}
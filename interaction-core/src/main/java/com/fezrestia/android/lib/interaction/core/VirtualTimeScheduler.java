@@ -0,0 +1,109 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import java.util.ArrayList;
+
+/**
+ * Clock and Scheduler based on virtual time.
+ *
+ * Time is advanced only by advanceTo(), and scheduled tasks are executed on caller thread.
+ * This is used to drive interaction detection off-device, for example to fast-forward
+ * a recorded touch trace.
+ */
+public class VirtualTimeScheduler implements Clock, Scheduler {
+    // Current virtual time.
+    private long mCurrentUptimeMillis;
+
+    // Pending tasks, sorted by time. Same time tasks are kept in post order.
+    private final ArrayList<PendingTask> mPendingTasks = new ArrayList<PendingTask>();
+
+    private static class PendingTask {
+        final Runnable mTask;
+        final long mUptimeMillis;
+
+        PendingTask(Runnable task, long uptimeMillis) {
+            mTask = task;
+            mUptimeMillis = uptimeMillis;
+        }
+    }
+
+    /**
+     * CONSTRUCTOR.
+     *
+     * @param startUptimeMillis
+     */
+    public VirtualTimeScheduler(long startUptimeMillis) {
+        mCurrentUptimeMillis = startUptimeMillis;
+    }
+
+    @Override
+    public synchronized long uptimeMillis() {
+        return mCurrentUptimeMillis;
+    }
+
+    @Override
+    public synchronized void post(Runnable task) {
+        postAtTime(task, mCurrentUptimeMillis);
+    }
+
+    @Override
+    public synchronized void postAtTime(Runnable task, long uptimeMillis) {
+        int index = mPendingTasks.size();
+        while (0 < index && uptimeMillis < mPendingTasks.get(index - 1).mUptimeMillis) {
+            --index;
+        }
+        mPendingTasks.add(index, new PendingTask(task, uptimeMillis));
+    }
+
+    @Override
+    public synchronized void remove(Runnable task) {
+        for (int i = mPendingTasks.size() - 1; 0 <= i; --i) {
+            if (mPendingTasks.get(i).mTask == task) {
+                mPendingTasks.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Advance virtual time, and execute all tasks scheduled until the time.
+     *
+     * @param uptimeMillis
+     */
+    public void advanceTo(long uptimeMillis) {
+        while (true) {
+            Runnable task;
+            synchronized (this) {
+                if (mPendingTasks.isEmpty()
+                        || uptimeMillis < mPendingTasks.get(0).mUptimeMillis) {
+                    if (mCurrentUptimeMillis < uptimeMillis) {
+                        mCurrentUptimeMillis = uptimeMillis;
+                    }
+                    return;
+                }
+                PendingTask next = mPendingTasks.remove(0);
+                if (mCurrentUptimeMillis < next.mUptimeMillis) {
+                    mCurrentUptimeMillis = next.mUptimeMillis;
+                }
+                task = next.mTask;
+            }
+
+            // Execute out of lock, task may post next task.
+            task.run();
+        }
+    }
+
+    /**
+     * Execute all tasks scheduled until current time.
+     */
+    public void runPendingTasks() {
+        advanceTo(uptimeMillis());
+    }
+
+    /**
+     * Get pending task count.
+     *
+     * @return
+     */
+    public synchronized int getPendingTaskCount() {
+        return mPendingTasks.size();
+    }
+}
@@ -0,0 +1,247 @@
+package com.fezrestia.android.util.math;
+
+/**
+ * This class is used to calculate vector.
+ *
+ * All of API take primitive coordinates, without allocation.
+ * Integer variants calculate exactly in long, for pixel coordinate vectors.
+ * Batch variants process N vector pairs in one loop, from separated coordinate arrays.
+ */
+public class VectorCalculator {
+    // Direction threshold, as squared cosine to compare without sqrt and acos.
+    // Square if angle is within PI/2 +/- PI/3, so cos^2 < cos^2(PI/6) = 3/4.
+    // Parallel if angle is within 0 or PI +/- PI/3, so cos^2(PI/3) = 1/4 < cos^2.
+    // Both are exact in float, so boundary is exclusive same as integer variants.
+    private static final float SQUARE_COS_SQUARED = 0.75f;
+    private static final float PARALLEL_COS_SQUARED = 0.25f;
+
+    public static float getLength(float x, float y) {
+        return (float) Math.sqrt((double) x * x + (double) y * y);
+    }
+
+    public static float getSquaredLength(float x, float y) {
+        return x * x + y * y;
+    }
+
+    public static float getDotProduct(float x0, float y0, float x1, float y1) {
+        return x0 * x1 + y0 * y1;
+    }
+
+    public static float getCrossProduct(float x0, float y0, float x1, float y1) {
+        return x0 * y1 - x1 * y0;
+    }
+
+    /**
+     * Get unsigned radian between 2 vectors, from dot and cross product.
+     * Same as getRadianFrom2Vector(), without sqrt.
+     *
+     * @param dot
+     * @param cross
+     * @return 0 to PI. 0 if any vector length is 0.
+     */
+    public static float getRadianFromProduct(float dot, float cross) {
+        return (float) Math.atan2(Math.abs(cross), dot);
+    }
+
+    /**
+     * Same as isSquare(), from dot product and squared lengths of 2 vectors.
+     *
+     * @param dot
+     * @param squaredLengthProduct Product of squared lengths of 2 vectors.
+     * @return
+     */
+    public static boolean isSquareByProduct(float dot, float squaredLengthProduct) {
+        if (squaredLengthProduct == 0.0f) {
+            // Angle is 0 if length is 0.
+            return false;
+        }
+        return dot * dot < SQUARE_COS_SQUARED * squaredLengthProduct;
+    }
+
+    /**
+     * Same as isParallel(), from dot product and squared lengths of 2 vectors.
+     *
+     * @param dot
+     * @param squaredLengthProduct Product of squared lengths of 2 vectors.
+     * @return
+     */
+    public static boolean isParallelByProduct(float dot, float squaredLengthProduct) {
+        if (squaredLengthProduct == 0.0f) {
+            // Angle is 0 if length is 0.
+            return true;
+        }
+        return PARALLEL_COS_SQUARED * squaredLengthProduct < dot * dot;
+    }
+
+    public static long getSquaredLength(int x, int y) {
+        return (long) x * x + (long) y * y;
+    }
+
+    public static long getDotProduct(int x0, int y0, int x1, int y1) {
+        return (long) x0 * x1 + (long) y0 * y1;
+    }
+
+    public static long getCrossProduct(int x0, int y0, int x1, int y1) {
+        return (long) x0 * y1 - (long) x1 * y0;
+    }
+
+    public static float getRadianFrom2Vector(float x0, float y0, float x1, float y1) {
+        final float len0 = getLength(x0, y0);
+        final float len1 = getLength(x1, y1);
+
+        if ((0 < len0) && (0 < len1)) {
+            float difCos = (x0 * x1 + y0 * y1) / len0 / len1;
+
+            // Check limit.
+            if (difCos < -1.0f) {
+                difCos = -1.0f;
+            } else if (1.0f < difCos) {
+                difCos = 1.0f;
+            }
+
+            // Convert cos to radian
+            return (float) Math.acos(difCos);
+        }
+
+        // If length is 0, can not calculate.
+        return 0.0f;
+    }
+
+    public static boolean isSquare(float x0, float y0, float x1, float y1) {
+        return isSquareByProduct(
+                getDotProduct(x0, y0, x1, y1),
+                getSquaredLength(x0, y0) * getSquaredLength(x1, y1));
+    }
+
+    public static boolean isParallel(float x0, float y0, float x1, float y1) {
+        return isParallelByProduct(
+                getDotProduct(x0, y0, x1, y1),
+                getSquaredLength(x0, y0) * getSquaredLength(x1, y1));
+    }
+
+    /**
+     * Forward direction half of isParallel().
+     *
+     * @param x0
+     * @param y0
+     * @param x1
+     * @param y1
+     * @return True if angle is less than tolerance, or any vector length is 0.
+     */
+    public static boolean isSameDirection(float x0, float y0, float x1, float y1) {
+        final float dot = getDotProduct(x0, y0, x1, y1);
+        final float squaredLengthProduct = getSquaredLength(x0, y0) * getSquaredLength(x1, y1);
+        if (squaredLengthProduct == 0.0f) {
+            return true;
+        }
+        return 0.0f < dot && PARALLEL_COS_SQUARED * squaredLengthProduct < dot * dot;
+    }
+
+    // Integer variants. Thresholds are cos^2 = 3/4 for square and cos^2 = 1/4 for parallel,
+    // exact in integer, and no integer vector pair is on the threshold.
+    // Coordinates must be within +/-16383 to avoid overflow.
+
+    public static boolean isSquare(int x0, int y0, int x1, int y1) {
+        final long dot = getDotProduct(x0, y0, x1, y1);
+        final long squaredLengthProduct = getSquaredLength(x0, y0) * getSquaredLength(x1, y1);
+        if (squaredLengthProduct == 0) {
+            return false;
+        }
+        return 4 * dot * dot < 3 * squaredLengthProduct;
+    }
+
+    public static boolean isParallel(int x0, int y0, int x1, int y1) {
+        final long dot = getDotProduct(x0, y0, x1, y1);
+        final long squaredLengthProduct = getSquaredLength(x0, y0) * getSquaredLength(x1, y1);
+        if (squaredLengthProduct == 0) {
+            return true;
+        }
+        return squaredLengthProduct < 4 * dot * dot;
+    }
+
+    public static boolean isSameDirection(int x0, int y0, int x1, int y1) {
+        final long dot = getDotProduct(x0, y0, x1, y1);
+        final long squaredLengthProduct = getSquaredLength(x0, y0) * getSquaredLength(x1, y1);
+        if (squaredLengthProduct == 0) {
+            return true;
+        }
+        return 0 < dot && squaredLengthProduct < 4 * dot * dot;
+    }
+
+    // Batch variants. Vector pair i is (x0[i], y0[i]) and (x1[i], y1[i]), 0 <= i < count.
+
+    public static void getLengths(float[] x, float[] y, float[] outLengths, int count) {
+        for (int i = 0; i < count; ++i) {
+            // Same as getLength(), in double.
+            outLengths[i] = (float) Math.sqrt((double) x[i] * x[i] + (double) y[i] * y[i]);
+        }
+    }
+
+    public static void getDotProducts(
+            float[] x0,
+            float[] y0,
+            float[] x1,
+            float[] y1,
+            float[] outDots,
+            int count) {
+        for (int i = 0; i < count; ++i) {
+            outDots[i] = x0[i] * x1[i] + y0[i] * y1[i];
+        }
+    }
+
+    /**
+     * Get squared cosine of each vector pair, signed by cosine.
+     * Batch form of squared cosine comparison, compare result with threshold by caller.
+     *
+     * @param x0
+     * @param y0
+     * @param x1
+     * @param y1
+     * @param outSignedCosSquared cos * |cos|, or 1.0 if any vector length is 0.
+     * @param count
+     */
+    public static void getSignedSquaredCosines(
+            float[] x0,
+            float[] y0,
+            float[] x1,
+            float[] y1,
+            float[] outSignedCosSquared,
+            int count) {
+        for (int i = 0; i < count; ++i) {
+            final float dot = x0[i] * x1[i] + y0[i] * y1[i];
+            final float product = (x0[i] * x0[i] + y0[i] * y0[i])
+                    * (x1[i] * x1[i] + y1[i] * y1[i]);
+            outSignedCosSquared[i] = (product == 0.0f) ? 1.0f : dot * Math.abs(dot) / product;
+        }
+    }
+
+    public static void isSquare(
+            float[] x0,
+            float[] y0,
+            float[] x1,
+            float[] y1,
+            boolean[] outIsSquare,
+            int count) {
+        for (int i = 0; i < count; ++i) {
+            final float dot = x0[i] * x1[i] + y0[i] * y1[i];
+            final float product = (x0[i] * x0[i] + y0[i] * y0[i])
+                    * (x1[i] * x1[i] + y1[i] * y1[i]);
+            outIsSquare[i] = (product != 0.0f) & (dot * dot < SQUARE_COS_SQUARED * product);
+        }
+    }
+
+    public static void isParallel(
+            float[] x0,
+            float[] y0,
+            float[] x1,
+            float[] y1,
+            boolean[] outIsParallel,
+            int count) {
+        for (int i = 0; i < count; ++i) {
+            final float dot = x0[i] * x1[i] + y0[i] * y1[i];
+            final float product = (x0[i] * x0[i] + y0[i] * y0[i])
+                    * (x1[i] * x1[i] + y1[i] * y1[i]);
+            outIsParallel[i] = (product == 0.0f) | (PARALLEL_COS_SQUARED * product < dot * dot);
+        }
+    }
+}
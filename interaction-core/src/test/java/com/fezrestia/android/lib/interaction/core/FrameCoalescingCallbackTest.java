@@ -0,0 +1,219 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Coalesced values, flush order and coalesced count of per frame delivery.
+ */
+public class FrameCoalescingCallbackTest {
+    // Float tolerance of non-contiguous scale ratio.
+    private static final float RATIO_TOLERANCE = 0.00001f;
+
+    /**
+     * RecordingCallback which also keeps last scale and rotate values.
+     */
+    private static class ValueRecordingCallback extends RecordingCallback {
+        float mCurrentLength;
+        float mPreviousLength;
+        float mOriginalLength;
+        float mDegreeVsOrigin;
+        float mDegreeVsLast;
+
+        ValueRecordingCallback(Clock clock) {
+            super(clock);
+        }
+
+        @Override
+        public void onDoubleScaled(
+                float currentLength,
+                float previousLength,
+                float originalLength) {
+            super.onDoubleScaled(currentLength, previousLength, originalLength);
+            mCurrentLength = currentLength;
+            mPreviousLength = previousLength;
+            mOriginalLength = originalLength;
+        }
+
+        @Override
+        public void onDoubleRotated(float degreeVsOrigin, float degreeVsLast) {
+            super.onDoubleRotated(degreeVsOrigin, degreeVsLast);
+            mDegreeVsOrigin = degreeVsOrigin;
+            mDegreeVsLast = degreeVsLast;
+        }
+    }
+
+    private ValueRecordingCallback mTarget;
+    private FrameCoalescingCallback mCallback;
+    private int mFrameRequestCount = 0;
+
+    @Before
+    public void setUp() {
+        mTarget = new ValueRecordingCallback(new VirtualTimeScheduler(0));
+        mCallback = new FrameCoalescingCallback(
+                mTarget,
+                new FrameCoalescingCallback.FrameRequester() {
+                    @Override
+                    public void requestFrame(FrameCoalescingCallback callback) {
+                        ++mFrameRequestCount;
+                    }
+                });
+    }
+
+    @Test
+    public void singleCallbackPassesThrough() {
+        mCallback.onSingleMoved(11, 12, 13, 14, 15, 16);
+        mCallback.onDoubleScaled(133.1f, 121.0f, 100.0f);
+        mCallback.onDoubleRotated(10.0f, 1.0f);
+        mCallback.onDoubleMoved(21, 22, 23, 24);
+        assertEquals(0, mTarget.mRecords.size());
+        assertEquals(1, mFrameRequestCount);
+
+        mCallback.onFrame();
+        assertArgs(mTarget.get("onSingleMoved"), 11, 12, 13, 14, 15, 16);
+        assertArgs(mTarget.get("onDoubleMoved"), 21, 22, 23, 24);
+        assertEquals(1, mTarget.get("onDoubleScaled").size());
+        assertBitExact(133.1f, mTarget.mCurrentLength);
+        assertBitExact(121.0f, mTarget.mPreviousLength);
+        assertBitExact(100.0f, mTarget.mOriginalLength);
+        assertEquals(1, mTarget.get("onDoubleRotated").size());
+        assertBitExact(10.0f, mTarget.mDegreeVsOrigin);
+        assertBitExact(1.0f, mTarget.mDegreeVsLast);
+        assertEquals(0, mCallback.getCoalescedCount());
+
+        // Nothing pending after frame.
+        mCallback.onFrame();
+        assertEquals(4, mTarget.mRecords.size());
+    }
+
+    @Test
+    public void contiguousScaleKeepsFirstPreviousLength() {
+        mCallback.onDoubleScaled(110.0f, 100.0f, 100.0f);
+        mCallback.onDoubleScaled(121.0f, 110.0f, 100.0f);
+        mCallback.onDoubleScaled(133.1f, 121.0f, 100.0f);
+        mCallback.onFrame();
+
+        assertEquals(1, mTarget.get("onDoubleScaled").size());
+        assertBitExact(133.1f, mTarget.mCurrentLength);
+        assertBitExact(100.0f, mTarget.mPreviousLength);
+        assertBitExact(100.0f, mTarget.mOriginalLength);
+        assertEquals(2, mCallback.getCoalescedCount());
+    }
+
+    @Test
+    public void nonContiguousScaleKeepsProductOfRatios() {
+        // 1.1 and 1.1, with gap between callbacks.
+        mCallback.onDoubleScaled(110.0f, 100.0f, 100.0f);
+        mCallback.onDoubleScaled(132.0f, 120.0f, 100.0f);
+        mCallback.onFrame();
+
+        assertEquals(1, mTarget.get("onDoubleScaled").size());
+        assertBitExact(132.0f, mTarget.mCurrentLength);
+        assertEquals(1.21f, mTarget.mCurrentLength / mTarget.mPreviousLength, RATIO_TOLERANCE);
+        assertEquals(1, mCallback.getCoalescedCount());
+    }
+
+    @Test
+    public void rotationIsSummed() {
+        mCallback.onDoubleRotated(1.0f, 1.0f);
+        mCallback.onDoubleRotated(2.5f, 1.5f);
+        mCallback.onDoubleRotated(1.5f, -1.0f);
+        mCallback.onFrame();
+
+        assertEquals(1, mTarget.get("onDoubleRotated").size());
+        assertBitExact(1.5f, mTarget.mDegreeVsOrigin);
+        assertBitExact(1.5f, mTarget.mDegreeVsLast);
+        assertEquals(2, mCallback.getCoalescedCount());
+    }
+
+    @Test
+    public void singleMoveKeepsFirstLastPosition() {
+        mCallback.onSingleMoved(110, 200, 100, 200, 100, 200);
+        mCallback.onSingleMoved(120, 200, 110, 200, 100, 200);
+        mCallback.onSingleMoved(130, 200, 120, 200, 100, 200);
+        assertEquals(1, mFrameRequestCount);
+        mCallback.onFrame();
+
+        assertArgs(mTarget.get("onSingleMoved"), 130, 200, 100, 200, 100, 200);
+        assertEquals(2, mCallback.getCoalescedCount());
+
+        // Requested again after frame.
+        mCallback.onSingleMoved(140, 200, 130, 200, 100, 200);
+        assertEquals(2, mFrameRequestCount);
+    }
+
+    @Test
+    public void pendingIsFlushedBeforeTap() {
+        mCallback.onSingleMoved(101, 200, 100, 200, 100, 200);
+        mCallback.onSingleTapped(101, 200);
+
+        assertEquals(2, mTarget.mRecords.size());
+        assertEquals("onSingleMoved", mTarget.mRecords.get(0).mName);
+        assertEquals("onSingleTapped", mTarget.mRecords.get(1).mName);
+
+        // Already delivered.
+        mCallback.onFrame();
+        assertEquals(2, mTarget.mRecords.size());
+    }
+
+    @Test
+    public void pendingIsFlushedBeforeRelease() {
+        mCallback.onDoubleMoved(100, 200, 300, 400);
+        mCallback.onDoubleScaled(110.0f, 100.0f, 100.0f);
+        mCallback.onSingleReleasedInDouble(300, 400, 100, 200);
+        mCallback.onSingleMoved(101, 200, 100, 200, 100, 200);
+        mCallback.onSingleReleased(101, 200);
+
+        assertEquals(5, mTarget.mRecords.size());
+        assertEquals("onDoubleScaled", mTarget.mRecords.get(0).mName);
+        assertEquals("onDoubleMoved", mTarget.mRecords.get(1).mName);
+        assertEquals("onSingleReleasedInDouble", mTarget.mRecords.get(2).mName);
+        assertEquals("onSingleMoved", mTarget.mRecords.get(3).mName);
+        assertEquals("onSingleReleased", mTarget.mRecords.get(4).mName);
+    }
+
+    @Test
+    public void flushIsInSameOrderAsDetection() {
+        mCallback.onDoubleMoved(100, 200, 300, 400);
+        mCallback.onDoubleScaled(110.0f, 100.0f, 100.0f);
+        mCallback.onDoubleRotated(1.0f, 1.0f);
+        mCallback.onSingleMoved(101, 200, 100, 200, 100, 200);
+        mCallback.flush();
+
+        assertEquals(4, mTarget.mRecords.size());
+        assertEquals("onSingleMoved", mTarget.mRecords.get(0).mName);
+        assertEquals("onDoubleRotated", mTarget.mRecords.get(1).mName);
+        assertEquals("onDoubleScaled", mTarget.mRecords.get(2).mName);
+        assertEquals("onDoubleMoved", mTarget.mRecords.get(3).mName);
+    }
+
+    @Test
+    public void coalescedCountIsTotalSinceCreation() {
+        for (int frame = 0; frame < 3; ++frame) {
+            mCallback.onDoubleMoved(100 + frame, 200, 300, 400);
+            mCallback.onDoubleMoved(101 + frame, 200, 300, 400);
+            mCallback.onDoubleRotated(1.0f, 1.0f);
+            mCallback.onFrame();
+        }
+
+        assertEquals(3, mTarget.get("onDoubleMoved").size());
+        assertEquals(3, mTarget.get("onDoubleRotated").size());
+        assertEquals(3, mCallback.getCoalescedCount());
+    }
+
+    private static void assertArgs(List<RecordingCallback.Record> records, int... args) {
+        assertEquals(1, records.size());
+        assertEquals(args.length, records.get(0).mArgs.length);
+        for (int i = 0; i < args.length; ++i) {
+            assertEquals(args[i], records.get(0).mArgs[i]);
+        }
+    }
+
+    private static void assertBitExact(float expected, float actual) {
+        assertEquals(Float.floatToIntBits(expected), Float.floatToIntBits(actual));
+    }
+}
@@ -0,0 +1,190 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import com.fezrestia.android.util.math.LegacyVectorCalculator;
+
+/**
+ * TouchScaleAndRotateDetector before squared cosine comparison, baseline of benchmark
+ * and tests.
+ */
+class LegacyTouchScaleAndRotateDetector {
+    // Thresholds definitions.
+    private static final int ROTATE_DETECTION_THRESHOLD_DEGREE = 1;
+
+    // Touch point.
+    private float mCurrentTouchPos0X = 0.0f;
+    private float mCurrentTouchPos0Y = 0.0f;
+    private float mCurrentTouchPos1X = 0.0f;
+    private float mCurrentTouchPos1Y = 0.0f;
+    private float mPreviousTouchPos0X = 0.0f;
+    private float mPreviousTouchPos0Y = 0.0f;
+    private float mPreviousTouchPos1X = 0.0f;
+    private float mPreviousTouchPos1Y = 0.0f;
+
+    // Touch event vector.
+    private float mTouchVec0X = 0.0f;
+    private float mTouchVec0Y = 0.0f;
+    private float mTouchVec1X = 0.0f;
+    private float mTouchVec1Y = 0.0f;
+
+    // Axis vector between 2 touch point.
+    private float mPreviousAxisVecX = 0.0f;
+    private float mPreviousAxisVecY = 0.0f;
+    private float mCurrentAxisVecX = 0.0f;
+    private float mCurrentAxisVecY = 0.0f;
+
+    // Axis rotation difference.
+    private float mAxisRotateDeg = 0.0f;
+
+    // Axis length.
+    private float mOriginalAxisLen = 0.0f;
+
+    private TouchScaleAndRotateDetector.ScaleAndRotateDetectorListener mListener;
+
+    /**
+     * CONSTRUCTOR.
+     */
+    LegacyTouchScaleAndRotateDetector() {
+        // NOP.
+    }
+
+    /**
+     * Release all references.
+     */
+    void release() {
+        mListener = null;
+    }
+
+    /**
+     * Set callback.
+     *
+     * @param listener
+     */
+    void setScaleAndRotateDetectorListener(
+            TouchScaleAndRotateDetector.ScaleAndRotateDetectorListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Start detection.
+     *
+     * @param x0
+     * @param y0
+     * @param x1
+     * @param y1
+     */
+    void startScaleAndRotateDetection(float x0, float y0, float x1, float y1) {
+        mPreviousTouchPos0X = x0;
+        mPreviousTouchPos0Y = y0;
+        mPreviousTouchPos1X = x1;
+        mPreviousTouchPos1Y = y1;
+        mPreviousAxisVecX = x1 - x0;
+        mPreviousAxisVecY = y1 - y0;
+        mOriginalAxisLen = LegacyVectorCalculator.getLength(mPreviousAxisVecX, mPreviousAxisVecY);
+    }
+
+    /**
+     * Update current position.
+     *
+     * @param x0
+     * @param y0
+     * @param x1
+     * @param y1
+     */
+    void updateCurrentPosition(float x0, float y0, float x1, float y1) {
+        // Cache touch position.
+        mCurrentTouchPos0X = x0;
+        mCurrentTouchPos0Y = y0;
+        mCurrentTouchPos1X = x1;
+        mCurrentTouchPos1Y = y1;
+
+        // Create touch vector.
+        mTouchVec0X = mCurrentTouchPos0X - mPreviousTouchPos0X;
+        mTouchVec0Y = mCurrentTouchPos0Y - mPreviousTouchPos0Y;
+        mTouchVec1X = mCurrentTouchPos1X - mPreviousTouchPos1X;
+        mTouchVec1Y = mCurrentTouchPos1Y - mPreviousTouchPos1Y;
+
+        // Create axis vector.
+        mCurrentAxisVecX = mCurrentTouchPos1X - mCurrentTouchPos0X;
+        mCurrentAxisVecY = mCurrentTouchPos1Y - mCurrentTouchPos0Y;
+
+        // Rotation.
+        if ((LegacyVectorCalculator.isSquare(
+                        mCurrentAxisVecX, mCurrentAxisVecY, mTouchVec0X, mTouchVec0Y)
+                && (LegacyVectorCalculator.isSquare(
+                        mCurrentAxisVecX, mCurrentAxisVecY, mTouchVec1X, mTouchVec1Y)))) {
+            // Difference of rotation.
+            float difRad = LegacyVectorCalculator.getRadianFrom2Vector(
+                    mPreviousAxisVecX, mPreviousAxisVecY, mCurrentAxisVecX, mCurrentAxisVecY);
+
+            // Direction of rotation.
+            float direction;
+            float outerProduct = mPreviousAxisVecX * mCurrentAxisVecY
+                    - mCurrentAxisVecX * mPreviousAxisVecY;
+            if (0 <= outerProduct) {
+                direction = 1.0f;
+            } else {
+                direction = -1.0f;
+            }
+
+            // Notify threshold.
+            float difDeg = (float) (difRad * 360.0f / 2.0f / Math.PI * direction);
+            float previousDeg = mAxisRotateDeg;
+            mAxisRotateDeg += difDeg;
+            if (ROTATE_DETECTION_THRESHOLD_DEGREE <= Math.abs(mAxisRotateDeg - previousDeg)) {
+                // Notify degree difference to listener.
+                mListener.onDoubleTouchRotateDetected(
+                        mAxisRotateDeg, (mAxisRotateDeg - previousDeg));
+            }
+        }
+
+        // Scaling.
+        if (LegacyVectorCalculator.isParallel(
+                        mCurrentAxisVecX, mCurrentAxisVecY, mTouchVec0X, mTouchVec0Y)
+                && LegacyVectorCalculator.isParallel(
+                        mCurrentAxisVecX, mCurrentAxisVecY, mTouchVec1X, mTouchVec1Y)) {
+            // Get current axis length.
+            float currentLen = LegacyVectorCalculator.getLength(mCurrentAxisVecX, mCurrentAxisVecY);
+            float previousLen = LegacyVectorCalculator.getLength(mPreviousAxisVecX, mPreviousAxisVecY);
+
+            // Notify listener.
+            mListener.onDoubleTouchScaleDetected(currentLen, previousLen, mOriginalAxisLen);
+        }
+
+        // Update previous data.
+        mPreviousAxisVecX = mCurrentAxisVecX;
+        mPreviousAxisVecY = mCurrentAxisVecY;
+        mPreviousTouchPos0X = mCurrentTouchPos0X;
+        mPreviousTouchPos0Y = mCurrentTouchPos0Y;
+        mPreviousTouchPos1X = mCurrentTouchPos1X;
+        mPreviousTouchPos1Y = mCurrentTouchPos1Y;
+    }
+
+    /**
+     * Stop detection.
+     */
+    void stopScaleAndRotateDetection() {
+        // Reset all fields.
+        mCurrentTouchPos0X = 0.0f;
+        mCurrentTouchPos0Y = 0.0f;
+        mCurrentTouchPos1X = 0.0f;
+        mCurrentTouchPos1Y = 0.0f;
+        mPreviousTouchPos0X = 0.0f;
+        mPreviousTouchPos0Y = 0.0f;
+        mPreviousTouchPos1X = 0.0f;
+        mPreviousTouchPos1Y = 0.0f;
+
+        mTouchVec0X = 0.0f;
+        mTouchVec0Y = 0.0f;
+        mTouchVec1X = 0.0f;
+        mTouchVec1Y = 0.0f;
+
+        mPreviousAxisVecX = 0.0f;
+        mPreviousAxisVecY = 0.0f;
+        mCurrentAxisVecX = 0.0f;
+        mCurrentAxisVecY = 0.0f;
+
+        mAxisRotateDeg = 0.0f;
+
+        mOriginalAxisLen = 0.0f;
+    }
+}
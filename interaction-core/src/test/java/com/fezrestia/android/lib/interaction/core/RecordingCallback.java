@@ -0,0 +1,133 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TouchInteractionCallback which records callbacks with virtual time.
+ */
+class RecordingCallback implements TouchInteractionCallback {
+    // Time source.
+    private final Clock mClock;
+
+    // Recorded callbacks.
+    final List<Record> mRecords = new ArrayList<Record>();
+
+    /**
+     * One callback.
+     */
+    static class Record {
+        final String mName;
+        final long mUptimeMillis;
+        final int[] mArgs;
+
+        Record(String name, long uptimeMillis, int... args) {
+            mName = name;
+            mUptimeMillis = uptimeMillis;
+            mArgs = args;
+        }
+    }
+
+    /**
+     * CONSTRUCTOR.
+     *
+     * @param clock
+     */
+    RecordingCallback(Clock clock) {
+        mClock = clock;
+    }
+
+    /**
+     * Get recorded callbacks of name.
+     *
+     * @param name
+     * @return
+     */
+    List<Record> get(String name) {
+        List<Record> records = new ArrayList<Record>();
+        for (Record record : mRecords) {
+            if (record.mName.equals(name)) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    private void record(String name, int... args) {
+        mRecords.add(new Record(name, mClock.uptimeMillis(), args));
+    }
+
+    // Single touch interaction.
+    @Override
+    public void onSingleTouched(int x, int y) {
+        record("onSingleTouched", x, y);
+    }
+
+    @Override
+    public void onSingleMoved(int curX, int curY, int lastX, int lastY, int downX, int downY) {
+        record("onSingleMoved", curX, curY, lastX, lastY, downX, downY);
+    }
+
+    @Override
+    public void onSingleStopped(int curX, int curY, int lastX, int lastY, int downX, int downY) {
+        record("onSingleStopped", curX, curY, lastX, lastY, downX, downY);
+    }
+
+    @Override
+    public void onSingleReleased(int x, int y) {
+        record("onSingleReleased", x, y);
+    }
+
+    @Override
+    public void onSingleCanceled() {
+        record("onSingleCanceled");
+    }
+
+    // Double touch interaction.
+    @Override
+    public void onDoubleTouched(int x0, int y0, int x1, int y1) {
+        record("onDoubleTouched", x0, y0, x1, y1);
+    }
+
+    @Override
+    public void onDoubleMoved(int x0, int y0, int x1, int y1) {
+        record("onDoubleMoved", x0, y0, x1, y1);
+    }
+
+    @Override
+    public void onDoubleScaled(float currentLength, float previousLength, float originalLength) {
+        record("onDoubleScaled");
+    }
+
+    @Override
+    public void onDoubleRotated(float degreeVsOrigin, float degreeVsLast) {
+        record("onDoubleRotated");
+    }
+
+    @Override
+    public void onSingleReleasedInDouble(int releaseX, int releaseY, int remainX, int remainY) {
+        record("onSingleReleasedInDouble", releaseX, releaseY, remainX, remainY);
+    }
+
+    @Override
+    public void onDoubleCanceled() {
+        record("onDoubleCanceled");
+    }
+
+    // Over triple touch interaction.
+    @Override
+    public void onOverTripleCanceled() {
+        record("onOverTripleCanceled");
+    }
+
+    // Tap and long press.
+    @Override
+    public void onSingleTapped(int x, int y) {
+        record("onSingleTapped", x, y);
+    }
+
+    @Override
+    public void onSingleLongPressed(int x, int y) {
+        record("onSingleLongPressed", x, y);
+    }
+}
@@ -0,0 +1,106 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tap and long press at timeout boundary.
+ */
+public class TapAndLongPressRecognizerTest {
+    // Thresholds, same tap and long press timeout as trigger.
+    private static final int TIMEOUT_MILLIS = 250;
+    private static final int TAP_SLOP = 8;
+
+    // Touch position.
+    private static final int X = 100;
+    private static final int Y = 200;
+
+    private VirtualTimeScheduler mScheduler;
+    private TapAndLongPressRecognizer mRecognizer;
+    private final TouchSample mSample = new TouchSample();
+
+    private int mTapCount = 0;
+    private int mLongPressCount = 0;
+
+    @Before
+    public void setUp() {
+        mScheduler = new VirtualTimeScheduler(0);
+        mRecognizer = new TapAndLongPressRecognizer(TAP_SLOP, mScheduler);
+        mRecognizer.setThresholds(TIMEOUT_MILLIS, TIMEOUT_MILLIS, TAP_SLOP);
+        mRecognizer.setTapAndLongPressListener(
+                new TapAndLongPressRecognizer.TapAndLongPressListener() {
+                    @Override
+                    public void onSingleTapDetected(int x, int y) {
+                        ++mTapCount;
+                    }
+
+                    @Override
+                    public void onSingleLongPressDetected(int x, int y) {
+                        ++mLongPressCount;
+                    }
+                });
+    }
+
+    @Test
+    public void releaseBeforeTimeoutIsTap() {
+        input(TouchSample.ACTION_DOWN, 0);
+        mScheduler.advanceTo(TIMEOUT_MILLIS - 1);
+        input(TouchSample.ACTION_UP, TIMEOUT_MILLIS - 1);
+        mScheduler.advanceTo(TIMEOUT_MILLIS * 2);
+
+        assertEquals(1, mTapCount);
+        assertEquals(0, mLongPressCount);
+    }
+
+    @Test
+    public void releaseAtTimeoutAfterLongPressTaskIsLongPressOnly() {
+        input(TouchSample.ACTION_DOWN, 0);
+        mScheduler.advanceTo(TIMEOUT_MILLIS);
+        input(TouchSample.ACTION_UP, TIMEOUT_MILLIS);
+
+        assertEquals(0, mTapCount);
+        assertEquals(1, mLongPressCount);
+    }
+
+    @Test
+    public void releaseAtTimeoutBeforeLongPressTaskIsLongPressOnly() {
+        // Release event is handled before long press task of same time.
+        input(TouchSample.ACTION_DOWN, 0);
+        input(TouchSample.ACTION_UP, TIMEOUT_MILLIS);
+        mScheduler.advanceTo(TIMEOUT_MILLIS * 2);
+
+        assertEquals(0, mTapCount);
+        assertEquals(1, mLongPressCount);
+    }
+
+    @Test
+    public void eventAfterReleaseIsIgnored() {
+        input(TouchSample.ACTION_DOWN, 0);
+        mRecognizer.release();
+        input(TouchSample.ACTION_UP, TIMEOUT_MILLIS - 1);
+        input(TouchSample.ACTION_DOWN, TIMEOUT_MILLIS);
+        input(TouchSample.ACTION_UP, TIMEOUT_MILLIS * 2);
+        mScheduler.advanceTo(TIMEOUT_MILLIS * 4);
+
+        assertEquals(0, mTapCount);
+        assertEquals(0, mLongPressCount);
+    }
+
+    @Test
+    public void releaseAfterTimeoutIsLongPressOnly() {
+        input(TouchSample.ACTION_DOWN, 0);
+        mScheduler.advanceTo(TIMEOUT_MILLIS + 1);
+        input(TouchSample.ACTION_UP, TIMEOUT_MILLIS + 1);
+
+        assertEquals(0, mTapCount);
+        assertEquals(1, mLongPressCount);
+    }
+
+    private void input(int action, long eventTime) {
+        mSample.set(action, 0, 1, eventTime);
+        mSample.setPointer(0, X, Y);
+        mRecognizer.onTouchSample(mSample);
+    }
+}
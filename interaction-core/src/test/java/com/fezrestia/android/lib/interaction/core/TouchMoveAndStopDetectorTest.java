@@ -0,0 +1,189 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Replay synthetic drag-then-hold trace in event time stop detection mode.
+ */
+public class TouchMoveAndStopDetectorTest {
+    // Detection parameters.
+    private static final int TOUCH_SLOP = 8;
+
+    // Trace. Drag 6 pixels per 16 millis from down position, then hold.
+    private static final long DOWN_TIME = 0;
+    private static final int DOWN_X = 100;
+    private static final int DOWN_Y = 100;
+    private static final int FRAME_MILLIS = 16;
+    private static final int STEP_X = 6;
+    private static final int DRAG_FRAME_COUNT = 30;
+    private static final long RELEASE_TIME = 1000;
+    private static final int HOLD_X = DOWN_X + STEP_X * DRAG_FRAME_COUNT;
+
+    // Drag ends at 480. Check points are every 200 millis from down time.
+    // Check at 600 sees finger moved since 400, and check at 800 sees no move.
+    private static final long EXPECTED_STOP_TIME = 800;
+
+    // Seqlock stress test.
+    private static final int SEQLOCK_WRITE_COUNT = 2000000;
+
+    private VirtualTimeScheduler mScheduler;
+    private InteractionCore mCore;
+    private RecordingCallback mCallback;
+
+    @Before
+    public void setUp() {
+        mScheduler = new VirtualTimeScheduler(DOWN_TIME);
+        mCore = new InteractionCore(TOUCH_SLOP, mScheduler, mScheduler, mScheduler);
+        mCore.setTouchStopDetectionMode(InteractionCore.TOUCH_STOP_DETECTION_MODE_EVENT_TIME);
+        mCallback = new RecordingCallback(mScheduler);
+        mCore.setCallback(mCallback, InteractionCore.INTEREST_SINGLE_MOVE_AND_STOP);
+    }
+
+    @Test
+    public void stopIsDetectedAtCheckPointWhileHoldingWithEvents() throws Exception {
+        replay(createDragThenHoldTrace(true));
+
+        List<RecordingCallback.Record> stops = mCallback.get("onSingleStopped");
+        assertEquals(1, stops.size());
+        assertEquals(EXPECTED_STOP_TIME, stops.get(0).mUptimeMillis);
+        assertArrayEquals(
+                new int[] { HOLD_X, DOWN_Y, HOLD_X, DOWN_Y, DOWN_X, DOWN_Y },
+                stops.get(0).mArgs);
+    }
+
+    @Test
+    public void stopIsDetectedAtCheckPointWhileHoldingWithoutEvent() throws Exception {
+        replay(createDragThenHoldTrace(false));
+
+        // Detected by deferred check, previous position is the one of last drag event.
+        List<RecordingCallback.Record> stops = mCallback.get("onSingleStopped");
+        assertEquals(1, stops.size());
+        assertEquals(EXPECTED_STOP_TIME, stops.get(0).mUptimeMillis);
+        assertArrayEquals(
+                new int[] { HOLD_X, DOWN_Y, HOLD_X - STEP_X, DOWN_Y, DOWN_X, DOWN_Y },
+                stops.get(0).mArgs);
+    }
+
+    @Test
+    public void stopIsNotifiedViaCallbackSchedulerInTimerMode() throws Exception {
+        mCore.setTouchStopDetectionMode(InteractionCore.TOUCH_STOP_DETECTION_MODE_TIMER);
+        replay(createDragThenHoldTrace(false));
+
+        List<RecordingCallback.Record> stops = mCallback.get("onSingleStopped");
+        assertEquals(1, stops.size());
+        assertEquals(EXPECTED_STOP_TIME, stops.get(0).mUptimeMillis);
+        assertArrayEquals(
+                new int[] { HOLD_X, DOWN_Y, HOLD_X - STEP_X, DOWN_Y, DOWN_X, DOWN_Y },
+                stops.get(0).mArgs);
+    }
+
+    @Test
+    public void moveIsNotNotifiedAfterStop() throws Exception {
+        replay(createDragThenHoldTrace(true));
+
+        // Hold position is out of touch slop from down position until stop is detected.
+        List<RecordingCallback.Record> moves = mCallback.get("onSingleMoved");
+        assertTrue(0 < moves.size());
+        for (RecordingCallback.Record move : moves) {
+            assertTrue(move.mUptimeMillis < EXPECTED_STOP_TIME);
+        }
+    }
+
+    @Test
+    public void seqLockSnapshotIsNeverTorn() throws Exception {
+        final TouchMoveAndStopDetector.TouchPositionSeqLock seqLock =
+                new TouchMoveAndStopDetector.TouchPositionSeqLock();
+        final AtomicBoolean isWriting = new AtomicBoolean(true);
+
+        // All values are derived from one counter, so mixed writes are detected.
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int n = 1; n <= SEQLOCK_WRITE_COUNT; ++n) {
+                    seqLock.write(n, -n, n - 1, -(n - 1), 2 * n, -2 * n);
+                }
+                isWriting.set(false);
+            }
+        });
+        writer.start();
+
+        int[] snapshot = new int[TouchMoveAndStopDetector.TouchPositionSeqLock.SNAPSHOT_SIZE];
+        int lastN = 0;
+        do {
+            seqLock.read(snapshot);
+            int n = snapshot[TouchMoveAndStopDetector.TouchPositionSeqLock.SNAPSHOT_CUR_X];
+            if (n == 0) {
+                // Not written yet.
+                assertArrayEquals(new int[snapshot.length], snapshot);
+                continue;
+            }
+            assertArrayEquals(new int[] { n, -n, n - 1, -(n - 1), 2 * n, -2 * n }, snapshot);
+
+            // Single writer, so snapshot never goes back.
+            assertTrue(lastN <= n);
+            lastN = n;
+        } while (isWriting.get());
+
+        writer.join();
+        seqLock.read(snapshot);
+        assertEquals(SEQLOCK_WRITE_COUNT,
+                snapshot[TouchMoveAndStopDetector.TouchPositionSeqLock.SNAPSHOT_CUR_X]);
+    }
+
+    private void replay(ByteBuffer trace) throws Exception {
+        TouchTraceReplayer replayer = new TouchTraceReplayer(mCore, mScheduler);
+        replayer.replay(
+                new TouchTraceReader(trace),
+                TouchTraceReplayer.SPEED_AS_FAST_AS_POSSIBLE);
+    }
+
+    private static ByteBuffer createDragThenHoldTrace(boolean isEventDuringHold)
+            throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TouchTraceWriter writer = new TouchTraceWriter(output);
+        TouchSample sample = new TouchSample();
+
+        // Down.
+        sample.set(TouchSample.ACTION_DOWN, 0, 1, DOWN_TIME);
+        sample.setPointer(0, DOWN_X, DOWN_Y);
+        writer.write(sample);
+
+        // Drag.
+        long eventTime = DOWN_TIME;
+        for (int i = 1; i <= DRAG_FRAME_COUNT; ++i) {
+            eventTime += FRAME_MILLIS;
+            sample.set(TouchSample.ACTION_MOVE, 0, 1, eventTime);
+            sample.setPointer(0, DOWN_X + STEP_X * i, DOWN_Y);
+            writer.write(sample);
+        }
+
+        // Hold.
+        if (isEventDuringHold) {
+            for (eventTime += FRAME_MILLIS; eventTime < RELEASE_TIME; eventTime += FRAME_MILLIS) {
+                sample.set(TouchSample.ACTION_MOVE, 0, 1, eventTime);
+                sample.setPointer(0, HOLD_X, DOWN_Y);
+                writer.write(sample);
+            }
+        }
+
+        // Up.
+        sample.set(TouchSample.ACTION_UP, 0, 1, RELEASE_TIME);
+        sample.setPointer(0, HOLD_X, DOWN_Y);
+        writer.write(sample);
+
+        writer.close();
+        return ByteBuffer.wrap(output.toByteArray());
+    }
+}
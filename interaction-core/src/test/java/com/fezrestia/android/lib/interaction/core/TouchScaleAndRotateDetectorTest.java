@@ -0,0 +1,163 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Scale and rotate decisions against LegacyTouchScaleAndRotateDetector, on same traces.
+ * TouchScaleAndRotateDetector is input with historical samples of each event, and
+ * LegacyTouchScaleAndRotateDetector only with current sample, as before.
+ */
+public class TouchScaleAndRotateDetectorTest {
+    // Reported value tolerance, against float rounding difference.
+    private static final float LENGTH_TOLERANCE = 0.001f;
+    private static final float DEGREE_TOLERANCE = 0.01f;
+
+    /**
+     * Detection results of one move event.
+     */
+    private static class Recorder
+            implements TouchScaleAndRotateDetector.ScaleAndRotateDetectorListener {
+        boolean mIsScaled;
+        boolean mIsRotated;
+        float mCurrentLength;
+        float mPreviousLength;
+        float mDegreeVsOrigin;
+
+        void clear() {
+            mIsScaled = false;
+            mIsRotated = false;
+        }
+
+        @Override
+        public void onDoubleTouchScaleDetected(
+                float currentLength,
+                float previousLength,
+                float originalLength) {
+            mIsScaled = true;
+            mCurrentLength = currentLength;
+            mPreviousLength = previousLength;
+        }
+
+        @Override
+        public void onDoubleTouchRotateDetected(float degreeVsOrigin, float degreeVsPrevious) {
+            mIsRotated = true;
+            mDegreeVsOrigin = degreeVsOrigin;
+        }
+    }
+
+    /**
+     * Count of detected moves in one trace.
+     */
+    private static class Result {
+        int mScaleCount = 0;
+        int mRotateCount = 0;
+    }
+
+    @Test
+    public void pinchIsSameAsLegacy() {
+        Result result = checkSameAsLegacy(TouchTraces.PINCH);
+        assertTrue(0 < result.mScaleCount);
+    }
+
+    @Test
+    public void rotateIsSameAsLegacy() {
+        Result result = checkSameAsLegacy(TouchTraces.ROTATE);
+        assertTrue(0 < result.mRotateCount);
+    }
+
+    @Test
+    public void highRatePinchIsSameAsLegacy() {
+        Result result = checkSameAsLegacy(TouchTraces.PINCH_240HZ);
+        assertTrue(0 < result.mScaleCount);
+    }
+
+    @Test
+    public void highRateRotateIsSameAsLegacy() {
+        Result result = checkSameAsLegacy(TouchTraces.ROTATE_240HZ);
+        assertTrue(0 < result.mRotateCount);
+    }
+
+    private static Result checkSameAsLegacy(String trace) {
+        Recorder current = new Recorder();
+        Recorder legacy = new Recorder();
+        TouchScaleAndRotateDetector detector = new TouchScaleAndRotateDetector();
+        detector.setScaleAndRotateDetectorListener(current);
+        LegacyTouchScaleAndRotateDetector legacyDetector = new LegacyTouchScaleAndRotateDetector();
+        legacyDetector.setScaleAndRotateDetectorListener(legacy);
+
+        // Historical and current samples of one event.
+        final int batchSize = TouchSample.MAX_HISTORY_SIZE + 1;
+        final float[] x0 = new float[batchSize];
+        final float[] y0 = new float[batchSize];
+        final float[] x1 = new float[batchSize];
+        final float[] y1 = new float[batchSize];
+
+        // Detect in each 2-finger gesture.
+        Result result = new Result();
+        boolean isDetecting = false;
+        int moveCount = 0;
+
+        for (TouchSample sample : TouchTraces.create(trace)) {
+            if (sample.getPointerCount() != 2
+                    || sample.getActionMasked() != TouchSample.ACTION_MOVE) {
+                if (isDetecting) {
+                    detector.stopScaleAndRotateDetection();
+                    legacyDetector.stopScaleAndRotateDetection();
+                    isDetecting = false;
+                }
+                if (sample.getPointerCount() == 2
+                        && sample.getActionMasked() == TouchSample.ACTION_POINTER_DOWN) {
+                    detector.startScaleAndRotateDetection(
+                            sample.getX(0), sample.getY(0), sample.getX(1), sample.getY(1));
+                    legacyDetector.startScaleAndRotateDetection(
+                            sample.getX(0), sample.getY(0), sample.getX(1), sample.getY(1));
+                    isDetecting = true;
+                }
+                continue;
+            }
+            if (!isDetecting) {
+                continue;
+            }
+
+            current.clear();
+            legacy.clear();
+            final int historySize = sample.getHistorySize();
+            for (int pos = 0; pos < historySize; ++pos) {
+                x0[pos] = sample.getHistoricalX(0, pos);
+                y0[pos] = sample.getHistoricalY(0, pos);
+                x1[pos] = sample.getHistoricalX(1, pos);
+                y1[pos] = sample.getHistoricalY(1, pos);
+            }
+            x0[historySize] = sample.getX(0);
+            y0[historySize] = sample.getY(0);
+            x1[historySize] = sample.getX(1);
+            y1[historySize] = sample.getY(1);
+            detector.updateCurrentPositions(x0, y0, x1, y1, historySize + 1);
+            legacyDetector.updateCurrentPosition(
+                    sample.getX(0), sample.getY(0), sample.getX(1), sample.getY(1));
+            ++moveCount;
+
+            final String message = trace + " : move " + moveCount;
+            assertEquals(message, legacy.mIsScaled, current.mIsScaled);
+            assertEquals(message, legacy.mIsRotated, current.mIsRotated);
+            if (current.mIsScaled) {
+                ++result.mScaleCount;
+                assertEquals(
+                        message, legacy.mCurrentLength, current.mCurrentLength, LENGTH_TOLERANCE);
+                assertEquals(
+                        message, legacy.mPreviousLength, current.mPreviousLength, LENGTH_TOLERANCE);
+            }
+            if (current.mIsRotated) {
+                ++result.mRotateCount;
+                assertEquals(
+                        message, legacy.mDegreeVsOrigin, current.mDegreeVsOrigin, DEGREE_TOLERANCE);
+            }
+        }
+
+        assertTrue(trace, 0 < moveCount);
+        return result;
+    }
+}
@@ -0,0 +1,140 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * Touch trace round trip, with and without history.
+ */
+public class TouchTraceReaderTest {
+    // Trace. 2 fingers, coordinates are multiple of 1/4 pixel.
+    private static final long DOWN_TIME = 123456789L;
+    private static final int FRAME_MILLIS = 16;
+    private static final int FRAME_COUNT = 8;
+
+    @Test
+    public void historyIsReadAsWritten() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TouchTraceWriter writer = new TouchTraceWriter(output);
+        TouchSample sample = new TouchSample();
+
+        sample.set(TouchSample.ACTION_DOWN, 0, 1, DOWN_TIME);
+        sample.setPointer(0, 10.0f, 20.0f);
+        writer.write(sample);
+        for (int frame = 1; frame <= FRAME_COUNT; ++frame) {
+            fillMove(sample, frame, historySizeOf(frame));
+            writer.write(sample);
+        }
+        writer.close();
+
+        TouchTraceReader reader = new TouchTraceReader(ByteBuffer.wrap(output.toByteArray()));
+        assertEquals(DOWN_TIME, reader.getBaseEventTime());
+
+        TouchSample actual = new TouchSample();
+        assertTrue(reader.next(actual));
+        assertEquals(TouchSample.ACTION_DOWN, actual.getActionMasked());
+        assertEquals(DOWN_TIME, actual.getEventTime());
+        assertEquals(0, actual.getHistorySize());
+
+        TouchSample expected = new TouchSample();
+        for (int frame = 1; frame <= FRAME_COUNT; ++frame) {
+            assertTrue(reader.next(actual));
+            fillMove(expected, frame, historySizeOf(frame));
+            assertSameSample(expected, actual);
+        }
+        assertFalse(reader.next(actual));
+    }
+
+    @Test
+    public void traceWithoutHistoryIsReadable() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(TouchTraceWriter.MAGIC);
+        data.writeInt(TouchTraceWriter.VERSION_WITHOUT_HISTORY);
+        data.writeLong(DOWN_TIME);
+        // Down.
+        data.writeByte(TouchSample.ACTION_DOWN);
+        data.writeByte(0);
+        data.writeByte(1);
+        data.writeInt(0);
+        data.writeShort(40);
+        data.writeShort(80);
+        // Up.
+        data.writeByte(TouchSample.ACTION_UP);
+        data.writeByte(0);
+        data.writeByte(1);
+        data.writeInt(FRAME_MILLIS);
+        data.writeShort(44);
+        data.writeShort(84);
+        data.close();
+
+        TouchTraceReader reader = new TouchTraceReader(ByteBuffer.wrap(output.toByteArray()));
+        TouchSample actual = new TouchSample();
+        assertTrue(reader.next(actual));
+        assertEquals(TouchSample.ACTION_DOWN, actual.getActionMasked());
+        assertEquals(DOWN_TIME, actual.getEventTime());
+        assertEquals(10.0f, actual.getX(0), 0.0f);
+        assertEquals(20.0f, actual.getY(0), 0.0f);
+        assertTrue(reader.next(actual));
+        assertEquals(TouchSample.ACTION_UP, actual.getActionMasked());
+        assertEquals(DOWN_TIME + FRAME_MILLIS, actual.getEventTime());
+        assertEquals(11.0f, actual.getX(0), 0.0f);
+        assertEquals(21.0f, actual.getY(0), 0.0f);
+        assertEquals(0, actual.getHistorySize());
+        assertFalse(reader.next(actual));
+    }
+
+    // No history, some history, and full history.
+    private static int historySizeOf(int frame) {
+        switch (frame % 3) {
+            case 0:
+                return 0;
+            case 1:
+                return 3;
+            default:
+                return TouchSample.MAX_HISTORY_SIZE;
+        }
+    }
+
+    private static void fillMove(TouchSample sample, int frame, int historySize) {
+        final long eventTime = DOWN_TIME + FRAME_MILLIS * frame;
+        sample.set(TouchSample.ACTION_MOVE, 0, 2, eventTime);
+        sample.setPointer(0, 10.0f + frame, 20.0f - frame);
+        sample.setPointer(1, 300.25f + frame, 400.75f);
+        sample.setHistorySize(historySize);
+        for (int pos = 0; pos < historySize; ++pos) {
+            // Several samples may have same time.
+            sample.setHistoricalEventTime(pos, eventTime - FRAME_MILLIS + pos / 3);
+            sample.setHistoricalPointer(0, pos, 10.0f + frame - 0.25f * pos, 20.0f);
+            sample.setHistoricalPointer(1, pos, 300.0f, 400.5f + 0.25f * pos);
+        }
+    }
+
+    private static void assertSameSample(TouchSample expected, TouchSample actual) {
+        assertEquals(expected.getActionMasked(), actual.getActionMasked());
+        assertEquals(expected.getActionIndex(), actual.getActionIndex());
+        assertEquals(expected.getPointerCount(), actual.getPointerCount());
+        assertEquals(expected.getEventTime(), actual.getEventTime());
+        for (int i = 0; i < expected.getPointerCount(); ++i) {
+            assertEquals(expected.getX(i), actual.getX(i), 0.0f);
+            assertEquals(expected.getY(i), actual.getY(i), 0.0f);
+        }
+
+        assertEquals(expected.getHistorySize(), actual.getHistorySize());
+        for (int pos = 0; pos < expected.getHistorySize(); ++pos) {
+            assertEquals(expected.getHistoricalEventTime(pos), actual.getHistoricalEventTime(pos));
+            for (int i = 0; i < TouchSample.MAX_HISTORICAL_POINTER_COUNT; ++i) {
+                assertEquals(expected.getHistoricalX(i, pos), actual.getHistoricalX(i, pos), 0.0f);
+                assertEquals(expected.getHistoricalY(i, pos), actual.getHistoricalY(i, pos), 0.0f);
+            }
+        }
+    }
+}
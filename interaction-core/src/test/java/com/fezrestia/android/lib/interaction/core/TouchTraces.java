@@ -0,0 +1,371 @@
+package com.fezrestia.android.lib.interaction.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Synthetic touch traces for benchmark and tests.
+ *
+ * Each trace starts from ACTION_DOWN at time 0 and ends with ACTION_UP or ACTION_CANCEL,
+ * so trace can be input repeatedly from idle state.
+ *
+ * Recorded trace file can be used instead, by trace name "file:" + path.
+ * For example, -p trace=file:/path/to/touch_trace.ttrc
+ */
+class TouchTraces {
+    // Trace names.
+    static final String TAP = "tap";
+    static final String LONG_PRESS = "long_press";
+    static final String SINGLE_DRAG = "single_drag";
+    static final String PINCH = "pinch";
+    static final String ROTATE = "rotate";
+    static final String TRIPLE_CANCEL = "triple_cancel";
+    static final String PINCH_240HZ = "pinch_240hz";
+    static final String ROTATE_240HZ = "rotate_240hz";
+    static final String FILE_PREFIX = "file:";
+
+    // Input event interval, same as 60fps touch panel.
+    static final int EVENT_INTERVAL_MILLIS = 16;
+
+    // Samples per event of high rate traces, same as 240Hz touch panel batched at 60fps.
+    // Older samples are stored as history of ACTION_MOVE.
+    static final int HIGH_RATE_SAMPLES_PER_EVENT = 4;
+
+    // Touch slop used by benchmark.
+    static final int TOUCH_SLOP = 8;
+
+    // Center of gesture.
+    private static final float CENTER_X = 540.0f;
+    private static final float CENTER_Y = 960.0f;
+
+    /**
+     * Create trace.
+     *
+     * @param trace One of trace names, or recorded trace file.
+     * @return
+     */
+    static TouchSample[] create(String trace) {
+        ArrayList<TouchSample> samples = new ArrayList<TouchSample>();
+
+        if (trace.startsWith(FILE_PREFIX)) {
+            load(new File(trace.substring(FILE_PREFIX.length())), samples);
+            return samples.toArray(new TouchSample[samples.size()]);
+        }
+
+        switch (trace) {
+            case TAP:
+                createTap(samples);
+                break;
+
+            case LONG_PRESS:
+                createLongPress(samples);
+                break;
+
+            case SINGLE_DRAG:
+                createSingleDrag(samples);
+                break;
+
+            case PINCH:
+                createPinch(samples);
+                break;
+
+            case ROTATE:
+                createRotate(samples);
+                break;
+
+            case TRIPLE_CANCEL:
+                createTripleCancel(samples);
+                break;
+
+            case PINCH_240HZ:
+                createPinchHighRate(samples);
+                break;
+
+            case ROTATE_240HZ:
+                createRotateHighRate(samples);
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown trace : " + trace);
+        }
+
+        return samples.toArray(new TouchSample[samples.size()]);
+    }
+
+    private static void load(File file, ArrayList<TouchSample> samples) {
+        TouchTraceReader reader;
+        try {
+            reader = TouchTraceReader.open(file);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to load trace : " + file, e);
+        }
+
+        TouchSample sample = new TouchSample();
+        while (reader.next(sample)) {
+            samples.add(sample);
+            sample = new TouchSample();
+        }
+        if (samples.isEmpty()) {
+            throw new IllegalArgumentException("Empty trace : " + file);
+        }
+    }
+
+    private static void createTap(ArrayList<TouchSample> samples) {
+        long time = 0;
+        add(samples, TouchSample.ACTION_DOWN, 0, time, CENTER_X, CENTER_Y);
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_MOVE, 0, time, CENTER_X + 1, CENTER_Y + 1);
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_MOVE, 0, time, CENTER_X + 2, CENTER_Y + 1);
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_UP, 0, time, CENTER_X + 2, CENTER_Y + 1);
+    }
+
+    private static void createLongPress(ArrayList<TouchSample> samples) {
+        long time = 0;
+        add(samples, TouchSample.ACTION_DOWN, 0, time, CENTER_X, CENTER_Y);
+
+        // Finger jitters within touch slop for 1 sec.
+        for (int i = 0; i < 60; ++i) {
+            time += EVENT_INTERVAL_MILLIS;
+            final float jitter = (i % 4) - 1.5f;
+            add(samples, TouchSample.ACTION_MOVE, 0, time, CENTER_X + jitter, CENTER_Y - jitter);
+        }
+
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_UP, 0, time, CENTER_X, CENTER_Y);
+    }
+
+    private static void createSingleDrag(ArrayList<TouchSample> samples) {
+        long time = 0;
+        float x = CENTER_X;
+        float y = CENTER_Y;
+        add(samples, TouchSample.ACTION_DOWN, 0, time, x, y);
+
+        // Move, and stop for a while.
+        for (int i = 0; i < 60; ++i) {
+            time += EVENT_INTERVAL_MILLIS;
+            x += 6.0f;
+            y -= 3.0f;
+            add(samples, TouchSample.ACTION_MOVE, 0, time, x, y);
+        }
+        for (int i = 0; i < 30; ++i) {
+            time += EVENT_INTERVAL_MILLIS;
+            add(samples, TouchSample.ACTION_MOVE, 0, time, x, y);
+        }
+
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_UP, 0, time, x, y);
+    }
+
+    private static void createPinch(ArrayList<TouchSample> samples) {
+        long time = 0;
+        float half = 100.0f;
+        add(samples, TouchSample.ACTION_DOWN, 0, time, CENTER_X - half, CENTER_Y);
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_POINTER_DOWN, 1, time,
+                CENTER_X - half, CENTER_Y, CENTER_X + half, CENTER_Y);
+
+        // Pinch out along X axis.
+        for (int i = 0; i < 60; ++i) {
+            time += EVENT_INTERVAL_MILLIS;
+            half += 4.0f;
+            add(samples, TouchSample.ACTION_MOVE, 0, time,
+                    CENTER_X - half, CENTER_Y, CENTER_X + half, CENTER_Y);
+        }
+
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_POINTER_UP, 1, time,
+                CENTER_X - half, CENTER_Y, CENTER_X + half, CENTER_Y);
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_UP, 0, time, CENTER_X - half, CENTER_Y);
+    }
+
+    private static void createRotate(ArrayList<TouchSample> samples) {
+        long time = 0;
+        final float radius = 200.0f;
+        add(samples, TouchSample.ACTION_DOWN, 0, time, CENTER_X - radius, CENTER_Y);
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_POINTER_DOWN, 1, time,
+                CENTER_X - radius, CENTER_Y, CENTER_X + radius, CENTER_Y);
+
+        // Rotate 2 fingers around center, 3 degree per event.
+        float x0 = 0.0f;
+        float y0 = 0.0f;
+        float x1 = 0.0f;
+        float y1 = 0.0f;
+        for (int i = 1; i <= 60; ++i) {
+            time += EVENT_INTERVAL_MILLIS;
+            final double rad = Math.toRadians(3.0 * i);
+            final float dx = (float) (radius * Math.cos(rad));
+            final float dy = (float) (radius * Math.sin(rad));
+            x0 = CENTER_X - dx;
+            y0 = CENTER_Y - dy;
+            x1 = CENTER_X + dx;
+            y1 = CENTER_Y + dy;
+            add(samples, TouchSample.ACTION_MOVE, 0, time, x0, y0, x1, y1);
+        }
+
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_POINTER_UP, 1, time, x0, y0, x1, y1);
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_UP, 0, time, x0, y0);
+    }
+
+    private static void createPinchHighRate(ArrayList<TouchSample> samples) {
+        long time = 0;
+        float half = 100.0f;
+        add(samples, TouchSample.ACTION_DOWN, 0, time, CENTER_X - half, CENTER_Y);
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_POINTER_DOWN, 1, time,
+                CENTER_X - half, CENTER_Y, CENTER_X + half, CENTER_Y);
+
+        // Same pinch out as PINCH, sampled 4 times per event.
+        final int n = HIGH_RATE_SAMPLES_PER_EVENT;
+        final float[] xy = new float[n * 4];
+        for (int i = 0; i < 60; ++i) {
+            for (int k = 0; k < n; ++k) {
+                half += 4.0f / n;
+                xy[k * 4] = CENTER_X - half;
+                xy[k * 4 + 1] = CENTER_Y;
+                xy[k * 4 + 2] = CENTER_X + half;
+                xy[k * 4 + 3] = CENTER_Y;
+            }
+            time += EVENT_INTERVAL_MILLIS;
+            addMoveWithHistory(samples, time, n, xy);
+        }
+
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_POINTER_UP, 1, time,
+                CENTER_X - half, CENTER_Y, CENTER_X + half, CENTER_Y);
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_UP, 0, time, CENTER_X - half, CENTER_Y);
+    }
+
+    private static void createRotateHighRate(ArrayList<TouchSample> samples) {
+        long time = 0;
+        final float radius = 200.0f;
+        add(samples, TouchSample.ACTION_DOWN, 0, time, CENTER_X - radius, CENTER_Y);
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_POINTER_DOWN, 1, time,
+                CENTER_X - radius, CENTER_Y, CENTER_X + radius, CENTER_Y);
+
+        // Same rotation as ROTATE, sampled 4 times per event.
+        final int n = HIGH_RATE_SAMPLES_PER_EVENT;
+        final float[] xy = new float[n * 4];
+        for (int i = 1; i <= 60; ++i) {
+            for (int k = 1; k <= n; ++k) {
+                final double rad = Math.toRadians(3.0 * (i - 1) + 3.0 * k / n);
+                final float dx = (float) (radius * Math.cos(rad));
+                final float dy = (float) (radius * Math.sin(rad));
+                xy[(k - 1) * 4] = CENTER_X - dx;
+                xy[(k - 1) * 4 + 1] = CENTER_Y - dy;
+                xy[(k - 1) * 4 + 2] = CENTER_X + dx;
+                xy[(k - 1) * 4 + 3] = CENTER_Y + dy;
+            }
+            time += EVENT_INTERVAL_MILLIS;
+            addMoveWithHistory(samples, time, n, xy);
+        }
+
+        final int last = (n - 1) * 4;
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_POINTER_UP, 1, time,
+                xy[last], xy[last + 1], xy[last + 2], xy[last + 3]);
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_UP, 0, time, xy[last], xy[last + 1]);
+    }
+
+    private static void createTripleCancel(ArrayList<TouchSample> samples) {
+        long time = 0;
+        final float x0 = CENTER_X - 200.0f;
+        final float x1 = CENTER_X;
+        final float x2 = CENTER_X + 200.0f;
+        add(samples, TouchSample.ACTION_DOWN, 0, time, x0, CENTER_Y);
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_POINTER_DOWN, 1, time, x0, CENTER_Y, x1, CENTER_Y);
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_POINTER_DOWN, 2, time,
+                x0, CENTER_Y, x1, CENTER_Y, x2, CENTER_Y);
+
+        // 3 fingers swipe down.
+        float y = CENTER_Y;
+        for (int i = 0; i < 20; ++i) {
+            time += EVENT_INTERVAL_MILLIS;
+            y += 10.0f;
+            add(samples, TouchSample.ACTION_MOVE, 0, time, x0, y, x1, y, x2, y);
+        }
+
+        time += EVENT_INTERVAL_MILLIS;
+        add(samples, TouchSample.ACTION_CANCEL, 0, time, x0, y, x1, y, x2, y);
+    }
+
+    private static void add(
+            ArrayList<TouchSample> samples,
+            int actionMasked,
+            int actionIndex,
+            long eventTime,
+            float... xy) {
+        TouchSample sample = new TouchSample();
+        sample.set(actionMasked, actionIndex, xy.length / 2, eventTime);
+        for (int i = 0; i < xy.length / 2; ++i) {
+            sample.setPointer(i, xy[i * 2], xy[i * 2 + 1]);
+        }
+        samples.add(sample);
+    }
+
+    // 2-finger ACTION_MOVE, xy has x0, y0, x1, y1 of each sample, oldest first.
+    // Samples are evenly spaced in time until eventTime.
+    private static void addMoveWithHistory(
+            ArrayList<TouchSample> samples,
+            long eventTime,
+            int sampleCount,
+            float[] xy) {
+        final int historySize = sampleCount - 1;
+        final int last = historySize * 4;
+        TouchSample sample = new TouchSample();
+        sample.set(TouchSample.ACTION_MOVE, 0, 2, eventTime);
+        sample.setPointer(0, xy[last], xy[last + 1]);
+        sample.setPointer(1, xy[last + 2], xy[last + 3]);
+        sample.setHistorySize(historySize);
+        for (int pos = 0; pos < historySize; ++pos) {
+            sample.setHistoricalEventTime(
+                    pos,
+                    eventTime - (long) EVENT_INTERVAL_MILLIS * (historySize - pos) / sampleCount);
+            sample.setHistoricalPointer(0, pos, xy[pos * 4], xy[pos * 4 + 1]);
+            sample.setHistoricalPointer(1, pos, xy[pos * 4 + 2], xy[pos * 4 + 3]);
+        }
+        samples.add(sample);
+    }
+
+    /**
+     * Copy sample with event time offset.
+     *
+     * @param src
+     * @param dst
+     * @param timeOffset
+     */
+    static void copy(TouchSample src, TouchSample dst, long timeOffset) {
+        final int pointerCount = src.getPointerCount();
+        dst.set(
+                src.getActionMasked(),
+                src.getActionIndex(),
+                pointerCount,
+                src.getEventTime() + timeOffset);
+        for (int i = 0; i < pointerCount; ++i) {
+            dst.setPointer(i, src.getX(i), src.getY(i));
+        }
+
+        final int historySize = src.getHistorySize();
+        final int historicalPointerCount =
+                Math.min(pointerCount, TouchSample.MAX_HISTORICAL_POINTER_COUNT);
+        dst.setHistorySize(historySize);
+        for (int pos = 0; pos < historySize; ++pos) {
+            dst.setHistoricalEventTime(pos, src.getHistoricalEventTime(pos) + timeOffset);
+            for (int i = 0; i < historicalPointerCount; ++i) {
+                dst.setHistoricalPointer(
+                        i, pos, src.getHistoricalX(i, pos), src.getHistoricalY(i, pos));
+            }
+        }
+    }
+}
@@ -1,11 +1,9 @@
 package com.fezrestia.android.util.math;
 
-import android.graphics.PointF;
-
 /**
- * This class is used to calculate vector.
+ * VectorCalculator before squared cosine comparison, baseline of benchmark and tests.
  */
-public class VectorCalculator {
+public class LegacyVectorCalculator {
     // Direction threshold.
     private static final float RIGHT_ANGLE = (float) Math.PI / 2.0f;
     private static final float RIGHT_ANGLE_TOLERANCE = (float) Math.PI / 3.0f;
@@ -13,9 +11,16 @@ public class VectorCalculator {
     private static final float PARALLEL_ANGLE_FORWARD_DIRECTION = 0.0f;
     private static final float PARALLEL_ANGLE_TOLERANCE = (float) Math.PI / 3.0f;
 
-    public static float getRadianFrom2Vector(PointF vec0, PointF vec1) {
-        if ((0 < vec0.length()) && (0 < vec1.length())) {
-            float difCos = (vec0.x * vec1.x + vec0.y * vec1.y) / vec0.length() / vec1.length();
+    public static float getLength(float x, float y) {
+        return (float) Math.hypot(x, y);
+    }
+
+    public static float getRadianFrom2Vector(float x0, float y0, float x1, float y1) {
+        final float len0 = getLength(x0, y0);
+        final float len1 = getLength(x1, y1);
+
+        if ((0 < len0) && (0 < len1)) {
+            float difCos = (x0 * x1 + y0 * y1) / len0 / len1;
 
             // Check limit.
             if (difCos < -1.0f) {
@@ -32,8 +37,8 @@ public class VectorCalculator {
         return 0.0f;
     }
 
-    public static boolean isSquare(PointF vec0, PointF vec1) {
-        float rad = getRadianFrom2Vector(vec0, vec1);
+    public static boolean isSquare(float x0, float y0, float x1, float y1) {
+        float rad = getRadianFrom2Vector(x0, y0, x1, y1);
 
         if ((RIGHT_ANGLE - RIGHT_ANGLE_TOLERANCE < rad)
                 && rad < RIGHT_ANGLE + RIGHT_ANGLE_TOLERANCE) {
@@ -43,8 +48,8 @@ public class VectorCalculator {
         return false;
     }
 
-    public static boolean isParallel(PointF vec0, PointF vec1) {
-        float rad = getRadianFrom2Vector(vec0, vec1);
+    public static boolean isParallel(float x0, float y0, float x1, float y1) {
+        float rad = getRadianFrom2Vector(x0, y0, x1, y1);
 
         if (isNearlyEquals(
                 PARALLEL_ANGLE_INVERSE_DIRECTION, rad, PARALLEL_ANGLE_TOLERANCE)) {
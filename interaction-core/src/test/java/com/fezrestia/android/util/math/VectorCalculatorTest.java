@@ -0,0 +1,179 @@
+package com.fezrestia.android.util.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Squared cosine classification against legacy acos classification.
+ */
+public class VectorCalculatorTest {
+    // Legacy direction threshold.
+    private static final float RIGHT_ANGLE = (float) Math.PI / 2.0f;
+    private static final float RIGHT_ANGLE_TOLERANCE = (float) Math.PI / 3.0f;
+    private static final float PARALLEL_ANGLE_INVERSE_DIRECTION = (float) Math.PI;
+    private static final float PARALLEL_ANGLE_FORWARD_DIRECTION = 0.0f;
+    private static final float PARALLEL_ANGLE_TOLERANCE = (float) Math.PI / 3.0f;
+
+    // Sampled vector space.
+    private static final int GRID_RANGE = 12;
+    private static final int ANGLE_SAMPLE_COUNT = 3600;
+    private static final float[] SAMPLE_LENGTHS = { 0.5f, 1.0f, 37.25f, 1024.0f };
+
+    @Test
+    public void integerGridIsSameAsLegacy() {
+        for (int x0 = -GRID_RANGE; x0 <= GRID_RANGE; ++x0) {
+            for (int y0 = -GRID_RANGE; y0 <= GRID_RANGE; ++y0) {
+                for (int x1 = -GRID_RANGE; x1 <= GRID_RANGE; ++x1) {
+                    for (int y1 = -GRID_RANGE; y1 <= GRID_RANGE; ++y1) {
+                        assertSameAsLegacy(x0, y0, x1, y1);
+
+                        final boolean isSquare = legacyIsSquare(x0, y0, x1, y1);
+                        final boolean isParallel = legacyIsParallel(x0, y0, x1, y1);
+                        assertEquals(isSquare, VectorCalculator.isSquare(x0, y0, x1, y1));
+                        assertEquals(isParallel, VectorCalculator.isParallel(x0, y0, x1, y1));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void angleSweepIsSameAsLegacy() {
+        for (float len0 : SAMPLE_LENGTHS) {
+            for (float len1 : SAMPLE_LENGTHS) {
+                for (int i = 0; i < ANGLE_SAMPLE_COUNT; ++i) {
+                    // Avoid exact multiples of PI/6, legacy acos is not exact there.
+                    final double rad = 2.0 * Math.PI * (i + 0.37) / ANGLE_SAMPLE_COUNT;
+                    final float x1 = (float) (len1 * Math.cos(rad + 0.5));
+                    final float y1 = (float) (len1 * Math.sin(rad + 0.5));
+                    final float x0 = (float) (len0 * Math.cos(0.5));
+                    final float y0 = (float) (len0 * Math.sin(0.5));
+                    assertSameAsLegacy(x0, y0, x1, y1);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void zeroLengthIsParallelAndNotSquare() {
+        assertSameAsLegacy(0.0f, 0.0f, 3.0f, 4.0f);
+        assertSameAsLegacy(3.0f, 4.0f, 0.0f, 0.0f);
+        assertSameAsLegacy(0.0f, 0.0f, 0.0f, 0.0f);
+        assertFalse(VectorCalculator.isSquare(0, 0, 3, 4));
+        assertTrue(VectorCalculator.isParallel(0, 0, 3, 4));
+    }
+
+    @Test
+    public void squareBoundaryIsExclusive() {
+        // cos^2 is exactly 3/4, angle is exactly PI/6 or 5 PI/6.
+        // Legacy range of angle is exclusive, so this is not square, but parallel.
+        assertFalse(VectorCalculator.isSquareByProduct(3.0f, 12.0f));
+        assertFalse(VectorCalculator.isSquareByProduct(-3.0f, 12.0f));
+        assertTrue(VectorCalculator.isParallelByProduct(3.0f, 12.0f));
+        assertTrue(VectorCalculator.isParallelByProduct(-3.0f, 12.0f));
+
+        // Just inside.
+        assertTrue(VectorCalculator.isSquareByProduct(Math.nextAfter(3.0f, 0.0), 12.0f));
+        assertTrue(VectorCalculator.isSquareByProduct(Math.nextAfter(-3.0f, 0.0), 12.0f));
+    }
+
+    @Test
+    public void parallelBoundaryIsExclusive() {
+        // cos^2 is exactly 1/4, angle is exactly PI/3 or 2 PI/3.
+        // Legacy range of angle is exclusive, so this is not parallel, but square.
+        assertFalse(VectorCalculator.isParallelByProduct(1.0f, 4.0f));
+        assertFalse(VectorCalculator.isParallelByProduct(-1.0f, 4.0f));
+        assertTrue(VectorCalculator.isSquareByProduct(1.0f, 4.0f));
+        assertTrue(VectorCalculator.isSquareByProduct(-1.0f, 4.0f));
+
+        // Just inside.
+        assertTrue(VectorCalculator.isParallelByProduct(Math.nextUp(1.0f), 4.0f));
+        assertTrue(VectorCalculator.isParallelByProduct(-Math.nextUp(1.0f), 4.0f));
+    }
+
+    @Test
+    public void batchLengthIsSameAsScalar() {
+        final float[] x = new float[ANGLE_SAMPLE_COUNT];
+        final float[] y = new float[ANGLE_SAMPLE_COUNT];
+        final float[] outLengths = new float[ANGLE_SAMPLE_COUNT];
+        for (float length : SAMPLE_LENGTHS) {
+            for (int i = 0; i < ANGLE_SAMPLE_COUNT; ++i) {
+                final double rad = 2.0 * Math.PI * i / ANGLE_SAMPLE_COUNT;
+                x[i] = (float) (length * Math.cos(rad));
+                y[i] = (float) (length * Math.sin(rad));
+            }
+            // Square overflows or underflows in float.
+            x[0] = 3.0e20f;
+            y[0] = 4.0e20f;
+            x[1] = 3.0e-25f;
+            y[1] = 4.0e-25f;
+
+            VectorCalculator.getLengths(x, y, outLengths, ANGLE_SAMPLE_COUNT);
+            for (int i = 0; i < ANGLE_SAMPLE_COUNT; ++i) {
+                assertEquals(
+                        Float.floatToIntBits(VectorCalculator.getLength(x[i], y[i])),
+                        Float.floatToIntBits(outLengths[i]));
+            }
+        }
+    }
+
+    private static void assertSameAsLegacy(float x0, float y0, float x1, float y1) {
+        final String message = "(" + x0 + ", " + y0 + ") (" + x1 + ", " + y1 + ")";
+        final boolean isSquare = legacyIsSquare(x0, y0, x1, y1);
+        final boolean isParallel = legacyIsParallel(x0, y0, x1, y1);
+
+        // Scalar.
+        assertEquals(message, isSquare, VectorCalculator.isSquare(x0, y0, x1, y1));
+        assertEquals(message, isParallel, VectorCalculator.isParallel(x0, y0, x1, y1));
+
+        // Batch.
+        final boolean[] outIsSquare = new boolean[1];
+        final boolean[] outIsParallel = new boolean[1];
+        final float[] ax0 = { x0 };
+        final float[] ay0 = { y0 };
+        final float[] ax1 = { x1 };
+        final float[] ay1 = { y1 };
+        VectorCalculator.isSquare(ax0, ay0, ax1, ay1, outIsSquare, 1);
+        VectorCalculator.isParallel(ax0, ay0, ax1, ay1, outIsParallel, 1);
+        assertEquals(message, isSquare, outIsSquare[0]);
+        assertEquals(message, isParallel, outIsParallel[0]);
+    }
+
+    // Legacy classification, from radian by acos.
+
+    private static float legacyGetRadianFrom2Vector(float x0, float y0, float x1, float y1) {
+        final float len0 = (float) Math.hypot(x0, y0);
+        final float len1 = (float) Math.hypot(x1, y1);
+
+        if ((0 < len0) && (0 < len1)) {
+            float difCos = (x0 * x1 + y0 * y1) / len0 / len1;
+
+            // Check limit.
+            if (difCos < -1.0f) {
+                difCos = -1.0f;
+            } else if (1.0f < difCos) {
+                difCos = 1.0f;
+            }
+
+            return (float) Math.acos(difCos);
+        }
+
+        // If length is 0, can not calculate.
+        return 0.0f;
+    }
+
+    private static boolean legacyIsSquare(float x0, float y0, float x1, float y1) {
+        final float rad = legacyGetRadianFrom2Vector(x0, y0, x1, y1);
+        return (RIGHT_ANGLE - RIGHT_ANGLE_TOLERANCE < rad)
+                && (rad < RIGHT_ANGLE + RIGHT_ANGLE_TOLERANCE);
+    }
+
+    private static boolean legacyIsParallel(float x0, float y0, float x1, float y1) {
+        final float rad = legacyGetRadianFrom2Vector(x0, y0, x1, y1);
+        return (Math.abs(PARALLEL_ANGLE_INVERSE_DIRECTION - rad) < PARALLEL_ANGLE_TOLERANCE)
+                || (Math.abs(PARALLEL_ANGLE_FORWARD_DIRECTION - rad) < PARALLEL_ANGLE_TOLERANCE);
+    }
+}